@@ -0,0 +1,169 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.configuration.Configuration;
+import app.gpx_animator.core.configuration.TrackConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the frames of many tracks which start one after the other, so that the same
+ * number of tracks is moving in every frame however many tracks there are in total.
+ * With fleet mode, the time per frame should depend on the moving tracks only, the
+ * finished and the not yet started tracks should hardly count.
+ *
+ * <p>Every iteration renders the same frames from the middle of the video, where all
+ * tracks before have ended and are parked. The frames are rendered one by one, like
+ * in a preview, so nothing is encoded.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = FleetModeBenchmark.FRAMES)
+@Measurement(iterations = 5, batchSize = FleetModeBenchmark.FRAMES)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4G"})
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public class FleetModeBenchmark {
+
+    static final int FRAMES = 100;
+
+    private static final long START_TIME = Instant.parse("2024-06-01T08:00:00Z").toEpochMilli();
+    private static final int TRACK_POINTS = 120;
+    private static final long POINT_INTERVAL = 5_000;
+    private static final long TRACK_DURATION = TRACK_POINTS * POINT_INTERVAL;
+
+    private static final RenderingContext RENDERING_CONTEXT = new RenderingContext() {
+        @Override
+        public void setProgress1(final int pct, final String message) { }
+
+        @Override
+        public boolean isCancelled1() {
+            return false;
+        }
+    };
+
+    @Param({"100", "1000", "5000"})
+    private int totalTracks;
+
+    @Param("50")
+    private int activeTracks;
+
+    @Param({"true", "false"})
+    private boolean fleetMode;
+
+    private Path directory;
+    private Renderer renderer;
+    private int firstFrame;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, UserException {
+        directory = Files.createTempDirectory("fleet-benchmark");
+        final var random = new Random(0);
+        // a track starts whenever one ends, so there are always the same number of moving tracks
+        final var startInterval = TRACK_DURATION / activeTracks;
+        final var builder = Configuration.createBuilder()
+                .output(directory.resolve("frame%05d.png").toFile())
+                .width(1280)
+                .height(720)
+                .fps(30)
+                .speedup(60.0)
+                .tailDuration(0)
+                .waypointSize(0.0)
+                .fleetMode(fleetMode);
+        for (var track = 0; track < totalTracks; track++) {
+            final var gpx = directory.resolve("track%05d.gpx".formatted(track));
+            writeTrack(gpx, random, START_TIME + track * startInterval);
+            builder.addTrackConfiguration(TrackConfiguration.createBuilder()
+                    .inputGpx(gpx.toFile())
+                    .label("#" + track)
+                    .color(new Color(random.nextInt(0x1000000)))
+                    .build());
+        }
+        renderer = new Renderer(builder.build());
+        firstFrame = renderer.prepare(RENDERING_CONTEXT) / 2;
+    }
+
+    /**
+     * A random walk of a vehicle somewhere in the same city as all others.
+     */
+    private static void writeTrack(final Path gpx, final Random random, final long startTime) throws IOException {
+        final var content = new StringBuilder(64 * TRACK_POINTS);
+        content.append("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <gpx version="1.1" creator="FleetModeBenchmark" xmlns="http://www.topografix.com/GPX/1/1">
+                <trk><trkseg>
+                """);
+        var lat = 47.35 + random.nextDouble() * 0.05;
+        var lon = 8.50 + random.nextDouble() * 0.08;
+        for (var point = 0; point < TRACK_POINTS; point++) {
+            content.append(String.format(Locale.ROOT, "<trkpt lat=\"%.6f\" lon=\"%.6f\"><time>%s</time></trkpt>%n",
+                    lat, lon, Instant.ofEpochMilli(startTime + point * POINT_INTERVAL)));
+            lat += (random.nextDouble() - 0.5) * 0.001;
+            lon += (random.nextDouble() - 0.5) * 0.0015;
+        }
+        content.append("</trkseg></trk>\n</gpx>\n");
+        Files.writeString(gpx, content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Draws the track lines up to the frame before the measured ones, which is not measured.
+     */
+    @Setup(Level.Iteration)
+    public void rewind() throws UserException {
+        renderer.renderFrame(firstFrame - 1);
+        frame = firstFrame;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(directory)) {
+            for (final var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public BufferedImage renderFrame() throws UserException {
+        return renderer.renderFrame(frame++);
+    }
+}
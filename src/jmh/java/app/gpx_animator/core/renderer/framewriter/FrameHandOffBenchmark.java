@@ -0,0 +1,90 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.framewriter;
+
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways {@link VideoFrameWriter} hands a frame to FFmpeg: converting it
+ * with the {@link Java2DFrameConverter} or copying its BGR pixels into a
+ * {@link BgrFrameBuffer}. FFmpeg itself is not involved, only the preparation of the
+ * pixels is measured. With a moving map, the frame is a sub image of the map whose
+ * rows are not contiguous.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public class FrameHandOffBenchmark {
+
+    private static final int MAP_MARGIN = 200;
+
+    @Param({"1920x1080", "3840x2160"})
+    private String resolution;
+
+    @Param({"false", "true"})
+    private boolean movingMap;
+
+    private BufferedImage frame;
+    private Java2DFrameConverter frameConverter;
+    private BgrFrameBuffer bgrFrameBuffer;
+
+    @Setup
+    public void setUp() {
+        final var size = resolution.split("x");
+        final var width = Integer.parseInt(size[0]);
+        final var height = Integer.parseInt(size[1]);
+        final var margin = movingMap ? MAP_MARGIN : 0;
+
+        final var map = new BufferedImage(width + 2 * margin, height + 2 * margin, BufferedImage.TYPE_3BYTE_BGR);
+        new Random(0).nextBytes(((DataBufferByte) map.getRaster().getDataBuffer()).getData());
+        frame = movingMap ? map.getSubimage(margin, margin, width, height) : map;
+
+        frameConverter = new Java2DFrameConverter();
+        bgrFrameBuffer = new BgrFrameBuffer();
+    }
+
+    @Benchmark
+    public Frame converter() {
+        return frameConverter.convert(frame);
+    }
+
+    @Benchmark
+    public ByteBuffer bgrFrameBuffer() {
+        return bgrFrameBuffer.fill(frame);
+    }
+}
@@ -45,6 +45,8 @@ public final class Help {
         w.writeOptionHelp(Option.BACKGROUND_IMAGE, "background-image", false, cfg.getBackgroundImage()); // NON-NLS
         w.writeOptionHelp(Option.BACKGROUND_MAP_VISIBILITY, "background-map-visibility", false, cfg.getBackgroundMapVisibility()); //NON-NLS
         w.writeOptionHelp(Option.COLOR, "color", true, resourceBundle.getString("help.option.color.default")); //NON-NLS
+        w.writeOptionHelp(Option.ENCODER_PROFILE, "profile", false, cfg.getEncoderProfile().getKey()); //NON-NLS
+        w.writeOptionHelp(Option.ENCODER_THREADS, "threads", false, cfg.getEncoderThreads()); //NON-NLS
         w.writeOptionHelp(Option.FLASHBACK_COLOR, "ARGBcolor", false, "opaque white - #ffffffff"); // TODO cfg.getFlashbackColor()  NON-NLS
         w.writeOptionHelp(Option.FLASHBACK_DURATION, "duration", false, cfg.getFlashbackDuration()); //NON-NLS
         w.writeOptionHelp(Option.FONT, "font", false, new FontXmlAdapter().marshal(cfg.getFont()));
@@ -84,6 +86,11 @@ public final class Help {
         w.writeOptionHelp(Option.PRE_DRAW_TRACK, "predraw-track", false, cfg.isPreDrawTrack()); // NON-NLS
         w.writeOptionHelp(Option.PRE_DRAW_TRACK_COLOR, "predraw-track-color", true, tc.getPreDrawTrackColor()); // NON-NLS
         w.writeOptionHelp(Option.PREVIEW_LENGTH, "preview-length", false, cfg.getPreviewLength()); // NON-NLS
+        w.writeOptionHelp(Option.RENDER_THREADS, "threads", false, cfg.getRenderThreads()); //NON-NLS
+        w.writeOptionHelp(Option.RENDER_BANDS, "bands", false, cfg.getRenderBands()); //NON-NLS
+        w.writeOptionHelp(Option.FLEET_MODE, "fleet-mode", false, cfg.isFleetMode()); //NON-NLS
+        w.writeOptionHelp(Option.COMPARE_FRAMES, "compare-frames", false, cfg.isCompareFrames()); //NON-NLS
+        w.writeOptionHelp(Option.RENDER_QUALITY, "quality", false, cfg.getRenderQuality().getKey()); //NON-NLS
         w.writeOptionHelp(Option.SKIP_IDLE, "skip-idle", false, cfg.isSkipIdle());
         w.writeOptionHelp(Option.SPEEDUP, "speedup", false, cfg.getSpeedup()); //NON-NLS
         w.writeOptionHelp(Option.TAIL_DURATION, "time", false, cfg.getTailDuration()); //NON-NLS
@@ -97,6 +104,7 @@ public final class Help {
         w.writeOptionHelp(Option.VIEWPORT_WIDTH, "viewport-width", false, cfg.getViewportWidth()); //NON-NLS
         w.writeOptionHelp(Option.VIEWPORT_HEIGHT, "viewport-height", false, cfg.getViewportHeight()); //NON-NLS
         w.writeOptionHelp(Option.VIEWPORT_INERTIA, "viewport-inertia", false, cfg.getViewportInertia()); //NON-NLS
+        w.writeOptionHelp(Option.VIEWPORT_MODE, "mode", false, cfg.getViewportMode().getKey()); //NON-NLS
         w.writeOptionHelp(Option.WAYPOINT_SIZE, "size", false, cfg.getWaypointSize()); //NON-NLS
         w.writeOptionHelp(Option.WIDTH, "width", false, cfg.getWidth()); //NON-NLS
         w.writeOptionHelp(Option.ZOOM, "zoom", false, cfg.getZoom()); //NON-NLS
@@ -30,6 +30,8 @@ public enum Option {
     INPUT_MUSIC("input-music"),
     OUTPUT("output"),
     VIDEO_CODEC("video-codec"),
+    ENCODER_PROFILE("encoder-profile"),
+    ENCODER_THREADS("encoder-threads"),
     MUSIC_CODEC("music-codec"),
     LABEL("label"),
     COLOR("color"),
@@ -57,6 +59,7 @@ public enum Option {
     VIEWPORT_WIDTH("viewport-width"),
     VIEWPORT_HEIGHT("viewport-height"),
     VIEWPORT_INERTIA("viewport-inertia"),
+    VIEWPORT_MODE("viewport-mode"),
     FONT("font"),
     WAYPOINT_FONT("waypoint-font"),
     TMS_URL_TEMPLATE("tms-url-template"),
@@ -96,6 +99,11 @@ public enum Option {
     PREVIEW_LENGTH("preview-length"),
     PREVIEW("preview"),
     GPS_TIMEOUT("gps-timeout"),
+    RENDER_THREADS("render-threads"),
+    RENDER_BANDS("render-bands"),
+    FLEET_MODE("fleet-mode"),
+    COMPARE_FRAMES("compare-frames"),
+    RENDER_QUALITY("quality"),
     VERSION("version");
 
     private static final java.util.Map<String, Option> OPTION_MAP = new HashMap<>();
@@ -20,10 +20,13 @@ import app.gpx_animator.core.UserException;
 import app.gpx_animator.core.configuration.adapter.ColorXmlAdapter;
 import app.gpx_animator.core.configuration.adapter.FileXmlAdapter;
 import app.gpx_animator.core.configuration.adapter.FontXmlAdapter;
+import app.gpx_animator.core.data.EncoderProfile;
 import app.gpx_animator.core.data.MusicCodec;
 import app.gpx_animator.core.data.Position;
+import app.gpx_animator.core.data.RenderQuality;
 import app.gpx_animator.core.data.SpeedUnit;
 import app.gpx_animator.core.data.VideoCodec;
+import app.gpx_animator.core.data.ViewportMode;
 import app.gpx_animator.core.preferences.Preferences;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
@@ -57,6 +60,12 @@ public final class Configuration {
     public static final long DEFAULT_PHOTO_ANIMATION_DURATION = 700L;
     public static final Position DEFAULT_ATTRIBUTION_POSITION = Position.BOTTOM_LEFT;
     public static final long DEFAULT_GPS_TIMEOUT = 60000L;
+    public static final int DEFAULT_RENDER_THREADS = 1;
+    public static final int DEFAULT_RENDER_BANDS = 1;
+    public static final RenderQuality DEFAULT_RENDER_QUALITY = RenderQuality.FINAL;
+    public static final ViewportMode DEFAULT_VIEWPORT_MODE = ViewportMode.TRAILING;
+    public static final EncoderProfile DEFAULT_ENCODER_PROFILE = EncoderProfile.BALANCED;
+    public static final int DEFAULT_ENCODER_THREADS = 0;
 
     private int margin = DEFAULT_MARGIN;
     private Integer width;
@@ -66,6 +75,7 @@ public final class Configuration {
     private Integer viewportWidth;
     private Integer viewportHeight;
     private Integer viewportInertia = DEFAULT_VIEWPORT_INERTIA;
+    private ViewportMode viewportMode = DEFAULT_VIEWPORT_MODE;
 
     private boolean preDrawTrack;
 
@@ -99,6 +109,8 @@ public final class Configuration {
     @XmlJavaTypeAdapter(FileXmlAdapter.class)
     private File output;
     private VideoCodec videoCodec;
+    private EncoderProfile encoderProfile = DEFAULT_ENCODER_PROFILE;
+    private int encoderThreads = DEFAULT_ENCODER_THREADS;
     private MusicCodec musicCodec;
     @XmlJavaTypeAdapter(FileXmlAdapter.class)
     private File inputMusic;
@@ -143,6 +155,11 @@ public final class Configuration {
     @XmlTransient
     private Long previewLength;
     private long gpsTimeout = DEFAULT_GPS_TIMEOUT;
+    private int renderThreads = DEFAULT_RENDER_THREADS;
+    private int renderBands = DEFAULT_RENDER_BANDS;
+    private boolean fleetMode;
+    private boolean compareFrames;
+    private RenderQuality renderQuality = DEFAULT_RENDER_QUALITY;
 
     @XmlElementWrapper
     @XmlElement(name = "trackConfiguration") //NON-NLS
@@ -156,12 +173,13 @@ public final class Configuration {
     @SuppressWarnings({"checkstyle:ParameterNumber", "java:S107"})
     private Configuration(
             final int margin, final Integer width, final Integer height, final Integer zoom,
-            final Integer viewportWidth, final Integer viewportHeight, final Integer viewportInertia,
+            final Integer viewportWidth, final Integer viewportHeight, final Integer viewportInertia, final ViewportMode viewportMode,
             final Double speedup, final long tailDuration, final Color tailColor, final boolean tailColorFadeout, final double fps,
             final Long totalTime, final float backgroundMapVisibility, final String tmsUrlTemplate, final String tmsApiKey, final String tmsUserAgent,
             final boolean skipIdle, final Color backgroundColor, final File backgroundImage, final Color flashbackColor,
             final Long flashbackDuration, final boolean preDrawTrack, final Long keepFirstFrame, final Long keepLastFrame, final File output,
-            final VideoCodec videoCodec, final MusicCodec musicCodec, final File inputMusic, final String attribution, final String information,
+            final VideoCodec videoCodec, final EncoderProfile encoderProfile, final int encoderThreads,
+            final MusicCodec musicCodec, final File inputMusic, final String attribution, final String information,
             final SpeedUnit speedUnit, final Font font, final Double markerSize, final Font waypointFont, final Double waypointSize,
             final Double minLon, final Double maxLon, final Double minLat, final Double maxLat,
             final File logo, final Position logoPosition, final int logoMargin,
@@ -170,6 +188,8 @@ public final class Configuration {
             final Position commentPosition, final int commentMargin,
             final File photoDirectory, final long photoFreezeFrameTime, final Long photoTime, final Long photoAnimationDuration,
             final boolean preview, final Long previewLength, final long gpsTimeout,
+            final int renderThreads, final int renderBands, final boolean fleetMode, final boolean compareFrames,
+            final RenderQuality renderQuality,
             final List<TrackConfiguration> trackConfigurationList) {
 
         this.margin = margin;
@@ -179,6 +199,7 @@ public final class Configuration {
         this.viewportWidth = viewportWidth;
         this.viewportHeight = viewportHeight;
         this.viewportInertia = viewportInertia;
+        this.viewportMode = viewportMode;
         this.speedup = speedup;
         this.tailDuration = tailDuration;
         this.tailColor = tailColor;
@@ -199,6 +220,8 @@ public final class Configuration {
         this.keepLastFrame = keepLastFrame;
         this.output = output;
         this.videoCodec = videoCodec;
+        this.encoderProfile = encoderProfile;
+        this.encoderThreads = encoderThreads;
         this.musicCodec = musicCodec;
         this.inputMusic = validateFile(inputMusic);
         this.attribution = attribution;
@@ -229,6 +252,11 @@ public final class Configuration {
         this.preview = preview;
         this.previewLength = previewLength;
         this.gpsTimeout = gpsTimeout;
+        this.renderThreads = renderThreads;
+        this.renderBands = renderBands;
+        this.fleetMode = fleetMode;
+        this.compareFrames = compareFrames;
+        this.renderQuality = renderQuality;
     }
 
     public static Builder createBuilder() {
@@ -259,6 +287,10 @@ public final class Configuration {
         return viewportInertia;
     }
 
+    public ViewportMode getViewportMode() {
+        return viewportMode != null ? viewportMode : DEFAULT_VIEWPORT_MODE;
+    }
+
     public Integer getZoom() {
         return zoom;
     }
@@ -341,12 +373,13 @@ public final class Configuration {
 
     public File getOutput() {
         if (output == null) {
+            final var extension = (videoCodec != null ? videoCodec : DEFAULT_VIDEO_CODEC).getFileExtension();
             if (getTrackConfigurationList().isEmpty()) {
-                return new File(Preferences.getLastWorkingDir() + Preferences.FILE_SEPARATOR + "GPX-Animation.mp4");
+                return new File(Preferences.getLastWorkingDir() + Preferences.FILE_SEPARATOR + "GPX-Animation." + extension);
             }
             final var inputFile = getTrackConfigurationList().get(0).getInputGpx().getName();
             output = new File(Preferences.getLastWorkingDir() + Preferences.FILE_SEPARATOR
-                    + inputFile.substring(0, inputFile.lastIndexOf(".")) + ".mp4");
+                    + inputFile.substring(0, inputFile.lastIndexOf(".")) + "." + extension);
         }
         return output;
     }
@@ -355,6 +388,14 @@ public final class Configuration {
         return videoCodec;
     }
 
+    public EncoderProfile getEncoderProfile() {
+        return encoderProfile != null ? encoderProfile : DEFAULT_ENCODER_PROFILE;
+    }
+
+    public int getEncoderThreads() {
+        return encoderThreads;
+    }
+
     public MusicCodec getMusicCodec() {
         return musicCodec;
     }
@@ -467,6 +508,26 @@ public final class Configuration {
         return gpsTimeout;
     }
 
+    public int getRenderThreads() {
+        return renderThreads;
+    }
+
+    public int getRenderBands() {
+        return renderBands;
+    }
+
+    public boolean isFleetMode() {
+        return fleetMode;
+    }
+
+    public boolean isCompareFrames() {
+        return compareFrames;
+    }
+
+    public RenderQuality getRenderQuality() {
+        return renderQuality != null ? renderQuality : DEFAULT_RENDER_QUALITY;
+    }
+
 
 
     public List<TrackConfiguration> getTrackConfigurationList() {
@@ -500,6 +561,19 @@ public final class Configuration {
         if (getViewportHeight() != null && getViewportHeight() % 2 != 0) {
             errors.add(resourceBundle.getString("configuration.validation.viewport.height"));
         }
+        if (getRenderThreads() < 1) {
+            errors.add(resourceBundle.getString("configuration.validation.renderthreads"));
+        }
+        if (getRenderBands() < 1) {
+            errors.add(resourceBundle.getString("configuration.validation.renderbands"));
+        }
+        if (getEncoderThreads() < 0) {
+            errors.add(resourceBundle.getString("configuration.validation.encoderthreads"));
+        }
+        if (getVideoCodec() != null && !getEncoderProfile().isSupportedBy(getVideoCodec())) {
+            errors.add(resourceBundle.getString("configuration.validation.encoderprofile")
+                    .formatted(getEncoderProfile(), getVideoCodec()));
+        }
 
         if (!errors.isEmpty()) {
             var message = errors.stream()
@@ -522,6 +596,7 @@ public final class Configuration {
         private Integer viewportHeight;
         private Integer viewportWidth;
         private Integer viewportInertia = DEFAULT_VIEWPORT_INERTIA;
+        private ViewportMode viewportMode = DEFAULT_VIEWPORT_MODE;
         private Double speedup = 1000.0;
         private long tailDuration = 3600000;
         private Color tailColor = Color.BLACK;
@@ -542,6 +617,8 @@ public final class Configuration {
         private Long keepLastFrame;
         private File output = null;
         private VideoCodec videoCodec = DEFAULT_VIDEO_CODEC;
+        private EncoderProfile encoderProfile = DEFAULT_ENCODER_PROFILE;
+        private int encoderThreads = DEFAULT_ENCODER_THREADS;
         private MusicCodec musicCodec = DEFAULT_MUSIC_CODEC;
         private File inputMusic;
         private Font font;
@@ -571,16 +648,22 @@ public final class Configuration {
         private boolean preview = false;
         private Long previewLength;
         private long gpsTimeout = DEFAULT_GPS_TIMEOUT;
+        private int renderThreads = DEFAULT_RENDER_THREADS;
+        private int renderBands = DEFAULT_RENDER_BANDS;
+        private boolean fleetMode;
+        private boolean compareFrames;
+        private RenderQuality renderQuality = DEFAULT_RENDER_QUALITY;
 
 
         public Configuration build() {
             return new Configuration(
                     margin, width, height, zoom,
-                    viewportWidth, viewportHeight, viewportInertia,
+                    viewportWidth, viewportHeight, viewportInertia, viewportMode,
                     speedup, tailDuration, tailColor, tailColorFadeout, fps, totalTime,
                     backgroundMapVisibility, tmsUrlTemplate, tmsApiKey, tmsUserAgent,
                     skipIdle, backgroundColor, backgroundImage, flashbackColor, flashbackDuration,
-                    preDrawTrack, keepFirstFrame, keepLastFrame, output, videoCodec, musicCodec, inputMusic, attribution, information,
+                    preDrawTrack, keepFirstFrame, keepLastFrame, output, videoCodec, encoderProfile, encoderThreads,
+                    musicCodec, inputMusic, attribution, information,
                     speedUnit, font, markerSize, waypointFont, waypointSize,
                     minLon, maxLon, minLat, maxLat,
                     logo, logoPosition, logoMargin,
@@ -590,6 +673,8 @@ public final class Configuration {
                     photoDirectory, photoFreezeFrameTime, photoTime, photoAnimationDuration,
                     preview, previewLength,
                     gpsTimeout,
+                    renderThreads, renderBands, fleetMode, compareFrames,
+                    renderQuality,
                     Collections.unmodifiableList(trackConfigurationList)
             );
         }
@@ -625,6 +710,11 @@ public final class Configuration {
             return this;
         }
 
+        public Builder viewportMode(final ViewportMode viewportMode) {
+            this.viewportMode = viewportMode;
+            return this;
+        }
+
         public Builder zoom(final Integer zoom) {
             this.zoom = zoom;
             return this;
@@ -730,6 +820,16 @@ public final class Configuration {
             return this;
         }
 
+        public Builder encoderProfile(final EncoderProfile encoderProfile) {
+            this.encoderProfile = encoderProfile;
+            return this;
+        }
+
+        public Builder encoderThreads(final int encoderThreads) {
+            this.encoderThreads = encoderThreads;
+            return this;
+        }
+
         public Builder musicCodec(final MusicCodec musicCodec) {
             this.musicCodec = musicCodec;
             return this;
@@ -880,6 +980,31 @@ public final class Configuration {
             return this;
         }
 
+        public Builder renderThreads(final int renderThreads) {
+            this.renderThreads = renderThreads;
+            return this;
+        }
+
+        public Builder renderBands(final int renderBands) {
+            this.renderBands = renderBands;
+            return this;
+        }
+
+        public Builder fleetMode(final boolean fleetMode) {
+            this.fleetMode = fleetMode;
+            return this;
+        }
+
+        public Builder compareFrames(final boolean compareFrames) {
+            this.compareFrames = compareFrames;
+            return this;
+        }
+
+        public Builder renderQuality(final RenderQuality renderQuality) {
+            this.renderQuality = renderQuality;
+            return this;
+        }
+
     }
 
 }
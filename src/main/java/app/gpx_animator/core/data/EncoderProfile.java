@@ -0,0 +1,139 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.data;
+
+import app.gpx_animator.core.preferences.Preferences;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.swing.JComboBox;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Named trade-offs between encoding speed, file size and quality. A profile
+ * selects the preset, the tune, the rate control and the distance between key
+ * frames of the video encoder; <code>null</code> and zero values keep the
+ * defaults of the encoder.
+ */
+public enum EncoderProfile {
+
+    /**
+     * Encodes as fast as possible for a quick look at the animation, the file gets large.
+     */
+    DRAFT("ultrafast", null, 28, 0, 0),
+
+    /**
+     * The defaults of the encoder with a constant quality, as before profiles existed.
+     */
+    BALANCED(null, null, 24, 0, 0),
+
+    /**
+     * Encodes slowly for a small file of high quality to keep.
+     */
+    ARCHIVE("slow", "animation", 18, 0, 0),
+
+    /**
+     * A constant bitrate and a key frame every two seconds, as expected by video platforms.
+     */
+    SOCIAL("medium", "animation", 0, 8_000_000, 2);
+
+    private final String preset;
+    private final String tune;
+    private final int crf;
+    private final int bitrate;
+    private final int keyFrameInterval;
+
+    EncoderProfile(@Nullable final String preset, @Nullable final String tune, final int crf, final int bitrate,
+                   final int keyFrameInterval) {
+        this.preset = preset;
+        this.tune = tune;
+        this.crf = crf;
+        this.bitrate = bitrate;
+        this.keyFrameInterval = keyFrameInterval;
+    }
+
+    /**
+     * @return the preset of the encoder, <code>null</code> for the default preset
+     */
+    @Nullable
+    public String getPreset() {
+        return preset;
+    }
+
+    /**
+     * @return the tune of the encoder, <code>null</code> for no tune
+     */
+    @Nullable
+    public String getTune() {
+        return tune;
+    }
+
+    /**
+     * @return the constant rate factor, only used if there is no {@link #getBitrate() bitrate}
+     */
+    public int getCrf() {
+        return crf;
+    }
+
+    /**
+     * @return the bitrate in bits per second, zero to encode with a constant {@link #getCrf() rate factor}
+     */
+    public int getBitrate() {
+        return bitrate;
+    }
+
+    /**
+     * @param fps the frames per second of the video
+     * @return the number of frames from one key frame to the next, -1 for the default of the encoder
+     */
+    public int getGopSize(final double fps) {
+        return keyFrameInterval > 0 ? (int) Math.round(keyFrameInterval * fps) : -1;
+    }
+
+    /**
+     * @param videoCodec the codec to encode with
+     * @return <code>true</code> if the codec knows the preset and the tune of this profile
+     */
+    public boolean isSupportedBy(@NonNull final VideoCodec videoCodec) {
+        return (preset == null || videoCodec.getPresets().contains(preset))
+                && (tune == null || videoCodec.getTunes().contains(tune));
+    }
+
+    /**
+     * @return the value to use on the command line and in the help
+     */
+    public String getKey() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return Preferences.getResourceBundle().getString("encoderprofile.".concat(getKey()));
+    }
+
+    public static void fillComboBox(@NonNull final JComboBox<EncoderProfile> comboBox) {
+        Arrays.stream(values()).forEach(comboBox::addItem);
+    }
+
+    public static EncoderProfile parse(final String profile, final EncoderProfile defaultProfile) {
+        return Arrays.stream(EncoderProfile.values())
+                .filter(encoderProfile -> encoderProfile.getKey().equalsIgnoreCase(profile))
+                .findAny()
+                .orElse(defaultProfile);
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.data;
+
+import app.gpx_animator.core.preferences.Preferences;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.imgscalr.Scalr;
+
+import javax.swing.JComboBox;
+import java.awt.RenderingHints;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The quality profiles of the rendering pipeline. Drafts are meant for
+ * quickly checking a layout, the final quality is used for the video.
+ */
+public enum RenderQuality {
+
+    /**
+     * No antialiasing and the fastest image scaling.
+     */
+    DRAFT(Map.of(
+            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF,
+            RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF,
+            RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF,
+            RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED,
+            RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED,
+            RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_SPEED,
+            RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE),
+            Scalr.Method.SPEED, 1.0),
+
+    /**
+     * Antialiased lines and text, but the faster default algorithms for everything else.
+     */
+    PREVIEW(Map.of(
+            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON,
+            RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON,
+            RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF,
+            RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_DEFAULT,
+            RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_DEFAULT,
+            RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_DEFAULT,
+            RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE),
+            Scalr.Method.QUALITY, 0.5),
+
+    /**
+     * The best quality for the final video.
+     */
+    FINAL(Map.of(
+            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON,
+            RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON,
+            RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON,
+            RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY,
+            RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY,
+            RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY),
+            Scalr.Method.ULTRA_QUALITY, 0.25);
+
+    private final Map<RenderingHints.Key, Object> renderingHints;
+    private final Scalr.Method scalingMethod;
+    private final double simplificationTolerance;
+
+    RenderQuality(@NonNull final Map<RenderingHints.Key, Object> renderingHints,
+                  @NonNull final Scalr.Method scalingMethod,
+                  final double simplificationTolerance) {
+        this.renderingHints = renderingHints;
+        this.scalingMethod = scalingMethod;
+        this.simplificationTolerance = simplificationTolerance;
+    }
+
+    /**
+     * @return the rendering hints for lines, shapes and text
+     */
+    public Map<RenderingHints.Key, Object> getRenderingHints() {
+        return renderingHints;
+    }
+
+    /**
+     * @return the method to scale images with
+     */
+    public Scalr.Method getScalingMethod() {
+        return scalingMethod;
+    }
+
+    /**
+     * @return how far in pixels the drawn track may differ from the exact track when it is simplified
+     */
+    public double getSimplificationTolerance() {
+        return simplificationTolerance;
+    }
+
+    /**
+     * @return the value to use on the command line and in the help
+     */
+    public String getKey() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return Preferences.getResourceBundle().getString("renderquality.".concat(getKey()));
+    }
+
+    public static void fillComboBox(@NonNull final JComboBox<RenderQuality> comboBox) {
+        Arrays.stream(values()).forEach(comboBox::addItem);
+    }
+
+    public static RenderQuality parse(final String quality, final RenderQuality defaultQuality) {
+        return Arrays.stream(RenderQuality.values())
+                .filter(renderQuality -> renderQuality.getKey().equalsIgnoreCase(quality))
+                .findAny()
+                .orElse(defaultQuality);
+    }
+
+}
@@ -20,21 +20,55 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.swing.JComboBox;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
 
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_FFV1;
 import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_H264;
 import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_H265;
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_RAWVIDEO;
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_UTVIDEO;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGR0;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGR24;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_GBRP;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_YUV420P;
 
+/**
+ * The codecs to encode the video with. Besides the lossy codecs for the final video,
+ * there are lossless intermediate codecs which spend almost no time on compression,
+ * for videos which are transcoded later. They keep every frame as a key frame in the
+ * pixel format closest to the rendered frames and are written to Matroska.
+ */
 public enum VideoCodec {
 
-    H264("H.264", AV_CODEC_ID_H264),
-    H265("H.265", AV_CODEC_ID_H265);
+    H264("H.264", AV_CODEC_ID_H264, false, AV_PIX_FMT_YUV420P, //NON-NLS
+            Set.of("film", "animation", "grain", "stillimage", "fastdecode", "zerolatency", "psnr", "ssim"), Map.of()), //NON-NLS
+    H265("H.265", AV_CODEC_ID_H265, false, AV_PIX_FMT_YUV420P, //NON-NLS
+            Set.of("animation", "grain", "fastdecode", "zerolatency", "psnr", "ssim"), Map.of()), //NON-NLS
+
+    // version 3 with slices, because only this version encodes on several threads
+    FFV1("FFV1", AV_CODEC_ID_FFV1, true, AV_PIX_FMT_BGR0, Set.of(), Map.of("level", "3", "slices", "16")), //NON-NLS
+    UTVIDEO("Ut Video", AV_CODEC_ID_UTVIDEO, true, AV_PIX_FMT_GBRP, Set.of(), Map.of()), //NON-NLS
+    RAW("Raw", AV_CODEC_ID_RAWVIDEO, true, AV_PIX_FMT_BGR24, Set.of(), Map.of()); //NON-NLS
+
+    private static final Set<String> X26X_PRESETS = Set.of("ultrafast", "superfast", "veryfast", "faster", "fast", //NON-NLS
+            "medium", "slow", "slower", "veryslow", "placebo"); //NON-NLS
 
     private final String codecName;
     private final int codecId;
+    private final boolean lossless;
+    private final int pixelFormat;
+    private final Set<String> tunes;
+    private final Map<String, String> encoderOptions;
 
-    VideoCodec(@NonNull final String codecName, final int codecId) {
+    VideoCodec(@NonNull final String codecName, final int codecId, final boolean lossless, final int pixelFormat,
+               @NonNull final Set<String> tunes, @NonNull final Map<String, String> encoderOptions) {
         this.codecName = codecName;
         this.codecId = codecId;
+        this.lossless = lossless;
+        this.pixelFormat = pixelFormat;
+        this.tunes = tunes;
+        this.encoderOptions = encoderOptions;
     }
 
     public String getCodecName() {
@@ -45,6 +79,55 @@ public enum VideoCodec {
         return codecId;
     }
 
+    /**
+     * @return <code>true</code> for the intermediate codecs, which keep every frame unchanged
+     */
+    public boolean isLossless() {
+        return lossless;
+    }
+
+    /**
+     * @return the pixel format to encode the frames in
+     */
+    public int getPixelFormat() {
+        return pixelFormat;
+    }
+
+    /**
+     * @return the container format, MP4 can't hold the intermediate codecs
+     */
+    public String getFormat() {
+        return lossless ? "matroska" : "mp4"; //NON-NLS
+    }
+
+    /**
+     * @return the file extension matching the {@link #getFormat() container format}
+     */
+    public String getFileExtension() {
+        return lossless ? "mkv" : "mp4"; //NON-NLS
+    }
+
+    /**
+     * @return the presets the encoder of this codec knows, none for the intermediate codecs
+     */
+    public Set<String> getPresets() {
+        return lossless ? Set.of() : X26X_PRESETS;
+    }
+
+    /**
+     * @return the tunes the encoder of this codec knows
+     */
+    public Set<String> getTunes() {
+        return tunes;
+    }
+
+    /**
+     * @return options which are always passed to the encoder of this codec
+     */
+    public Map<String, String> getEncoderOptions() {
+        return encoderOptions;
+    }
+
     @Override
     public String toString() {
         return getCodecName();
@@ -56,7 +139,7 @@ public enum VideoCodec {
 
     public static VideoCodec parse(final String codecName, final VideoCodec defaultCodec) {
         return Arrays.stream(VideoCodec.values())
-                .filter(videoCodec -> videoCodec.getCodecName().equalsIgnoreCase(codecName))
+                .filter(videoCodec -> videoCodec.getCodecName().equalsIgnoreCase(codecName) || videoCodec.name().equalsIgnoreCase(codecName))
                 .findAny()
                 .orElse(defaultCodec);
     }
@@ -0,0 +1,93 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.data;
+
+import app.gpx_animator.core.preferences.Preferences;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import javax.swing.JComboBox;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How the viewport follows the marker. The viewport is centered on the
+ * average position of as many markers as the viewport inertia; the mode
+ * decides which markers these are.
+ */
+public enum ViewportMode {
+
+    /**
+     * The markers up to the current one, so the viewport lags behind the marker.
+     */
+    TRAILING {
+        @Override
+        public int getWindowStart(final int current, final int inertia) {
+            return current - inertia + 1;
+        }
+    },
+
+    /**
+     * The markers around the current one, so the marker stays close to the center of the viewport.
+     */
+    CENTERED {
+        @Override
+        public int getWindowStart(final int current, final int inertia) {
+            return current - (inertia - 1) / 2;
+        }
+    },
+
+    /**
+     * The markers from the current one on, so the viewport looks ahead where the marker is going to.
+     */
+    AHEAD {
+        @Override
+        public int getWindowStart(final int current, final int inertia) {
+            return current;
+        }
+    };
+
+    /**
+     * @param current the index of the current marker
+     * @param inertia the number of markers to average
+     * @return the index of the first marker to average, it is negative or beyond
+     *         the last marker near the start and the end of the track
+     */
+    public abstract int getWindowStart(int current, int inertia);
+
+    /**
+     * @return the value to use on the command line and in the help
+     */
+    public String getKey() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return Preferences.getResourceBundle().getString("viewportmode.".concat(getKey()));
+    }
+
+    public static void fillComboBox(@NonNull final JComboBox<ViewportMode> comboBox) {
+        Arrays.stream(values()).forEach(comboBox::addItem);
+    }
+
+    public static ViewportMode parse(final String mode, final ViewportMode defaultMode) {
+        return Arrays.stream(ViewportMode.values())
+                .filter(viewportMode -> viewportMode.getKey().equalsIgnoreCase(mode))
+                .findAny()
+                .orElse(defaultMode);
+    }
+
+}
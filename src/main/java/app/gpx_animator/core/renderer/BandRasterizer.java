@@ -0,0 +1,160 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.preferences.Preferences;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Draws an image in horizontal bands, which are rasterized concurrently.
+ * Every band is drawn directly into the image, clipped to the band, so the
+ * bands don't have to be put together afterwards. This speeds up drawing a
+ * single large frame, where rendering several frames at once doesn't help.
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class BandRasterizer implements AutoCloseable {
+
+    private final int bands;
+    private final ExecutorService executor;
+
+    /**
+     * @param bands         the number of bands, with one band everything is drawn on the calling thread
+     * @param threadFactory the factory for the threads drawing all bands but the first one
+     */
+    BandRasterizer(final int bands, @NonNull final ThreadFactory threadFactory) {
+        this.bands = Math.max(1, bands);
+        this.executor = this.bands > 1 ? Executors.newFixedThreadPool(this.bands - 1, threadFactory) : null;
+    }
+
+    /**
+     * Draws all bands of the image and returns when all of them are done. The first band is drawn
+     * on the calling thread. The painter is called once for every band, with the area of the band
+     * and a dirty region of its own; the dirty regions of the bands are added to the given one,
+     * clipped to the bands.
+     *
+     * @param image       the image to draw on
+     * @param dirtyRegion collects the modified areas of the image
+     * @param painter     draws everything clipped to a band
+     * @throws UserException if the painter failed
+     */
+    void draw(@NonNull final BufferedImage image,
+              @NonNull final DirtyRegion dirtyRegion,
+              @NonNull final BandPainter painter) throws UserException {
+        final var width = image.getWidth();
+        final var height = image.getHeight();
+        if (executor == null) {
+            painter.paint(new Rectangle(0, 0, width, height), dirtyRegion);
+            return;
+        }
+
+        final var bandHeight = (height + bands - 1) / bands;
+        final var otherBands = new ArrayList<Rectangle>(bands - 1);
+        final var futures = new ArrayList<Future<DirtyRegion>>(bands - 1);
+        for (var y = bandHeight; y < height; y += bandHeight) {
+            final var band = new Rectangle(0, y, width, Math.min(bandHeight, height - y));
+            otherBands.add(band);
+            futures.add(executor.submit(() -> {
+                final var bandDirtyRegion = new DirtyRegion();
+                painter.paint(band, bandDirtyRegion);
+                return bandDirtyRegion;
+            }));
+        }
+
+        final var firstBand = new Rectangle(0, 0, width, Math.min(bandHeight, height));
+        final var firstDirtyRegion = new DirtyRegion();
+        UserException failure = null;
+        try {
+            painter.paint(firstBand, firstDirtyRegion);
+            dirtyRegion.add(firstDirtyRegion, firstBand);
+        } catch (final UserException | RuntimeException e) {
+            failure = wrap(e);
+        }
+        // wait for all bands, even after a failure, so nothing draws on the image after returning
+        for (var i = 0; i < futures.size(); i++) {
+            try {
+                final var bandDirtyRegion = await(futures.get(i));
+                if (failure == null) {
+                    dirtyRegion.add(bandDirtyRegion, otherBands.get(i));
+                }
+            } catch (final UserException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static UserException wrap(@NonNull final Exception exception) {
+        if (exception instanceof UserException userException) {
+            return userException;
+        }
+        return new UserException(Preferences.getResourceBundle().getString("renderer.error.frame").formatted(exception.getMessage()),
+                exception);
+    }
+
+    private static DirtyRegion await(@NonNull final Future<DirtyRegion> future) throws UserException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserException(Preferences.getResourceBundle().getString("renderer.error.interrupted"), e);
+        } catch (final ExecutionException e) {
+            throw wrap(e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+
+    /**
+     * @return the number of bands
+     */
+    int getBands() {
+        return bands;
+    }
+
+    /**
+     * Stops the threads drawing the bands.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Draws the part of an image inside of a band.
+     */
+    @FunctionalInterface
+    interface BandPainter {
+
+        /**
+         * @param band        the area of the image to draw, everything outside has to be clipped
+         * @param dirtyRegion collects the modified areas of the image
+         * @throws UserException error to be shown to the user
+         */
+        void paint(@NonNull Rectangle band, @NonNull DirtyRegion dirtyRegion) throws UserException;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.ViewportMode;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+/**
+ * The position of the viewport in every frame, planned once before the
+ * rendering starts. Knowing the whole path up front allows looking ahead
+ * of the marker and lets anybody ask where the viewport is in any frame.
+ *
+ * <p>Frames are numbered from zero up to the number of frames, like in the
+ * {@link FrameTimeline}. The positions are the top left corners of the
+ * viewport on the map, always keeping the viewport inside of the map.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class CameraPath {
+
+    private final int width;
+    private final int height;
+    private final int[] xs;
+    private final int[] ys;
+
+    private CameraPath(final int width, final int height, @NonNull final int[] xs, @NonNull final int[] ys) {
+        this.width = width;
+        this.height = height;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Plans the viewport positions in a single pass over the frames. The viewport is centered on
+     * the average of as many markers as the inertia, chosen by the mode. Frames without a marker,
+     * like idle frames, keep the viewport where it was. Near the start and the end of the track,
+     * the first and the last marker stand in for the missing ones.
+     *
+     * @param markerXs the x coordinate of the marker in every frame, <code>NaN</code> if the frame has no marker
+     * @param markerYs the y coordinate of the marker in every frame, <code>NaN</code> if the frame has no marker
+     * @param mode     which markers the viewport follows
+     * @param inertia  the number of markers to average
+     * @param map      the size of the map
+     * @param viewport the size of the viewport
+     * @return the planned path
+     */
+    @SuppressWarnings("java:S3776") // the sliding window is easier to follow in one place
+    static CameraPath plan(@NonNull final double[] markerXs, @NonNull final double[] markerYs,
+                           @NonNull final ViewportMode mode, final int inertia,
+                           @NonNull final Dimension map, @NonNull final Dimension viewport) {
+        final var frames = markerXs.length;
+        final var xs = new int[frames];
+        final var ys = new int[frames];
+
+        // the frames which have a marker, in the order they are shown
+        final var shown = new int[frames];
+        var count = 0;
+        for (var frame = 0; frame < frames; frame++) {
+            if (!Double.isNaN(markerXs[frame])) {
+                shown[count++] = frame;
+            }
+        }
+
+        if (count == 0) {
+            for (var frame = 0; frame < frames; frame++) {
+                xs[frame] = clamp((map.width - viewport.width) / 2.0, map.width - viewport.width);
+                ys[frame] = clamp((map.height - viewport.height) / 2.0, map.height - viewport.height);
+            }
+            return new CameraPath(viewport.width, viewport.height, xs, ys);
+        }
+
+        final var window = Math.max(1, inertia);
+        var current = -1;
+        var start = 0;
+        var xSum = 0.0;
+        var ySum = 0.0;
+        for (var frame = 0; frame < frames; frame++) {
+            // frames before the first marker already look at the first marker
+            final var next = current < 0 ? 0 : current + 1;
+            if (current < 0 || next < count && shown[next] <= frame) {
+                current = next;
+                final var nextStart = mode.getWindowStart(current, window);
+                if (current == 0 || (nextStart % window) == 0) {
+                    // sum the whole window every now and then, so rounding errors of the sliding sums do not add up
+                    xSum = 0.0;
+                    ySum = 0.0;
+                    for (var i = nextStart; i < nextStart + window; i++) {
+                        final var shownFrame = shown[Math.clamp(i, 0, count - 1)];
+                        xSum += markerXs[shownFrame];
+                        ySum += markerYs[shownFrame];
+                    }
+                } else {
+                    final var leaving = shown[Math.clamp(start, 0, count - 1)];
+                    final var entering = shown[Math.clamp(nextStart + window - 1L, 0, count - 1)];
+                    xSum += markerXs[entering] - markerXs[leaving];
+                    ySum += markerYs[entering] - markerYs[leaving];
+                }
+                start = nextStart;
+            }
+            xs[frame] = clamp(xSum / window - viewport.width / 2.0, map.width - viewport.width);
+            ys[frame] = clamp(ySum / window - viewport.height / 2.0, map.height - viewport.height);
+        }
+        return new CameraPath(viewport.width, viewport.height, xs, ys);
+    }
+
+    private static int clamp(final double position, final int max) {
+        if (position < 0) {
+            return 0;
+        }
+        return position > max ? max : (int) position;
+    }
+
+    /**
+     * @return the number of frames of the animation
+     */
+    public int getFrames() {
+        return xs.length - 1;
+    }
+
+    /**
+     * @param frame the frame number, from zero up to the number of frames
+     * @return the left edge of the viewport on the map
+     */
+    public int getX(final int frame) {
+        return xs[frame];
+    }
+
+    /**
+     * @param frame the frame number, from zero up to the number of frames
+     * @return the top edge of the viewport on the map
+     */
+    public int getY(final int frame) {
+        return ys[frame];
+    }
+
+    /**
+     * @param frame the frame number, from zero up to the number of frames
+     * @return the area of the map shown in the frame
+     */
+    public Rectangle getViewport(final int frame) {
+        return new Rectangle(xs[frame], ys[frame], width, height);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the areas of an image which were modified while drawing a frame,
+ * so that only these areas have to be restored before the next frame.
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class DirtyRegion {
+
+    /**
+     * Extra pixels around every area to cover antialiasing and rounding.
+     */
+    static final int ANTIALIASING_MARGIN = 2;
+
+    /**
+     * Above this number of areas they are merged into their bounding box.
+     */
+    private static final int MAX_RECTANGLES = 64;
+
+    private final List<Rectangle> rectangles = new ArrayList<>();
+    private boolean full;
+
+    /**
+     * Marks an area as dirty.
+     *
+     * @param bounds  the bounds of what was drawn
+     * @param padding additional padding, for example half of the stroke width
+     */
+    void add(@NonNull final Rectangle2D bounds, final double padding) {
+        final var margin = padding + ANTIALIASING_MARGIN;
+        final var x1 = (int) Math.floor(bounds.getMinX() - margin);
+        final var y1 = (int) Math.floor(bounds.getMinY() - margin);
+        final var x2 = (int) Math.ceil(bounds.getMaxX() + margin);
+        final var y2 = (int) Math.ceil(bounds.getMaxY() + margin);
+        add(new Rectangle(x1, y1, x2 - x1, y2 - y1));
+    }
+
+    /**
+     * Marks an area as dirty without any additional padding.
+     *
+     * @param rectangle the area
+     */
+    void add(@NonNull final Rectangle rectangle) {
+        if (full || rectangle.isEmpty()) {
+            return;
+        }
+        rectangles.add(rectangle);
+        if (rectangles.size() > MAX_RECTANGLES) {
+            final var union = new Rectangle(rectangles.getFirst());
+            rectangles.forEach(union::add);
+            rectangles.clear();
+            rectangles.add(union);
+        }
+    }
+
+    /**
+     * Marks the dirty areas of another region as dirty, as far as they are inside of the clip.
+     *
+     * @param other the other region
+     * @param clip  the area the other region was drawn in
+     */
+    void add(@NonNull final DirtyRegion other, @NonNull final Rectangle clip) {
+        if (other.full) {
+            // a full band makes everything dirty, like the flashback which covers all bands
+            setFull();
+            return;
+        }
+        for (final var rectangle : other.rectangles) {
+            add(rectangle.intersection(clip));
+        }
+    }
+
+    /**
+     * Marks the whole image as dirty.
+     */
+    void setFull() {
+        full = true;
+        rectangles.clear();
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    boolean isEmpty() {
+        return !full && rectangles.isEmpty();
+    }
+
+    /**
+     * Returns the dirty areas clipped to the image bounds.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the dirty areas inside the image
+     */
+    List<Rectangle> getRectangles(final int width, final int height) {
+        final var bounds = new Rectangle(0, 0, width, height);
+        if (full) {
+            return List.of(bounds);
+        }
+        return rectangles.stream()
+                .map(bounds::intersection)
+                .filter(rectangle -> !rectangle.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.AlphaComposite;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles frame sized images to avoid allocating a new multi-megabyte
+ * image for every frame. Images are pooled by width, height and type.
+ *
+ * <p>Borrowed images have undefined content and must be completely
+ * overwritten by the borrower. Every borrowed image should be returned
+ * with {@link #release(BufferedImage)} as soon as it is not used anymore.
+ * An image which is released twice or was not borrowed from the pool is
+ * rejected, so it can never be handed to two borrowers at once. With debug
+ * logging enabled, the pool also remembers where each image was borrowed
+ * and reports images which were never returned.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class FrameBufferPool {
+
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrameBufferPool.class);
+
+    private static final int DEFAULT_MAX_IDLE_PER_SIZE = 4;
+    // stands in for the stack trace of a borrowed image when debug logging is disabled
+    private static final Throwable UNTRACED = new Throwable("Frame buffer borrowed"); //NON-NLS
+
+    private final int maxIdlePerSize;
+    private final Map<Key, BlockingDeque<BufferedImage>> idleImages = new ConcurrentHashMap<>();
+    private final Map<BufferedImage, Throwable> borrowedImages = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final boolean leakDetection = LOGGER.isDebugEnabled();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong outstanding = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public FrameBufferPool() {
+        this(DEFAULT_MAX_IDLE_PER_SIZE);
+    }
+
+    /**
+     * @param maxIdlePerSize the maximum number of unused images kept for every combination of width, height and type
+     */
+    public FrameBufferPool(final int maxIdlePerSize) {
+        this.maxIdlePerSize = maxIdlePerSize;
+    }
+
+    /**
+     * Borrows an image from the pool or creates a new one if no matching image is available.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @param type   the image type, one of the <code>BufferedImage.TYPE_*</code> constants
+     * @return an image with undefined content
+     */
+    public BufferedImage acquire(final int width, final int height, final int type) {
+        final var idle = idleImages.get(new Key(width, height, type));
+        var image = idle == null ? null : idle.pollFirst();
+        if (image == null) {
+            misses.incrementAndGet();
+            image = new BufferedImage(width, height, type);
+        } else {
+            hits.incrementAndGet();
+        }
+        outstanding.incrementAndGet();
+        borrowedImages.put(image, leakDetection ? new Throwable("Frame buffer borrowed here") : UNTRACED); //NON-NLS
+        return image;
+    }
+
+    /**
+     * Borrows an image from the pool and copies the content of the source image into it.
+     *
+     * @param source the image to copy
+     * @return a copy of the source image with the same size and type
+     */
+    public BufferedImage copyOf(@NonNull final BufferedImage source) {
+        final var copy = acquire(source.getWidth(), source.getHeight(), source.getType());
+        final var g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    /**
+     * Returns a borrowed image to the pool. The caller must not use the image afterwards.
+     *
+     * @param image the image to return, <code>null</code> is ignored
+     */
+    public void release(@Nullable final BufferedImage image) {
+        if (image == null) {
+            return;
+        }
+        if (borrowedImages.remove(image) == null) {
+            if (leakDetection) {
+                LOGGER.warn("Released a frame buffer which was not borrowed from the pool or was already released",
+                        new Throwable("Frame buffer released here")); //NON-NLS
+            } else {
+                LOGGER.warn("Released a frame buffer which was not borrowed from the pool or was already released");
+            }
+            return;
+        }
+        outstanding.decrementAndGet();
+        if (closed) {
+            return;
+        }
+        idleImages.computeIfAbsent(new Key(image.getWidth(), image.getHeight(), image.getType()),
+                key -> new LinkedBlockingDeque<>(maxIdlePerSize)).offerFirst(image);
+    }
+
+    /**
+     * @return the number of requests which could be served with a recycled image
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests which needed a newly allocated image
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of images which are currently borrowed
+     */
+    public long getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    /**
+     * Drops all idle images and logs the pool statistics. In debug mode, every
+     * image which was not returned to the pool is reported with the stack
+     * trace of the code which borrowed it. Images which are still in use, like
+     * the one shown in the preview, can be returned afterwards and are dropped.
+     */
+    public void close() {
+        closed = true;
+        LOGGER.info("Frame buffer pool: {} hits, {} misses, {} not returned", getHitCount(), getMissCount(), getOutstandingCount());
+        if (leakDetection) {
+            synchronized (borrowedImages) {
+                borrowedImages.values().forEach(trace -> LOGGER.warn("Frame buffer was not returned to the pool", trace));
+            }
+        }
+        idleImages.clear();
+    }
+
+    private record Key(int width, int height, int type) { }
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.gpx.GpxPoint;
+import app.gpx_animator.core.util.RenderUtil;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The time of every frame, computed once before the rendering starts, and
+ * the track point the marker of every track is at. This is the only place
+ * where frame numbers are mapped to times, so the renderer and the plugins
+ * always agree on the time of a frame.
+ *
+ * <p>The markers are looked up in the {@link SegmentIndex} with binary
+ * searches, so the memory doesn't grow with the number of frames times the
+ * number of tracks, which would not fit for fleets of thousands of tracks.</p>
+ *
+ * <p>Frames are numbered from zero, the start of the animation, up to the
+ * number of frames, the end of the animation.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class FrameTimeline {
+
+    private final int frames;
+    private final long[] times;
+    private final SegmentIndex segmentIndex;
+    private final SpanIndex idleSpans;
+
+    /**
+     * @param frames       the number of frames of the animation
+     * @param minTime      the time of the first frame
+     * @param fps          the frames per second
+     * @param speedup      the factor the animation is faster than real time
+     * @param segmentIndex the segments the markers move along
+     */
+    FrameTimeline(final int frames, final long minTime, final double fps, final double speedup,
+                  @NonNull final SegmentIndex segmentIndex) {
+        this(frames, minTime, fps, speedup, segmentIndex, null);
+    }
+
+    /**
+     * @param frames       the number of frames of the animation
+     * @param minTime      the time of the first frame
+     * @param fps          the frames per second
+     * @param speedup      the factor the animation is faster than real time
+     * @param segmentIndex the segments the markers move along
+     * @param idleSpans    the spans in which a track is active if idle frames are skipped, otherwise <code>null</code>
+     */
+    FrameTimeline(final int frames, final long minTime, final double fps, final double speedup,
+                  @NonNull final SegmentIndex segmentIndex, @Nullable final SpanIndex idleSpans) {
+        this.frames = frames;
+        this.segmentIndex = segmentIndex;
+        this.idleSpans = idleSpans;
+        times = new long[frames + 1];
+        for (var frame = 0; frame <= frames; frame++) {
+            times[frame] = RenderUtil.getTime(frame, minTime, fps, speedup);
+        }
+    }
+
+    /**
+     * @return the number of frames of the animation
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * @param frame the frame number, from zero up to the number of frames
+     * @return the time of the frame in milliseconds since the epoch
+     */
+    public long getTime(final int frame) {
+        return times[frame];
+    }
+
+    /**
+     * @param frame the frame number, from zero up to the number of frames
+     * @return <code>true</code> if idle frames are skipped and no track is active at the time of the frame,
+     *         so the frame is not in the video
+     */
+    public boolean isIdle(final int frame) {
+        return idleSpans != null && !idleSpans.isActive(times[frame]);
+    }
+
+    /**
+     * @param frame the frame number, from one up to the number of frames plus one
+     * @return the last frame before the given one which is not idle, or zero if there is none
+     */
+    public int previousActiveFrame(final int frame) {
+        var previous = frame - 1;
+        while (previous >= 1 && isIdle(previous)) {
+            final var activeTime = idleSpans.previousActiveTime(times[previous]);
+            previous = activeTime == SpanIndex.NONE_BEFORE ? 0 : firstFrameAtOrAfter(activeTime + 1, 0) - 1;
+        }
+        return Math.max(previous, 0);
+    }
+
+    /**
+     * @param time the time to search for
+     * @param from the first frame to consider
+     * @return the first frame from the given one on whose time is at or after the given time,
+     *         or the number of frames plus one if there is none
+     */
+    int firstFrameAtOrAfter(final long time, final int from) {
+        var low = from;
+        var high = frames + 1;
+        while (low < high) {
+            final var mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param frame the frame number, from zero up to the number of frames
+     * @return the track point the marker is at, of the last track if there are several tracks,
+     *         or <code>null</code> if no track started yet
+     */
+    @Nullable
+    public GpxPoint getMarker(final int frame) {
+        final var track = segmentIndex.lastStartedTrack(times[frame]);
+        if (track < 0) {
+            return null;
+        }
+        final var timeline = segmentIndex.getTimeline(getMarkerSegment(frame, track));
+        return timeline.getPoint(timeline.floorIndex(times[frame]));
+    }
+
+    /**
+     * @return the id of the segment the marker of the track is on or <code>-1</code> if the track did not start yet
+     */
+    int getMarkerSegment(final int frame, final int track) {
+        return segmentIndex.markerSegment(track, times[frame]);
+    }
+
+    /**
+     * @return the index of the point the marker of the track is at on its segment or <code>-1</code> if the track
+     *         did not start yet
+     */
+    int getMarkerIndex(final int frame, final int track) {
+        final var id = getMarkerSegment(frame, track);
+        return id < 0 ? -1 : segmentIndex.getTimeline(id).floorIndex(times[frame]);
+    }
+}
@@ -16,14 +16,48 @@
 package app.gpx_animator.core.renderer;
 
 import app.gpx_animator.core.data.Position;
+import app.gpx_animator.core.data.RenderQuality;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
 import static app.gpx_animator.core.util.RenderUtil.getGraphics;
 
 public abstract class ImageRenderer {
 
+    private final Rectangle renderedArea = new Rectangle();
+    private final RenderQuality renderQuality;
+    private FrameBufferPool frameBufferPool = new FrameBufferPool();
+
+    protected ImageRenderer() {
+        this(RenderQuality.FINAL);
+    }
+
+    /**
+     * @param renderQuality the quality to render the images with
+     */
+    protected ImageRenderer(@NonNull final RenderQuality renderQuality) {
+        this.renderQuality = renderQuality;
+    }
+
+    /**
+     * Use the frame buffer pool of the renderer for temporary images.
+     *
+     * @param frameBufferPool the frame buffer pool of the renderer
+     */
+    public void setFrameBufferPool(@NonNull final FrameBufferPool frameBufferPool) {
+        this.frameBufferPool = frameBufferPool;
+    }
+
+    protected FrameBufferPool getFrameBufferPool() {
+        return frameBufferPool;
+    }
+
+    protected RenderQuality getRenderQuality() {
+        return renderQuality;
+    }
+
     /**
      * Render image on the video frame.
      *
@@ -42,7 +76,7 @@ public abstract class ImageRenderer {
         final var imageHeight = image.getHeight();
         final var targetImageWidth = targetImage.getWidth();
         final var targetImageHeight = targetImage.getHeight();
-        final var graphics = getGraphics(targetImage);
+        final var graphics = getGraphics(targetImage, renderQuality);
 
         int xPosition;
         int yPosition;
@@ -74,6 +108,25 @@ public abstract class ImageRenderer {
             default -> throw new IllegalStateException("Unexpected position: " + position);
         }
         graphics.drawImage(image, xPosition, yPosition, imageWidth, imageHeight, null);
+
+        final var imageArea = new Rectangle(xPosition, yPosition, imageWidth, imageHeight);
+        if (renderedArea.isEmpty()) {
+            renderedArea.setBounds(imageArea);
+        } else {
+            renderedArea.add(imageArea);
+        }
+    }
+
+    /**
+     * Returns the area of the video frame covered by the images rendered since
+     * the last call of this method and resets it.
+     *
+     * @return the covered area, empty if nothing was rendered
+     */
+    public Rectangle getRenderedArea() {
+        final var area = new Rectangle(renderedArea);
+        renderedArea.setBounds(0, 0, 0, 0);
+        return area;
     }
 
 }
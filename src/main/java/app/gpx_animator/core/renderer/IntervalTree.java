@@ -0,0 +1,118 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * An interval tree over numbered intervals, so a query only visits the
+ * intervals which overlap the searched range, no matter how many intervals
+ * ended before or start after it.
+ *
+ * <p>The tree is a sorted array of the interval starts, where the middle of
+ * every range is the root of the subtree and knows the latest end inside
+ * its range.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class IntervalTree {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final int[] ids;
+
+    /**
+     * @param intervalStarts the start of every interval, inclusive, at the index of its id
+     * @param intervalEnds   the end of every interval, inclusive, at the index of its id, an interval which
+     *                       ends before it starts is empty and never found
+     */
+    IntervalTree(@NonNull final long[] intervalStarts, @NonNull final long[] intervalEnds) {
+        final var count = intervalStarts.length;
+        ids = IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparingLong(i -> intervalStarts[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        starts = new long[count];
+        ends = new long[count];
+        for (var i = 0; i < count; i++) {
+            starts[i] = intervalStarts[ids[i]];
+            ends[i] = intervalEnds[ids[i]];
+        }
+        maxEnds = new long[count];
+        buildMaxEnds(0, count);
+    }
+
+    private long buildMaxEnds(final int from, final int to) {
+        if (from >= to) {
+            return Long.MIN_VALUE;
+        }
+        final var mid = (from + to) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnds(from, mid), buildMaxEnds(mid + 1, to)));
+        return maxEnds[mid];
+    }
+
+    /**
+     * @param from the start of the searched range, inclusive
+     * @param to   the end of the searched range, inclusive
+     * @return the ids of the intervals which overlap the range, in ascending order
+     */
+    int[] query(final long from, final long to) {
+        final var result = new IdList();
+        query(0, starts.length, from, to, result);
+        return result.toSortedArray();
+    }
+
+    private void query(final int fromIndex, final int toIndex, final long from, final long to, @NonNull final IdList result) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        final var mid = (fromIndex + toIndex) >>> 1;
+        if (maxEnds[mid] < from) {
+            return;
+        }
+        query(fromIndex, mid, from, to, result);
+        if (starts[mid] > to) {
+            return;
+        }
+        if (ends[mid] >= from && ends[mid] >= starts[mid]) {
+            result.add(ids[mid]);
+        }
+        query(mid + 1, toIndex, from, to, result);
+    }
+
+    @SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+    private static final class IdList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toSortedArray() {
+            final var result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
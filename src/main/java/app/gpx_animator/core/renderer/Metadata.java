@@ -15,7 +15,9 @@
  */
 package app.gpx_animator.core.renderer;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
 import org.jetbrains.annotations.Nullable;
 
 public record Metadata(@Nullable Integer zoom, double minX, double maxX, double minY, double maxY, long minTime, long maxTime,
-                       double speedup, int frames) { }
+                       double speedup, int frames, @NonNull FrameTimeline frameTimeline,
+                       @Nullable CameraPath cameraPath) { }
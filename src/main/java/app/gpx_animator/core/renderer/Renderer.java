@@ -18,6 +18,7 @@ package app.gpx_animator.core.renderer;
 import app.gpx_animator.core.UserException;
 import app.gpx_animator.core.configuration.Configuration;
 import app.gpx_animator.core.configuration.TrackConfiguration;
+import app.gpx_animator.core.data.RenderQuality;
 import app.gpx_animator.core.data.TrackIcon;
 import app.gpx_animator.core.data.entity.MyPoint;
 import app.gpx_animator.core.data.entity.TrackPoint;
@@ -25,15 +26,19 @@ import app.gpx_animator.core.data.entity.TrackSegment;
 import app.gpx_animator.core.data.entity.WayPoint;
 import app.gpx_animator.core.data.gpx.GpxContentHandler;
 import app.gpx_animator.core.data.gpx.GpxParser;
-import app.gpx_animator.core.data.gpx.GpxPoint;
 import app.gpx_animator.core.preferences.Preferences;
+import app.gpx_animator.core.renderer.cache.SpriteCache;
+import app.gpx_animator.core.renderer.cache.TextOutlineCache;
+import app.gpx_animator.core.renderer.cache.TextSpriteCache;
+import app.gpx_animator.core.renderer.cache.TextSpriteCache.TextSprite;
 import app.gpx_animator.core.renderer.framewriter.FileFrameWriter;
 import app.gpx_animator.core.renderer.framewriter.FrameWriter;
 import app.gpx_animator.core.renderer.framewriter.NullFrameWriter;
+import app.gpx_animator.core.renderer.framewriter.PipelinedFrameWriter;
 import app.gpx_animator.core.renderer.framewriter.VideoFrameWriter;
 import app.gpx_animator.core.renderer.plugins.RendererPlugin;
+import app.gpx_animator.core.renderer.projection.MercatorProjection;
 import app.gpx_animator.core.util.PluginUtil;
-import app.gpx_animator.core.util.RenderUtil;
 import app.gpx_animator.core.util.Utils;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -43,17 +48,19 @@ import org.jetbrains.annotations.NonNls;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.imageio.ImageIO;
 import java.awt.BasicStroke;
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
-import java.awt.image.AffineTransformOp;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -61,17 +68,25 @@ import java.io.Serial;
 import java.text.NumberFormat;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static app.gpx_animator.core.util.RenderUtil.getGraphics;
 import static app.gpx_animator.core.util.Utils.isEqual;
-import static java.util.Objects.requireNonNull;
 
 @SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
 public final class Renderer {
@@ -80,12 +95,38 @@ public final class Renderer {
     private static final Logger LOGGER = LoggerFactory.getLogger(Renderer.class);
 
     private static final double MS = 1000d;
+    private static final int ENCODER_QUEUE_CAPACITY = 4;
+    private static final float TEXT_OUTLINE_WIDTH = 3f;
+    private static final int SUBPIXEL_STEPS = 4;
 
     private final ResourceBundle resourceBundle = Preferences.getResourceBundle();
 
     private final Configuration cfg;
 
-    private final List<List<TreeMap<Long, Point2D>>> timePointMapListList = new ArrayList<>();
+    private final SpriteCache spriteCache = new SpriteCache();
+    private final TextSpriteCache textSpriteCache;
+    private final TextOutlineCache textOutlineCache = new TextOutlineCache();
+
+    // the strokes of the track lines and the pre-drawn track lines, created once for every track
+    private final BasicStroke[] lineStrokes;
+    private final BasicStroke[] preDrawLineStrokes;
+
+    // every render thread slides its own tail window, it is created once the tracks are loaded
+    private final ThreadLocal<TailRenderer> tailRenderers = ThreadLocal.withInitial(this::createTailRenderer);
+    private final BandRasterizer bandRasterizer;
+
+    private final List<List<TrackTimeline>> timelineListList = new ArrayList<>();
+    private SegmentIndex segmentIndex;
+    // the markers move along all points, even the ones dropped from the drawn segments because they are outside of the map
+    private SegmentIndex markerIndex;
+    private FrameTimeline frameTimeline;
+    private CameraPath cameraPath;
+
+    // in fleet mode, the first frame in which the marker of a track is parked at its end, and the tracks sorted by it
+    private int[] parkFrames;
+    private int[] tracksByParkFrame;
+    // in fleet mode, the frames from the start of every track until its marker is parked
+    private IntervalTree movingMarkers;
 
     private long minTime = Long.MAX_VALUE;
     private long maxTime = Long.MIN_VALUE;
@@ -94,41 +135,206 @@ public final class Renderer {
     private double minY = Double.POSITIVE_INFINITY;
     private double maxY = Double.NEGATIVE_INFINITY;
 
-    // to implement moving map smoothing
-    private final LinkedList<Point2D> recentMarkers;
-    private double recentMarkersXSum = 0.0;
-    private double recentMarkersYSum = 0.0;
+    // the state for rendering single frames in any order, set up by prepare()
+    private Scene preparedScene;
+    private List<RendererPlugin> randomAccessPlugins;
+    private FrameBufferPool randomAccessBufferPool;
+    private BufferedImage trackCanvas;
+    private int trackCanvasFrame;
 
     private double speedup;
 
     public Renderer(@NonNull final Configuration cfg) throws UserException {
         this.cfg = cfg.validate();
-        this.recentMarkers = new LinkedList<>();
+        this.bandRasterizer = new BandRasterizer(cfg.getRenderBands(), new RenderThreadFactory());
+
+        final var trackConfigurations = cfg.getTrackConfigurationList();
+        // in fleet mode every label is drawn on whole pixels, so one sprite per track is enough to keep all of them
+        this.textSpriteCache = cfg.isFleetMode()
+                ? new TextSpriteCache(TextSpriteCache.DEFAULT_MAX_ENTRIES + trackConfigurations.size())
+                : new TextSpriteCache();
+        this.lineStrokes = trackConfigurations.stream()
+                .map(trackConfiguration -> createLineStroke(trackConfiguration.getLineWidth()))
+                .toArray(BasicStroke[]::new);
+        this.preDrawLineStrokes = trackConfigurations.stream()
+                .map(trackConfiguration -> createLineStroke(trackConfiguration.getPreDrawLineWidth()))
+                .toArray(BasicStroke[]::new);
     }
 
-    private static double lonToX(final Double lon) {
-        return Math.toRadians(lon);
+    private static BasicStroke createLineStroke(final float lineWidth) {
+        return new BasicStroke(lineWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
     }
 
-    private static double latToY(final double lat) {
-        return Math.log(Math.tan(Math.PI / 4 + Math.toRadians(lat) / 2));
+    public void render(@NonNull final RenderingContext rc) throws UserException {
+        final var renderStartTime = LocalDateTime.now();
+
+        final var frameFilePattern = cfg.getOutput().toString();
+        final var ext = getOutputExtension();
+        final var toImages = isImageExtension(ext);
+
+        final var layout = layOut(rc, toImages);
+
+        // enough idle buffers for the frames in flight between the render threads and the encoder queue
+        final var frameBufferPool = new FrameBufferPool(cfg.getRenderThreads() * 2 + ENCODER_QUEUE_CAPACITY + 2);
+
+        final var frameWriter = cfg.isPreview() ? new NullFrameWriter() : new PipelinedFrameWriter(toImages
+                ? new FileFrameWriter(frameFilePattern, ext, cfg.getFps())
+                : new VideoFrameWriter(cfg.getOutput(), cfg.getVideoCodec(), cfg.getEncoderProfile(), cfg.getEncoderThreads(),
+                cfg.getInputMusic(), cfg.getMusicCodec(), cfg.getFps(), layout.viewportWidth(), layout.viewportHeight()),
+                ENCODER_QUEUE_CAPACITY, frameBufferPool, cfg.isCompareFrames());
+
+        final Scene scene;
+        Throwable failure = null;
+        try {
+            scene = createScene(layout, frameWriter, frameBufferPool, rc);
+            renderFrames(scene, frameWriter, frameBufferPool, rc, renderStartTime);
+        } catch (final UserException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            closeRendering(frameWriter, frameBufferPool, failure);
+        }
+        final var plugins = scene.plugins();
+
+        final var renderFinishTime = LocalDateTime.now();
+        final var runtimeSeconds = ChronoUnit.SECONDS.between(renderStartTime, renderFinishTime);
+
+        if (!rc.isCancelled1()) {
+            rc.setProgress1(100, "Finished in %d seconds".formatted(runtimeSeconds)); // TODO i18n
+            if (!cfg.isPreview()) {
+                if (toImages) {
+                    LOGGER.info("Done in {} seconds. Images written to {}", runtimeSeconds, frameFilePattern);
+                } else {
+                    LOGGER.info("Done in {} seconds. Movie written to {}", runtimeSeconds, cfg.getOutput());
+                }
+            }
+            for (final var plugin : plugins) {
+                plugin.renderingFinished();
+            }
+        } else {
+            LOGGER.info("Canceled after {} seconds.", runtimeSeconds);
+            for (final var plugin : plugins) {
+                plugin.renderingCanceled();
+            }
+        }
     }
 
-    private static Color blendTailColor(@NonNull final Color tailColor,
-                                        @NonNull final Color trackColor,
-                                        final float ratio) {
-        var r = ((double) (1 - ratio)) * tailColor.getRed() + (double) ratio * trackColor.getRed();
-        var g = ((double) (1 - ratio)) * tailColor.getGreen() + (double) ratio * trackColor.getGreen();
-        var b = ((double) (1 - ratio)) * tailColor.getBlue() + (double) ratio * trackColor.getBlue();
-        double a = Math.max(tailColor.getAlpha(), trackColor.getAlpha());
+    /**
+     * Closes the frame writer first, so that the encoder thread stops and returns its frames to
+     * the pool, then stops the render threads and drops the caches. If rendering failed, an error
+     * while closing the frame writer is attached to the original error, which is still reported.
+     */
+    private void closeRendering(@NonNull final FrameWriter frameWriter, @NonNull final FrameBufferPool frameBufferPool,
+                                @Nullable final Throwable failure) {
+        try {
+            frameWriter.close();
+        } catch (final RuntimeException e) {
+            if (failure == null) {
+                throw e;
+            }
+            failure.addSuppressed(e);
+        } finally {
+            bandRasterizer.close();
+            frameBufferPool.close();
+            textSpriteCache.close();
+            textOutlineCache.close();
+        }
+    }
 
-        return new Color((int) r, (int) g, (int) b, (int) a);
+    /**
+     * <p>Prepares the rendering of single frames in any order with {@link #renderFrame(int)},
+     * instead of rendering the whole video with {@link #render(RenderingContext)}. The tracks
+     * are loaded, the background is drawn and the plugins are set up only once. Nothing is
+     * written to the output, and plugins which don't support random access are skipped.</p>
+     *
+     * @param rc the rendering context
+     * @return the number of frames, which are numbered from one on
+     * @throws UserException error to be shown to the user
+     */
+    public int prepare(@NonNull final RenderingContext rc) throws UserException {
+        final var layout = layOut(rc, isImageExtension(getOutputExtension()));
+        randomAccessBufferPool = new FrameBufferPool();
+        final var scene = createScene(layout, new NullFrameWriter(), randomAccessBufferPool, rc);
+        randomAccessPlugins = scene.plugins().stream()
+                .filter(RendererPlugin::supportsRandomAccess)
+                .toList();
+        trackCanvas = randomAccessBufferPool.copyOf(scene.canvas());
+        trackCanvasFrame = 0;
+        preparedScene = scene;
+        return scene.frames();
     }
 
-    @SuppressWarnings({ "checkstyle:InnerAssignment" }) // Checkstyle 8.37 can't handle the enhanced switch properly
-    public void render(@NonNull final RenderingContext rc) throws UserException {
-        final var renderStartTime = LocalDateTime.now();
+    /**
+     * <p>Renders a single frame, which is exactly the same as this frame in the video. The
+     * frames can be rendered in any order. The track lines are drawn frame by frame, so
+     * rendering the frames in ascending order is the fastest; going back to an earlier frame
+     * draws the track lines from the beginning again.</p>
+     *
+     * @param frame the frame number, from one up to the number of frames returned by {@link #prepare(RenderingContext)}
+     * @return a new image of the frame in the size of the viewport
+     * @throws UserException error to be shown to the user
+     */
+    public synchronized BufferedImage renderFrame(final int frame) throws UserException {
+        final var scene = preparedScene;
+        if (scene == null) {
+            throw new IllegalStateException("The renderer must be prepared before rendering single frames"); //NON-NLS
+        }
+        if (frame < 1 || frame > scene.frames()) {
+            throw new IllegalArgumentException("Frame %d is not between 1 and %d".formatted(frame, scene.frames())); //NON-NLS
+        }
 
+        if (frame < trackCanvasFrame) {
+            final var g = trackCanvas.createGraphics();
+            g.drawImage(scene.canvas(), 0, 0, null);
+            g.dispose();
+            trackCanvasFrame = 0;
+        }
+        for (var previous = trackCanvasFrame + 1; previous <= frame; previous++) {
+            if (!frameTimeline.isIdle(previous)) {
+                paint(trackCanvas, previous, 0, false, new DirtyRegion());
+            }
+        }
+        trackCanvasFrame = frame;
+
+        final var waypointLayer = scene.waypointLayer();
+        final var waypoints = waypointLayer == null ? null : waypointLayer.update(getTime(frame));
+        final var renderedFrame = renderTransientLayers(randomAccessBufferPool.copyOf(trackCanvas), frame, waypoints,
+                getFlashback(frame));
+        final var image = composeFrame(renderedFrame, scene, randomAccessPlugins);
+        // the caller keeps the frame, so it gets a copy and the pooled image goes back to the pool
+        final var frameImage = Utils.deepCopy(image);
+        randomAccessBufferPool.release(renderedFrame.image());
+        return frameImage;
+    }
+
+    /**
+     * @param frame the frame number, from one up to the number of frames returned by {@link #prepare(RenderingContext)}
+     * @return <code>true</code> if the frame is skipped as idle, so it is not in the video
+     */
+    public boolean isSkipped(final int frame) {
+        if (preparedScene == null) {
+            throw new IllegalStateException("The renderer must be prepared before rendering single frames"); //NON-NLS
+        }
+        return frameTimeline.isIdle(frame);
+    }
+
+    @Nullable
+    private String getOutputExtension() {
+        final var frameFilePattern = cfg.getOutput().toString();
+        //noinspection MagicCharacter
+        final var dot = frameFilePattern.lastIndexOf('.');
+        return dot == -1 ? null : frameFilePattern.substring(dot + 1).toLowerCase(Locale.getDefault());
+    }
+
+    private static boolean isImageExtension(@Nullable final String ext) {
+        return ext != null && (isEqual("png", ext) || isEqual("jpg", ext)); //NON-NLS
+    }
+
+    /**
+     * Loads the tracks and projects them onto a map of the configured size.
+     */
+    @SuppressWarnings({ "checkstyle:InnerAssignment" }) // Checkstyle 8.37 can't handle the enhanced switch properly
+    private Layout layOut(@NonNull final RenderingContext rc, final boolean toImages) throws UserException {
         final List<Long[]> spanList = new ArrayList<>();
         final var wpMap = new TreeMap<Long, Point2D>();
         parseGPX(spanList, wpMap, rc);
@@ -140,19 +346,23 @@ public final class Renderer {
 
         calculateMinMaxValues(userSpecifiedWidth, width, scale);
 
-        timePointMapListList.forEach(timePointMapList -> timePointMapList
-                            .forEach(timePointMap -> translateCoordinatesToZeroZero(scale, timePointMap)));
+        timelineListList.forEach(timelineList -> timelineList
+                            .forEach(timeline -> translateCoordinatesToZeroZero(scale, timeline)));
         translateCoordinatesToZeroZero(scale, wpMap);
 
-        final var frameFilePattern = cfg.getOutput().toString();
-        //noinspection MagicCharacter
-        final var dot = frameFilePattern.lastIndexOf('.');
-        final var ext = dot == -1 ? null : frameFilePattern.substring(dot + 1).toLowerCase(Locale.getDefault());
-        final var toImages = ext != null && (isEqual("png", ext) || isEqual("jpg", ext)); //NON-NLS
-
         final var realWidth = calculateRealWidth(userSpecifiedWidth, scale, toImages);
         final var realHeight = calculateRealHeight(scale, toImages);
 
+        final var tolerance = cfg.getRenderQuality().getSimplificationTolerance();
+        if (cfg.getMinLon() != null || cfg.getMaxLon() != null || cfg.getMinLat() != null || cfg.getMaxLat() != null) {
+            segmentIndex = new SegmentIndex(dropLinesOutsideMap(realWidth, realHeight), tolerance);
+            markerIndex = new SegmentIndex(timelineListList);
+        } else {
+            segmentIndex = new SegmentIndex(timelineListList, tolerance);
+            markerIndex = segmentIndex;
+        }
+        logSimplification();
+
         var viewportWidth = cfg.getViewportWidth() == null ? realWidth : cfg.getViewportWidth();
         if (viewportWidth > realWidth) {
             viewportWidth = realWidth;
@@ -164,48 +374,42 @@ public final class Renderer {
 
         LOGGER.info("{} x {}; {} x {}; {}", realWidth, realHeight, viewportWidth, viewportHeight, scale);
 
-        final var frameWriter = cfg.isPreview() ? new NullFrameWriter() : toImages
-                ? new FileFrameWriter(frameFilePattern, ext, cfg.getFps())
-                : new VideoFrameWriter(cfg.getOutput(), cfg.getVideoCodec(), cfg.getInputMusic(), cfg.getMusicCodec(), cfg.getFps(),
-                viewportWidth, viewportHeight);
+        return new Layout(zoom, realWidth, realHeight, viewportWidth, viewportHeight, wpMap, new SpanIndex(spanList));
+    }
 
-        final var bi = createBufferedImage(realWidth, realHeight, zoom);
+    /**
+     * Sets up the plugins and the frame timeline and draws the background and the pre-drawn tracks.
+     */
+    private Scene createScene(@NonNull final Layout layout,
+                              @NonNull final FrameWriter frameWriter,
+                              @NonNull final FrameBufferPool frameBufferPool,
+                              @NonNull final RenderingContext rc) throws UserException {
+        final var bi = createBufferedImage(layout.realWidth(), layout.realHeight(), layout.zoom());
 
         final var plugins = PluginUtil.getAvailablePlugins(cfg, frameWriter, rc);
         final var frames = calculateSpeedupAndReturnFrames(plugins);
-        final var metadata = new Metadata(zoom, minX, maxX, minY, maxY, minTime, maxTime, speedup, frames);
+        frameTimeline = new FrameTimeline(frames, minTime, cfg.getFps(), speedup, markerIndex,
+                cfg.isSkipIdle() ? layout.spanIndex() : null);
+        cameraPath = planCameraPath(layout, frames);
+        if (cfg.isFleetMode() && hasMarkers()) {
+            planParkedMarkers(layout, frames);
+        }
+        final var metadata = new Metadata(layout.zoom(), minX, maxX, minY, maxY, minTime, maxTime, speedup, frames, frameTimeline,
+                cameraPath);
 
         for (final var plugin : plugins) {
             plugin.setMetadata(metadata);
+            plugin.setFrameBufferPool(frameBufferPool);
+            plugin.setTextSpriteCache(textSpriteCache);
         }
 
         drawBackground(plugins, bi);
         preDrawTracks(bi, frames);
-        renderFrames(plugins, bi, realWidth, realHeight, viewportWidth, viewportHeight, frameWriter, frames, spanList, wpMap, rc, renderStartTime);
-
-        frameWriter.close();
-
-        final var renderFinishTime = LocalDateTime.now();
-        final var runtimeSeconds = ChronoUnit.SECONDS.between(renderStartTime, renderFinishTime);
-
-        if (!rc.isCancelled1()) {
-            rc.setProgress1(100, "Finished in %d seconds".formatted(runtimeSeconds)); // TODO i18n
-            if (!cfg.isPreview()) {
-                if (toImages) {
-                    LOGGER.info("Done in {} seconds. Images written to {}", runtimeSeconds, frameFilePattern);
-                } else {
-                    LOGGER.info("Done in {} seconds. Movie written to {}", runtimeSeconds, cfg.getOutput());
-                }
-            }
-            for (final var plugin : plugins) {
-                plugin.renderingFinished();
-            }
-        } else {
-            LOGGER.info("Canceled after {} seconds.", runtimeSeconds);
-            for (final var plugin : plugins) {
-                plugin.renderingCanceled();
-            }
-        }
+        final var waypointSize = cfg.getWaypointSize();
+        final var waypointLayer = waypointSize == null || waypointSize == 0.0 || layout.waypoints().isEmpty() ? null
+                : new WaypointLayer(layout.waypoints(), layout.realWidth(), layout.realHeight(), cfg.getRenderQuality(),
+                        (g2, waypoint, dirtyRegion) -> drawWaypoint(g2, waypointSize, waypoint, dirtyRegion));
+        return new Scene(layout, bi, plugins, frames, waypointLayer);
     }
 
     private void calculateMinMaxValues(final boolean userSpecifiedWidth,
@@ -229,77 +433,380 @@ public final class Renderer {
         }
     }
 
-    @SuppressWarnings({ "ParameterNumber", "java:S107", "java:S3776" }) // TODO refactoring in progress
-    private void renderFrames(@NonNull final List<RendererPlugin> plugins,
-                              @NonNull final BufferedImage bi,
-                              final int realWidth,
-                              final int realHeight,
-                              final int viewportWidth,
-                              final int viewportHeight,
+    @SuppressWarnings("java:S3776") // TODO refactoring in progress
+    private void renderFrames(@NonNull final Scene scene,
                               @NonNull final FrameWriter frameWriter,
-                              final int frames,
-                              @NonNull final List<Long[]> spanList,
-                              @NonNull final TreeMap<Long, Point2D> wpMap,
+                              @NonNull final FrameBufferPool frameBufferPool,
                               @NonNull final RenderingContext rc,
                               @NonNull final LocalDateTime renderStartTime) throws UserException {
+        final var frames = scene.frames();
+        final var bi = scene.canvas();
+        final var waypointLayer = scene.waypointLayer();
         final var remainingTimeCalculator = new RemainingTimeCalculator(renderStartTime, frames);
         final var stopAfterFrame = cfg.getPreviewLength() == null
                 ? cfg.isPreview() ? 1 : Long.MAX_VALUE
                 : cfg.getPreviewLength() * cfg.getFps() / 1_000;
+
+        // the transient layers of a frame only depend on the frame number and a snapshot of the track canvas,
+        // so they can be drawn concurrently; everything stateful (viewport, plugins, writer) runs in frame order
+        final var renderThreads = cfg.getRenderThreads();
+        final var executor = renderThreads > 1 ? Executors.newFixedThreadPool(renderThreads, new RenderThreadFactory()) : null;
+        final var pendingFrames = new ArrayDeque<PendingFrame>();
+        final var maxPendingFrames = renderThreads * 2;
+
+        // without worker threads, all frames are drawn on one persistent scratch canvas; before each frame only
+        // the areas touched by the transient layers of the previous frame are restored from the track canvas
+        BufferedImage scratchCanvas = null;
+        var scratchDirtyRegion = new DirtyRegion();
+
+        // with worker threads, every frame is drawn on its own pooled copy, which is returned to the pool
+        // after the next frame was handed off, because the last frame may be kept at the end of the video
+        BufferedImage lastFrameBuffer = null;
+
         BufferedImage lastRenderedFrame = null;
         var skip = -1f;
-        for (var frame = 1; frame <= frames; frame++) {
-            if (rc.isCancelled1()) {
-                return;
-            }
 
-            if (frame > stopAfterFrame) {
-                return;
-            }
+        // the frames which look exactly like the last rendered frame are not drawn, they are written as its repetitions
+        var previousFrame = 0;
+        WaypointLayer.Snapshot previousWaypoints = null;
+        var previousFlashback = -1f;
+        var repeats = 0L;
+        var repeatedFrames = 0L;
+        try {
+            for (var frame = 1; frame <= frames; frame++) {
+                if (rc.isCancelled1()) {
+                    return;
+                }
 
-            final Long time = getTime(frame);
-            skip:
-            if (cfg.isSkipIdle()) {
-                for (final var span : spanList) {
-                    if (span[0] <= time && span[1] >= time) {
-                        break skip;
+                if (frame > stopAfterFrame) {
+                    if (repeats > 0) {
+                        frameWriter.addRepeatedFrame(lastRenderedFrame, repeats);
                     }
+                    while (!pendingFrames.isEmpty()) {
+                        final var renderedFrame = awaitFrame(pendingFrames);
+                        frameBufferPool.release(lastFrameBuffer);
+                        lastFrameBuffer = renderedFrame.image();
+                        handOffFrame(renderedFrame, scene, frameWriter, rc);
+                    }
+                    return;
                 }
-                rc.setProgress1((int) (100.0 * frame / frames),
-                        String.format(resourceBundle.getString("renderer.progress.unusedframes"), frame, frames));
-                skip = 1f;
-                continue;
+
+                if (frameTimeline.isIdle(frame)) {
+                    rc.setProgress1((int) (100.0 * frame / frames),
+                            String.format(resourceBundle.getString("renderer.progress.unusedframes"), frame, frames));
+                    skip = 1f;
+                    frame = findNextActiveFrame(scene.layout().spanIndex(), frame, frames) - 1; // NOPMD - jump over the idle frames
+                    continue;
+                }
+
+                final var pct = (int) (100.0 * frame / frames);
+                rc.setProgress1(pct, String.format(resourceBundle.getString("renderer.progress.frame"),
+                        frame, frames, remainingTimeCalculator.getSecondsLeft(frame)));
+
+                final var trackDirtyRegion = new DirtyRegion();
+                paint(bi, frame, 0, false, trackDirtyRegion);
+                // the snapshot of the previous frame is only in flight while render threads draw frames
+                final var waypoints = waypointLayer == null ? null : waypointLayer.update(getTime(frame), !pendingFrames.isEmpty());
+                final var flashback = skip;
+                skip = advanceFlashback(skip);
+
+                // the first frame is not repeated, because the kept first frame is drawn over it
+                final var unchanged = previousFrame == frame - 1 && previousFrame > 1 && trackDirtyRegion.isEmpty()
+                        && waypoints == previousWaypoints && !isFlashbackVisible(previousFlashback) && !isFlashbackVisible(flashback)
+                        && isUnchanged(frame, scene.plugins());
+                previousFrame = frame;
+                previousWaypoints = waypoints;
+                previousFlashback = flashback;
+                if (unchanged) {
+                    // the frames in flight come before the repetitions
+                    while (!pendingFrames.isEmpty()) {
+                        final var renderedFrame = awaitFrame(pendingFrames);
+                        frameBufferPool.release(lastFrameBuffer);
+                        lastFrameBuffer = renderedFrame.image();
+                        lastRenderedFrame = handOffFrame(renderedFrame, scene, frameWriter, rc);
+                    }
+                    repeats++;
+                    repeatedFrames++;
+                    continue;
+                }
+                if (repeats > 0) {
+                    // the last rendered frame is not touched until the next frame is drawn or handed off
+                    frameWriter.addRepeatedFrame(lastRenderedFrame, repeats);
+                    repeats = 0;
+                }
+                scratchDirtyRegion.add(trackDirtyRegion, new Rectangle(0, 0, bi.getWidth(), bi.getHeight()));
+
+                if (executor == null) {
+                    if (scratchCanvas == null) {
+                        scratchCanvas = frameBufferPool.copyOf(bi);
+                    } else {
+                        restoreDirtyRegion(bi, scratchCanvas, scratchDirtyRegion);
+                    }
+                    final var renderedFrame = renderTransientLayers(scratchCanvas, frame, waypoints, flashback);
+                    lastRenderedFrame = handOffFrame(renderedFrame, scene, frameWriter, rc);
+                    scratchDirtyRegion = renderedFrame.dirtyRegion();
+                } else {
+                    final var bi2 = frameBufferPool.copyOf(bi);
+                    final var currentFrame = frame;
+                    pendingFrames.add(new PendingFrame(bi2,
+                            executor.submit(() -> renderTransientLayers(bi2, currentFrame, waypoints, flashback))));
+                    while (pendingFrames.size() >= maxPendingFrames) {
+                        final var renderedFrame = awaitFrame(pendingFrames);
+                        frameBufferPool.release(lastFrameBuffer);
+                        lastFrameBuffer = renderedFrame.image();
+                        lastRenderedFrame = handOffFrame(renderedFrame, scene, frameWriter, rc);
+                    }
+                }
+            }
+            while (!pendingFrames.isEmpty()) {
+                final var renderedFrame = awaitFrame(pendingFrames);
+                frameBufferPool.release(lastFrameBuffer);
+                lastFrameBuffer = renderedFrame.image();
+                lastRenderedFrame = handOffFrame(renderedFrame, scene, frameWriter, rc);
             }
+            if (repeats > 0) {
+                frameWriter.addRepeatedFrame(lastRenderedFrame, repeats);
+            }
+            LOGGER.info("{} of {} frames were unchanged and repeated without drawing them", repeatedFrames, frames);
+            keepFrame(scene.plugins(), rc, frameWriter, lastRenderedFrame, frames,
+                    waypointLayer == null ? null : waypointLayer.update(getTime(frames)), cfg.getKeepLastFrame());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            // after a cancellation or a failure, the frames still in flight give their copies back to the pool
+            for (final var pendingFrame : pendingFrames) {
+                pendingFrame.future().cancel(true);
+                frameBufferPool.release(pendingFrame.image());
+            }
+            frameBufferPool.release(lastFrameBuffer);
+            frameBufferPool.release(scratchCanvas);
+        }
+    }
 
-            final var pct = (int) (100.0 * frame / frames);
-            rc.setProgress1(pct, String.format(resourceBundle.getString("renderer.progress.frame"),
-                    frame, frames, remainingTimeCalculator.getSecondsLeft(frame)));
+    /**
+     * Checks if a frame looks exactly like the frame before, if neither new track lines nor a new waypoint were
+     * drawn and there is no flashback: all markers are at the same points, the tails are empty, the viewport
+     * didn't move and none of the plugins draws anything different.
+     */
+    private boolean isUnchanged(final int frame, @NonNull final List<RendererPlugin> plugins) {
+        final var previous = frame - 1;
+        final var previousTime = getTime(previous);
+        final var time = getTime(frame);
+        if (!hasSameMarkers(previous, previousTime, frame, time) || !Objects.equals(getViewport(previous), getViewport(frame))) {
+            return false;
+        }
+        // checking the tail doesn't move its windows, so the tail renderer of this thread can be used
+        final var tailRenderer = tailRenderers.get();
+        if (tailRenderer != null && !(tailRenderer.isEmpty(previousTime, cfg.getTailDuration())
+                && tailRenderer.isEmpty(time, cfg.getTailDuration()))) {
+            return false;
+        }
+        final var marker = getMarker(frame);
+        for (final var plugin : plugins) {
+            if (plugin.hasChanged(frame, marker)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            paint(bi, frame, 0, null, false);
-            final var bi2 = Utils.deepCopy(bi);
-            paint(bi2, frame, cfg.getTailDuration(), cfg.getTailColor(), false);
-            drawWaypoints(bi2, frame, wpMap);
+    /**
+     * @return <code>true</code> if the same markers are drawn at the same points in both frames
+     */
+    private boolean hasSameMarkers(final int previous, final long previousTime, final int frame, final long time) {
+        if (!hasMarkers()) {
+            return true;
+        }
+        if (movingMarkers != null) {
+            final var tracks = movingMarkers.query(frame, frame);
+            if (!Arrays.equals(tracks, movingMarkers.query(previous, previous))) {
+                return false;
+            }
+            for (final var track : tracks) {
+                if (!hasSameMarker(track, previous, previousTime, frame, time)) {
+                    return false;
+                }
+            }
+        } else {
+            for (var track = 0; track < markerIndex.getTrackCount(); track++) {
+                if (!hasSameMarker(track, previous, previousTime, frame, time)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
 
-            final var marker = drawMarker(bi2, frame);
+    /**
+     * @return <code>true</code> if the marker of the track is drawn at the same point in both frames, see drawMarkerOfTrack
+     */
+    private boolean hasSameMarker(final int track, final int previous, final long previousTime, final int frame, final long time) {
+        final var id = frameTimeline.getMarkerSegment(frame, track);
+        if (id != frameTimeline.getMarkerSegment(previous, track)) {
+            return false;
+        }
+        if (id < 0) {
+            return true;
+        }
+        final var timeline = markerIndex.getTimeline(id);
+        return timeline.floorIndex(previousTime) == timeline.floorIndex(time)
+                && (timeline.getLastTime() < previousTime) == (timeline.getLastTime() < time);
+    }
 
-            skip = renderFlashback(skip, bi2);
+    /**
+     * The flashback is shown on the first frame after skipped idle frames and fades out over the following frames.
+     * When rendering frames one after the other, it is faded out frame by frame instead.
+     *
+     * @return the opacity of the flashback, it is not visible if it is zero or less
+     */
+    private float getFlashback(final int frame) {
+        if (!cfg.isSkipIdle() || !isFlashbackVisible(1f)) {
+            return -1f;
+        }
+        // a couple of extra frames, so the rounding of the fading doesn't matter
+        final var fadeFrames = (int) Math.ceil(cfg.getFlashbackDuration() * cfg.getFps() / MS) + 2;
+        var idleFrame = frame - 1;
+        while (idleFrame >= 1 && idleFrame >= frame - fadeFrames && !frameTimeline.isIdle(idleFrame)) {
+            idleFrame--;
+        }
+        if (idleFrame < 1 || !frameTimeline.isIdle(idleFrame)) {
+            return -1f;
+        }
+        var skip = 1f;
+        for (var previous = idleFrame + 1; previous < frame; previous++) {
+            skip = advanceFlashback(skip);
+        }
+        return skip;
+    }
 
-            // apply viewport over bi2 (which could be the full viewport)
-            final var viewportImage = applyViewport(bi2, marker, realWidth, realHeight, viewportWidth, viewportHeight);
+    /**
+     * Finds the first frame after an idle frame whose time is at or after the start of the next active span.
+     *
+     * @return the frame number or <code>frames + 1</code> if all remaining frames are idle
+     */
+    private int findNextActiveFrame(@NonNull final SpanIndex spanIndex,
+                                    final int idleFrame,
+                                    final int frames) {
+        final var nextActiveTime = spanIndex.nextActiveTime(getTime(idleFrame));
+        if (nextActiveTime == SpanIndex.NONE) {
+            return frames + 1;
+        }
+        return frameTimeline.firstFrameAtOrAfter(nextActiveTime, idleFrame + 1);
+    }
 
-            for (final var plugin : plugins) {
-                plugin.renderFrame(frame, marker, viewportImage);
+    private RenderedFrame renderTransientLayers(@NonNull final BufferedImage bi2,
+                                                final int frame,
+                                                @Nullable final WaypointLayer.Snapshot waypoints,
+                                                final float flashback) throws UserException {
+        final var dirtyRegion = new DirtyRegion();
+        final var viewport = getViewport(frame);
+        bandRasterizer.draw(bi2, dirtyRegion, (band, bandDirtyRegion) -> {
+            // only the viewport ends up in the frame, nothing outside of it is drawn
+            final var clip = viewport == null ? band : band.intersection(viewport);
+            if (clip.isEmpty()) {
+                return;
             }
+            // the tail renderers keep state, so every band thread uses its own
+            final var tailRenderer = tailRenderers.get();
+            if (tailRenderer != null) {
+                final var g2 = getBandGraphics(bi2, clip);
+                tailRenderer.paint(g2, getTime(frame), cfg.getTailDuration(), bandDirtyRegion);
+                g2.dispose();
+            }
+            WaypointLayer.draw(waypoints, bi2, clip, bandDirtyRegion);
+            drawMarker(bi2, clip, frame, bandDirtyRegion);
+            renderFlashback(flashback, bi2, clip, bandDirtyRegion);
+        });
+        return new RenderedFrame(frame, bi2, getMarker(frame), waypoints, dirtyRegion);
+    }
+
+    private static void restoreDirtyRegion(@NonNull final BufferedImage source,
+                                           @NonNull final BufferedImage target,
+                                           @NonNull final DirtyRegion dirtyRegion) {
+        final var g = target.createGraphics();
+        for (final var r : dirtyRegion.getRectangles(target.getWidth(), target.getHeight())) {
+            g.drawImage(source, r.x, r.y, r.x + r.width, r.y + r.height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+        }
+        g.dispose();
+    }
+
+    private BufferedImage handOffFrame(@NonNull final RenderedFrame renderedFrame,
+                                       @NonNull final Scene scene,
+                                       @NonNull final FrameWriter frameWriter,
+                                       @NonNull final RenderingContext rc) throws UserException {
+        final var viewportImage = composeFrame(renderedFrame, scene, scene.plugins());
 
-            frameWriter.addFrame(viewportImage);
+        frameWriter.addFrame(viewportImage);
 
-            if (frame == 1) { // NOPMD - AvoidLiteralsInIfCondition - this number never changes
-                keepFrame(plugins, rc, frameWriter, viewportImage, frame, wpMap, cfg.getKeepFirstFrame());
+        final var frame = renderedFrame.frame();
+        if (frame == 1) { // NOPMD - AvoidLiteralsInIfCondition - this number never changes
+            keepFrame(scene.plugins(), rc, frameWriter, viewportImage, frame, renderedFrame.waypoints(), cfg.getKeepFirstFrame());
+            renderedFrame.dirtyRegion().setFull();
+        }
+
+        return viewportImage;
+    }
+
+    /**
+     * Applies the viewport and lets the plugins draw on the frame.
+     *
+     * @return the image of the viewport, which is the rendered image itself if there is no viewport
+     */
+    private BufferedImage composeFrame(@NonNull final RenderedFrame renderedFrame,
+                                       @NonNull final Scene scene,
+                                       @NonNull final List<RendererPlugin> plugins) throws UserException {
+        final var frame = renderedFrame.frame();
+        final var marker = renderedFrame.marker();
+        final var dirtyRegion = renderedFrame.dirtyRegion();
+
+        // apply viewport over bi2 (which could be the full viewport)
+        final var viewport = getViewport(frame);
+        final var viewportImage = viewport == null ? renderedFrame.image()
+                : renderedFrame.image().getSubimage(viewport.x, viewport.y, viewport.width, viewport.height);
+
+        for (final var plugin : plugins) {
+            plugin.renderFrame(frame, marker, viewportImage);
+            final var renderedArea = plugin.getRenderedArea();
+            if (renderedArea == null) {
+                dirtyRegion.setFull();
+            } else if (viewport != null) {
+                renderedArea.translate(viewport.x, viewport.y);
+                dirtyRegion.add(renderedArea);
+            } else {
+                dirtyRegion.add(renderedArea);
             }
+        }
+
+        return viewportImage;
+    }
+
+    /**
+     * @return the part of the map shown in the frame, or <code>null</code> if the whole map is shown
+     */
+    @Nullable
+    private Rectangle getViewport(final int frame) {
+        return cameraPath == null || getMarker(frame) == null ? null : cameraPath.getViewport(frame);
+    }
 
-            lastRenderedFrame = viewportImage;
+    /**
+     * Waits for the oldest frame in flight. It stays in the queue until it was drawn, so that its
+     * image is returned to the pool if drawing fails.
+     */
+    private RenderedFrame awaitFrame(@NonNull final ArrayDeque<PendingFrame> pendingFrames) throws UserException {
+        try {
+            final var renderedFrame = pendingFrames.element().future().get();
+            pendingFrames.remove();
+            return renderedFrame;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserException(resourceBundle.getString("renderer.error.interrupted"), e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof UserException userException) {
+                throw userException;
+            }
+            throw new UserException(resourceBundle.getString("renderer.error.frame").formatted(e.getCause().getMessage()), e.getCause());
         }
-        keepFrame(plugins, rc, frameWriter, lastRenderedFrame, frames, wpMap, cfg.getKeepLastFrame());
     }
 
     private int calculateSpeedupAndReturnFrames(@NonNull final List<RendererPlugin> plugins) throws UserException {
@@ -328,9 +835,9 @@ public final class Renderer {
     }
 
     private void preDrawTracks(@NonNull final BufferedImage bi,
-                               final int frames) {
+                               final int frames) throws UserException {
         if (cfg.isPreDrawTrack()) {
-            paint(bi, frames, getTime(frames) - getTime(0), null, true);
+            paint(bi, frames, getTime(frames) - getTime(0), true, new DirtyRegion());
         }
     }
 
@@ -345,65 +852,57 @@ public final class Renderer {
         }
     }
 
-    private BufferedImage applyViewport(@NonNull final BufferedImage bi,
-                                        @Nullable final Point2D marker,
-                                        final int realWidth,
-                                        final int realHeight,
-                                        final int viewportWidth,
-                                        final int viewportHeight) {
-        if (marker == null || (viewportHeight == realHeight && viewportWidth == realWidth)) {
-            return bi;
-        }
-
-        // Add most recent markers to a queue (while updating a running average
-        // of x and y coordinates). Note that this loop almost always adds just
-        // 1 element to the end of the queue, except on the first invocation, in
-        // which case it fills up the entire queue with just the first marker.
-        // This prevents jitter in the beginning of the movie
-        while (this.recentMarkers.size() < (cfg.getViewportInertia() + 1)) {
-            this.recentMarkers.add(marker);
-            recentMarkersXSum += marker.getX();
-            recentMarkersYSum += marker.getY();
-        }
-
-        while (this.recentMarkers.size() > cfg.getViewportInertia()) {
-            final var m = this.recentMarkers.removeFirst();
-            recentMarkersXSum -= m.getX();
-            recentMarkersYSum -= m.getY();
-        }
-        final var xAvg = recentMarkersXSum / this.recentMarkers.size();
-        final var yAvg = recentMarkersYSum / this.recentMarkers.size();
-
-        // top-left (x,y) coords of viewport with boundaries protected
-        var x = xAvg - viewportWidth / 2.0;
-        var y = yAvg - viewportHeight / 2.0;
-        if (x < 0) {
-            x = 0;
-        } else if ((x + viewportWidth) > realWidth) {
-            x = (double) realWidth - viewportWidth;
+    /**
+     * Plans the viewport position of every frame. The viewport follows the markers of the frames which
+     * are not skipped as idle; in the beginning of the movie, the first marker stands in for the missing
+     * frames, which prevents jitter in the beginning of the movie.
+     *
+     * @return the planned path or <code>null</code> if the viewport shows the whole map
+     */
+    @Nullable
+    private CameraPath planCameraPath(@NonNull final Layout layout, final int frames) {
+        if (layout.viewportWidth() == layout.realWidth() && layout.viewportHeight() == layout.realHeight()) {
+            return null;
         }
-
-        if (y < 0) {
-            y = 0;
-        } else if ((y + viewportHeight) > realHeight) {
-            y = (double) realHeight - viewportHeight;
+        final var markerXs = new double[frames + 1];
+        final var markerYs = new double[frames + 1];
+        markerXs[0] = Double.NaN;
+        markerYs[0] = Double.NaN;
+        for (var frame = 1; frame <= frames; frame++) {
+            final var marker = frameTimeline.isIdle(frame) ? null : frameTimeline.getMarker(frame);
+            markerXs[frame] = marker == null ? Double.NaN : marker.getX();
+            markerYs[frame] = marker == null ? Double.NaN : marker.getY();
         }
-        return bi.getSubimage((int) x, (int) y, viewportWidth, viewportHeight);
+        return CameraPath.plan(markerXs, markerYs, cfg.getViewportMode(), cfg.getViewportInertia(),
+                new Dimension(layout.realWidth(), layout.realHeight()), new Dimension(layout.viewportWidth(), layout.viewportHeight()));
     }
 
-    private float renderFlashback(final float skip,
-                                  @NonNull final BufferedImage bi2) {
-        final var flashbackColor = cfg.getFlashbackColor();
-        if (skip > 0f && flashbackColor.getAlpha() > 0 && cfg.getFlashbackDuration() != null && cfg.getFlashbackDuration() > 0) {
+    private void renderFlashback(final float skip,
+                                 @NonNull final BufferedImage bi2,
+                                 @NonNull final Rectangle band,
+                                 @NonNull final DirtyRegion dirtyRegion) {
+        if (isFlashbackVisible(skip)) {
+            dirtyRegion.setFull();
+            final var flashbackColor = cfg.getFlashbackColor();
             final var g2 = (Graphics2D) bi2.getGraphics();
             g2.setColor(new Color(flashbackColor.getRed(), flashbackColor.getGreen(), flashbackColor.getBlue(),
                     (int) (flashbackColor.getAlpha() * skip)));
-            g2.fillRect(0, 0, bi2.getWidth(), bi2.getHeight());
+            g2.fillRect(band.x, band.y, band.width, band.height);
+            g2.dispose();
+        }
+    }
+
+    private float advanceFlashback(final float skip) {
+        if (isFlashbackVisible(skip)) {
             return (float) (skip - (1000f / cfg.getFlashbackDuration() / cfg.getFps()));
         }
         return skip;
     }
 
+    private boolean isFlashbackVisible(final float skip) {
+        return skip > 0f && cfg.getFlashbackColor().getAlpha() > 0 && cfg.getFlashbackDuration() != null && cfg.getFlashbackDuration() > 0;
+    }
+
     private void drawBackground(@NonNull final List<RendererPlugin> plugins,
                                 @NonNull final BufferedImage bi)
             throws UserException {
@@ -423,7 +922,7 @@ public final class Renderer {
             final var gch = new GpxContentHandler();
             GpxParser.parseGpx(inputGpxFile, gch);
 
-            final List<TreeMap<Long, Point2D>> timePointMapList = new ArrayList<>();
+            final List<TrackTimeline> timelineList = new ArrayList<>();
 
             final var track = gch.getTrack();
             final var trackSegments = track != null ? track.getTrackSegments() : null;
@@ -432,17 +931,16 @@ public final class Renderer {
                 throw new UserException(resourceBundle.getString("renderer.error.notrack").formatted(inputGpxFile));
             }
             for (final var trackSegment : trackSegments) {
-                final var timePointMap = new TreeMap<Long, Point2D>();
-                toTimePointMap(timePointMap, trackIndex, trackSegment.getTrackPoints(), Long.MIN_VALUE);
-                trimGpxData(timePointMap, trackConfiguration);
-                timePointMapList.add(timePointMap);
-                var oldestTimeAsDefaultForWaypoints = timePointMap.keySet().stream().min(Long::compareTo).orElse(Long.MIN_VALUE);
+                final var timeline = toTimeline(trackIndex, trackSegment.getTrackPoints());
+                trimGpxData(timeline, trackConfiguration);
+                timelineList.add(timeline);
+                final var oldestTimeAsDefaultForWaypoints = timeline.isEmpty() ? Long.MIN_VALUE : timeline.getFirstTime();
                 toTimePointMap(wpMap, trackIndex, gch.getWayPoints(), oldestTimeAsDefaultForWaypoints);
-                mergeConnectedSpans(spanList, timePointMap);
+                mergeConnectedSpans(spanList, timeline);
             }
 
-            Collections.reverse(timePointMapList); // reversing because of last known location drawing
-            timePointMapListList.add(timePointMapList);
+            Collections.reverse(timelineList); // reversing because of last known location drawing
+            timelineListList.add(timelineList);
         }
     }
 
@@ -477,14 +975,23 @@ public final class Renderer {
         }
     }
 
+    private void translateCoordinatesToZeroZero(final double scale,
+                                                @NonNull final TrackTimeline timeline) {
+        if (!timeline.isEmpty()) {
+            maxTime = Math.max(maxTime, timeline.getLastTime());
+            minTime = Math.min(minTime, timeline.getFirstTime());
+        }
+        timeline.translate(minX, maxY, scale);
+    }
+
     private void mergeConnectedSpans(@NonNull final List<Long[]> spanList,
-                                     @NonNull final TreeMap<Long, Point2D> timePointMap) {
-        if (timePointMap.isEmpty()) {
+                                     @NonNull final TrackTimeline timeline) {
+        if (timeline.isEmpty()) {
             return;
         }
 
-        long t0 = timePointMap.firstKey();
-        var t1 = timePointMap.lastKey() + (cfg.isTailColorFadeout() ? cfg.getTailDuration() : 0);
+        long t0 = timeline.getFirstTime();
+        var t1 = timeline.getLastTime() + (cfg.isTailColorFadeout() ? cfg.getTailDuration() : 0);
 
         for (final var iter = spanList.iterator(); iter.hasNext();) {
             final var span = iter.next();
@@ -537,19 +1044,17 @@ public final class Renderer {
                 : (128.0 * (1 << zoom)) / Math.PI;
     }
 
-    private void trimGpxData(@NonNull final TreeMap<Long, Point2D> timePointMap,
+    private void trimGpxData(@NonNull final TrackTimeline timeline,
                              @NonNull final TrackConfiguration trackConfiguration) {
 
         final var trimGpxStart = trackConfiguration.getTrimGpxStart();
-        if (trimGpxStart != null && trimGpxStart > 0 && !timePointMap.isEmpty()) {
-            final Long skipToTime = timePointMap.firstKey() + trimGpxStart;
-            timePointMap.entrySet().removeIf(e -> e.getKey() < skipToTime);
+        if (trimGpxStart != null && trimGpxStart > 0 && !timeline.isEmpty()) {
+            timeline.retainRange(timeline.getFirstTime() + trimGpxStart, Long.MAX_VALUE);
         }
 
         final var trimGpxEnd = trackConfiguration.getTrimGpxEnd();
-        if (trimGpxEnd != null && trimGpxEnd > 0 && !timePointMap.isEmpty()) {
-            final Long skipAfterTime = timePointMap.lastKey() - trimGpxEnd;
-            timePointMap.entrySet().removeIf(e -> e.getKey() > skipAfterTime);
+        if (trimGpxEnd != null && trimGpxEnd > 0 && !timeline.isEmpty()) {
+            timeline.retainRange(Long.MIN_VALUE, timeline.getLastTime() - trimGpxEnd);
         }
     }
 
@@ -558,11 +1063,12 @@ public final class Renderer {
                            @NonNull final FrameWriter frameWriter,
                            @Nullable final BufferedImage bi,
                            final int frames,
-                           @NonNull final TreeMap<Long, Point2D> wpMap,
+                           @Nullable final WaypointLayer.Snapshot waypoints,
                            @Nullable final Long keepFrame) throws UserException {
         if (bi != null && keepFrame != null && keepFrame > 0) {
-            drawWaypoints(bi, frames, wpMap);
-            final var marker = drawMarker(bi, frames);
+            WaypointLayer.draw(waypoints, bi, new DirtyRegion());
+            drawMarker(bi, new Rectangle(0, 0, bi.getWidth(), bi.getHeight()), frames, new DirtyRegion());
+            final var marker = getMarker(frames);
 
             for (final var plugin : plugins) {
                 plugin.renderFrame(frames, marker, bi);
@@ -570,42 +1076,31 @@ public final class Renderer {
 
             final var fps = Math.round(cfg.getFps());
             final var stillFrames = keepFrame / 1_000 * fps;
-            for (long stillFrame = 0; stillFrame < stillFrames; stillFrame++) {
-                final var pct = (int) (100.0 * stillFrame / stillFrames);
-                rc.setProgress1(pct, String.format(resourceBundle.getString("renderer.progress.keepframe"), stillFrame, stillFrames));
-                frameWriter.addFrame(bi);
-                if (rc.isCancelled1()) {
-                    return;
-                }
+            if (rc.isCancelled1()) {
+                return;
+            }
+            rc.setProgress1(0, String.format(resourceBundle.getString("renderer.progress.keepframe"), 0, stillFrames));
+            frameWriter.addRepeatedFrame(bi, stillFrames);
+            if (rc.isCancelled1()) {
+                return;
             }
+            rc.setProgress1(100, String.format(resourceBundle.getString("renderer.progress.keepframe"), stillFrames, stillFrames));
         }
     }
 
-    private void drawWaypoints(@NonNull final BufferedImage bi,
-                               final int frame,
-                               @NonNull final TreeMap<Long, Point2D> wpMap) {
-        final var waypointSize = cfg.getWaypointSize();
-        if (waypointSize == null || waypointSize == 0.0 || wpMap.isEmpty()) {
-            return;
-        }
-
-        final var g2 = getGraphics(bi);
-
-        final var t2 = getTime(frame);
-
-
-        if (t2 >= wpMap.firstKey()) {
-            for (final var p : wpMap.subMap(wpMap.firstKey(), t2).values()) {
-                g2.setColor(Color.white);
-                final var marker = createMarker(waypointSize, p);
-                g2.setStroke(new BasicStroke(1f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                g2.fill(marker);
-                g2.setColor(Color.black);
-                g2.draw(marker);
+    private void drawWaypoint(@NonNull final Graphics2D g2,
+                              @NonNull final Double waypointSize,
+                              @NonNull final Point2D p,
+                              @NonNull final DirtyRegion dirtyRegion) {
+        g2.setColor(Color.white);
+        final var marker = createMarker(waypointSize, p);
+        g2.setStroke(new BasicStroke(1f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2.fill(marker);
+        g2.setColor(Color.black);
+        g2.draw(marker);
+        dirtyRegion.add(marker.getBounds2D(), 1);
 
-                printText(g2, ((NamedPoint) p).getName(), (float) p.getX() + 8f, (float) p.getY() + 4f, cfg.getWaypointFont());
-            }
-        }
+        printText(g2, ((NamedPoint) p).getName(), (float) p.getX() + 8f, (float) p.getY() + 4f, cfg.getWaypointFont(), dirtyRegion);
     }
 
     private Ellipse2D.Double createMarker(@NonNull final Double size,
@@ -613,10 +1108,36 @@ public final class Renderer {
         return new Ellipse2D.Double(point.getX() - size / 2.0, point.getY() - size / 2.0, size, size);
     }
 
+    private TrackTimeline toTimeline(final int trackIndex,
+                                     @NonNull final List<TrackPoint> trackPoints) throws UserException {
+        final var builder = TrackTimeline.builder();
+        forEachProjectedPoint(trackIndex, trackPoints, Long.MIN_VALUE,
+                (trackPoint, time, x, y) -> builder.add(time, x, y, trackPoint));
+        return builder.build();
+    }
+
     private void toTimePointMap(@NonNull final TreeMap<Long, Point2D> timePointMap,
                                 final int trackIndex,
-                                @NonNull final List<? extends MyPoint> gpxPoints,
+                                @NonNull final List<WayPoint> wayPoints,
                                 final long defaultTimeIfMissing) throws UserException {
+        forEachProjectedPoint(trackIndex, wayPoints, defaultTimeIfMissing, (wayPoint, time, x, y) -> {
+            final var namedPoint = new NamedPoint();
+            namedPoint.setLocation(x, y);
+            namedPoint.setName(wayPoint.getName());
+
+            // hack to prevent overwriting existing (way)point with same time
+            var freeTime = time;
+            while (timePointMap.containsKey(freeTime)) {
+                freeTime++;
+            }
+            timePointMap.put(freeTime, namedPoint);
+        });
+    }
+
+    private <T extends MyPoint> void forEachProjectedPoint(final int trackIndex,
+                                                           @NonNull final List<T> gpxPoints,
+                                                           final long defaultTimeIfMissing,
+                                                           @NonNull final ProjectedPointConsumer<T> consumer) throws UserException {
         long forcedTime = 0;
 
         final var trackConfiguration = cfg.getTrackConfigurationList().get(trackIndex);
@@ -627,34 +1148,50 @@ public final class Renderer {
         final var maxLat = cfg.getMaxLat();
 
         if (minLon != null) {
-            minX = lonToX(minLon);
+            minX = MercatorProjection.lonToX(minLon);
         }
         if (maxLon != null) {
-            maxX = lonToX(maxLon);
+            maxX = MercatorProjection.lonToX(maxLon);
         }
         if (minLat != null) {
-            minY = latToY(minLat);
+            minY = MercatorProjection.latToY(minLat);
         }
         if (maxLat != null) {
-            maxY = latToY(maxLat);
+            maxY = MercatorProjection.latToY(maxLat);
         }
 
+        // all points are projected at once, together with their bounding box
+        final var size = gpxPoints.size();
+        final var longitudes = new double[size];
+        final var latitudes = new double[size];
+        var index = 0;
         for (final var gpxPoint : gpxPoints) {
-            final var x = lonToX(gpxPoint.getLongitude());
-            final var y = latToY(gpxPoint.getLatitude());
+            longitudes[index] = gpxPoint.getLongitude();
+            latitudes[index] = gpxPoint.getLatitude();
+            index++;
+        }
+        final var xs = new double[size];
+        final var ys = new double[size];
+        final var bounds = MercatorProjection.project(longitudes, latitudes, xs, ys);
 
-            if (minLon == null) {
-                minX = Math.min(x, minX);
-            }
-            if (maxLat == null) {
-                minY = Math.min(y, minY);
-            }
-            if (maxLon == null) {
-                maxX = Math.max(x, maxX);
-            }
-            if (minLat == null) {
-                maxY = Math.max(y, maxY);
-            }
+        if (minLon == null) {
+            minX = Math.min(bounds.minX(), minX);
+        }
+        if (maxLat == null) {
+            minY = Math.min(bounds.minY(), minY);
+        }
+        if (maxLon == null) {
+            maxX = Math.max(bounds.maxX(), maxX);
+        }
+        if (minLat == null) {
+            maxY = Math.max(bounds.maxY(), maxY);
+        }
+
+        index = 0;
+        for (final var gpxPoint : gpxPoints) {
+            final var x = xs[index];
+            final var y = ys[index];
+            index++;
 
             long time;
             final var forcedPointInterval = trackConfiguration.getForcedPointInterval();
@@ -674,87 +1211,172 @@ public final class Renderer {
                 time += trackConfiguration.getTimeOffset();
             }
 
-            final Point2D point;
-            if (gpxPoint instanceof WayPoint wayPoint) {
-                final var namedPoint = new NamedPoint();
-                namedPoint.setLocation(x, y);
-                namedPoint.setName(wayPoint.getName());
-                point = namedPoint;
-            } else if (gpxPoint instanceof TrackPoint trackPoint) {
-                point = new GpxPoint(x, y, trackPoint, time, trackPoint.getSpeed());
-            } else {
-                point = null;
-            }
-
-            if (point != null) {
-                // hack to prevent overwriting existing (way)point with same time
-                var freeTime = time;
-                while (timePointMap.containsKey(freeTime)) {
-                    freeTime++;
-                }
-                timePointMap.put(freeTime, point);
-            }
+            consumer.accept(gpxPoint, time, x, y);
         }
     }
 
-    @SuppressWarnings("PMD.AssignmentInOperand") // assignment in operand is intentional
-    private Point2D drawMarker(@NonNull final BufferedImage bi,
-                               final int frame) throws UserException {
-        if (cfg.getMarkerSize() == null || cfg.getMarkerSize() == 0.0) {
-            return null;
+    private void drawMarker(@NonNull final BufferedImage bi,
+                            @NonNull final Rectangle band,
+                            final int frame,
+                            @NonNull final DirtyRegion dirtyRegion) throws UserException {
+        if (!hasMarkers()) {
+            return;
         }
 
-        Point2D point = null;
-
-        final var g2 = getGraphics(bi);
+        final var g2 = getBandGraphics(bi, band);
         final var t2 = getTime(frame);
-        final var trackConfigurationList = cfg.getTrackConfigurationList();
 
-        var i = 0;
-        outer:
-        for (final var timePointMapList : timePointMapListList) {
-            final var trackConfiguration = trackConfigurationList.get(i++);
-            for (final var timePointMap : timePointMapList) {
-                final var ceilingEntry = timePointMap.ceilingEntry(t2);
-                final var floorEntry = timePointMap.floorEntry(t2);
-                if (floorEntry == null) {
-                    continue;
-                }
+        if (movingMarkers != null) {
+            // only the tracks which started and are not parked yet, however many tracks ended or did not start
+            for (final var track : movingMarkers.query(frame, frame)) {
+                drawMarkerOfTrack(g2, frame, track, t2, dirtyRegion);
+            }
+        } else {
+            for (var track = 0; track < markerIndex.getTrackCount(); track++) {
+                drawMarkerOfTrack(g2, frame, track, t2, dirtyRegion);
+            }
+        }
+        g2.dispose();
+    }
 
-                point = floorEntry.getValue();
-                g2.setColor(ceilingEntry == null ? Color.white : trackConfiguration.getColor());
+    private void drawMarkerOfTrack(@NonNull final Graphics2D g2,
+                                   final int frame,
+                                   final int track,
+                                   final long t2,
+                                   @NonNull final DirtyRegion dirtyRegion) throws UserException {
+        final var id = frameTimeline.getMarkerSegment(frame, track);
+        if (id < 0) {
+            return; // not started yet
+        }
+        final var timeline = markerIndex.getTimeline(id);
+        final var point = timeline.getPoint(timeline.floorIndex(t2));
+        drawTrackMarker(g2, track, point, timeline.getLastTime() < t2, dirtyRegion);
+    }
 
-                final var trackIcon = trackConfiguration.getTrackIcon();
-                final var trackIconFile = trackConfiguration.getInputIcon();
-                if (trackIconFile != null && trackIconFile.exists() && trackIconFile.canRead()) {
-                    try {
-                        drawIconFileOnGraphics2D(point, g2, trackIconFile, trackConfiguration.isTrackIconMirrored());
-                    } catch (final IOException e) {
-                        throw new UserException(resourceBundle.getString("renderer.error.iconfile").formatted(trackIconFile), e);
-                    }
-                } else if (trackIcon != null && !trackIcon.getKey().isEmpty()) {
-                    try {
-                        drawIconOnGraphics2D(point, g2, trackIcon, trackConfiguration.isTrackIconMirrored());
-                    } catch (final IOException e) {
-                        throw new UserException(resourceBundle.getString("renderer.error.icon"), e);
-                    }
-                } else {
-                    drawSimpleCircleOnGraphics2D(point, g2);
-                }
+    private void drawTrackMarker(@NonNull final Graphics2D g2,
+                                 final int track,
+                                 @NonNull final Point2D point,
+                                 final boolean finished,
+                                 @NonNull final DirtyRegion dirtyRegion) throws UserException {
+        final var trackConfiguration = cfg.getTrackConfigurationList().get(track);
+        final var color = finished ? Color.white : trackConfiguration.getColor();
+        g2.setColor(color);
+
+        final var trackIcon = trackConfiguration.getTrackIcon();
+        final var trackIconFile = trackConfiguration.getInputIcon();
+        if (trackIconFile != null && trackIconFile.exists() && trackIconFile.canRead()) {
+            try {
+                drawIconFileOnGraphics2D(point, g2, trackIconFile, trackConfiguration.isTrackIconMirrored(), dirtyRegion);
+            } catch (final IOException e) {
+                throw new UserException(resourceBundle.getString("renderer.error.iconfile").formatted(trackIconFile), e);
+            }
+        } else if (trackIcon != null && !trackIcon.getKey().isEmpty()) {
+            try {
+                drawIconOnGraphics2D(point, g2, trackIcon, trackConfiguration.isTrackIconMirrored(), dirtyRegion);
+            } catch (final IOException e) {
+                throw new UserException(resourceBundle.getString("renderer.error.icon"), e);
+            }
+        } else if (cfg.isFleetMode()) {
+            drawMarkerSprite(point, g2, color, dirtyRegion);
+        } else {
+            drawSimpleCircleOnGraphics2D(point, g2, dirtyRegion);
+        }
 
-                final var label = trackConfiguration.getLabel();
-                if (!label.isEmpty()) {
-                    printText(g2, label, (float) point.getX() + 8f, (float) point.getY() + 4f, cfg.getFont());
-                }
+        final var label = trackConfiguration.getLabel();
+        if (!label.isEmpty()) {
+            final var x = (float) point.getX() + 8f;
+            final var y = (float) point.getY() + 4f;
+            if (cfg.isFleetMode()) {
+                printText(g2, label, Math.round(x), Math.round(y), cfg.getFont(), dirtyRegion);
+            } else {
+                printText(g2, label, x, y, cfg.getFont(), dirtyRegion);
+            }
+        }
+    }
+
+    /**
+     * Draws the marker of a track onto the track canvas once it is parked at the end of the track, instead of
+     * drawing it again in every frame. The tracks which are still moving are drawn above it.
+     */
+    private void drawParkedMarkers(@NonNull final Graphics2D g2,
+                                   final int frame,
+                                   @NonNull final DirtyRegion dirtyRegion) throws UserException {
+        var from = 0;
+        var to = tracksByParkFrame.length;
+        while (from < to) {
+            final var mid = (from + to) >>> 1;
+            if (parkFrames[tracksByParkFrame[mid]] < frame) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        for (var i = from; i < tracksByParkFrame.length && parkFrames[tracksByParkFrame[i]] == frame; i++) {
+            final var track = tracksByParkFrame[i];
+            final var timeline = markerIndex.getTimeline(frameTimeline.getMarkerSegment(frame, track));
+            drawTrackMarker(g2, track, timeline.getPoint(frameTimeline.getMarkerIndex(frame, track)), true, dirtyRegion);
+        }
+    }
+
+    /**
+     * In fleet mode, the marker of a track which has ended doesn't move anymore. It is parked from the first frame
+     * after the end of the track which is not skipped as idle, which is the frame it is drawn onto the track canvas.
+     * Until then, it is drawn in every frame from the start of the track on, also while the track pauses between
+     * two segments.
+     */
+    private void planParkedMarkers(@NonNull final Layout layout, final int frames) {
+        final var trackCount = markerIndex.getTrackCount();
+        final var trackStarts = new long[trackCount];
+        final var trackEnds = new long[trackCount];
+        Arrays.fill(trackStarts, Long.MAX_VALUE);
+        Arrays.fill(trackEnds, Long.MIN_VALUE);
+        for (var id = 0; id < markerIndex.size(); id++) {
+            final var track = markerIndex.getTrack(id);
+            trackStarts[track] = Math.min(trackStarts[track], markerIndex.getTimeline(id).getFirstTime());
+            trackEnds[track] = Math.max(trackEnds[track], markerIndex.getTimeline(id).getLastTime());
+        }
 
-                continue outer; // NOPMD -- Continue the outer loop, not the inner one
+        parkFrames = new int[trackCount];
+        for (var track = 0; track < trackCount; track++) {
+            var frame = trackEnds[track] == Long.MIN_VALUE ? frames + 1 : frameTimeline.firstFrameAtOrAfter(trackEnds[track] + 1, 1);
+            while (frame <= frames && frameTimeline.isIdle(frame)) {
+                frame = findNextActiveFrame(layout.spanIndex(), frame, frames);
             }
+            parkFrames[track] = frame;
+        }
+        tracksByParkFrame = IntStream.range(0, trackCount).boxed()
+                .sorted(Comparator.comparingInt(track -> parkFrames[track]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        final var firstFrames = new long[trackCount];
+        final var lastFrames = new long[trackCount];
+        for (var track = 0; track < trackCount; track++) {
+            firstFrames[track] = trackStarts[track] == Long.MAX_VALUE ? frames + 1
+                    : frameTimeline.firstFrameAtOrAfter(trackStarts[track], 0);
+            lastFrames[track] = parkFrames[track] - 1L;
         }
-        return point;
+        movingMarkers = new IntervalTree(firstFrames, lastFrames);
+    }
+
+    /**
+     * @return <code>true</code> if the markers of the tracks are drawn
+     */
+    private boolean hasMarkers() {
+        return cfg.getMarkerSize() != null && cfg.getMarkerSize() != 0.0;
+    }
+
+    /**
+     * @return the position of the marker in the frame, which is the one of the last track if there are several tracks
+     */
+    @Nullable
+    private Point2D getMarker(final int frame) {
+        return hasMarkers() ? frameTimeline.getMarker(frame) : null;
     }
 
     private void drawSimpleCircleOnGraphics2D(@NonNull final Point2D point,
-                                              @NonNull final Graphics2D g2) {
+                                              @NonNull final Graphics2D g2,
+                                              @NonNull final DirtyRegion dirtyRegion) {
 
         final double markerSize = cfg.getMarkerSize();
 
@@ -763,149 +1385,355 @@ public final class Renderer {
         g2.fill(marker);
         g2.setColor(Color.black);
         g2.draw(marker);
+        dirtyRegion.add(marker.getBounds2D(), 1);
+    }
+
+    private void drawMarkerSprite(@NonNull final Point2D point,
+                                  @NonNull final Graphics2D g2,
+                                  @NonNull final Color color,
+                                  @NonNull final DirtyRegion dirtyRegion) {
+        final double markerSize = cfg.getMarkerSize();
+        final var sprite = spriteCache.getMarkerSprite(color, markerSize, cfg.getRenderQuality());
+        final var origin = SpriteCache.getMarkerOrigin(markerSize);
+        final var x = (int) Math.round(point.getX()) - origin;
+        final var y = (int) Math.round(point.getY()) - origin;
+        g2.drawImage(sprite, x, y, null);
+        dirtyRegion.add(new Rectangle(x, y, sprite.getWidth(), sprite.getHeight()));
     }
 
     private void drawIconOnGraphics2D(@NonNull final Point2D point,
                                       @NonNull final Graphics2D g2,
                                       @NonNull final TrackIcon trackIcon,
-                                      final boolean mirrorTrackIcon)
+                                      final boolean mirrorTrackIcon,
+                                      @NonNull final DirtyRegion dirtyRegion)
             throws IOException {
-        final var trackIconImage = ImageIO.read(requireNonNull(getClass().getResource(trackIcon.getFilename())));
-        drawImageOnGraphics2D(point, g2, trackIconImage, mirrorTrackIcon);
+        drawImageOnGraphics2D(point, g2, spriteCache.getSprite(trackIcon, mirrorTrackIcon), dirtyRegion);
     }
 
     private void drawIconFileOnGraphics2D(@NonNull final Point2D point,
                                           @NonNull final Graphics2D g2,
                                           @NonNull final File trackIconFile,
-                                          final boolean mirrorTrackIcon)
+                                          final boolean mirrorTrackIcon,
+                                          @NonNull final DirtyRegion dirtyRegion)
             throws IOException {
-        final var trackIconImage = ImageIO.read(trackIconFile);
-        drawImageOnGraphics2D(point, g2, trackIconImage, mirrorTrackIcon);
+        drawImageOnGraphics2D(point, g2, spriteCache.getSprite(trackIconFile, mirrorTrackIcon), dirtyRegion);
     }
 
     private void drawImageOnGraphics2D(@NonNull final Point2D point,
                                        @NonNull final Graphics2D g2,
-                                       @NonNull final BufferedImage trackIconImage,
-                                       final boolean mirrorTrackIcon) {
-        var image = trackIconImage;
+                                       @NonNull final BufferedImage image,
+                                       @NonNull final DirtyRegion dirtyRegion) {
         final var at = new AffineTransform();
         at.translate((int) point.getX() + 8f, (int) point.getY() + 4f);
-        at.translate(-trackIconImage.getWidth() / 2d, -trackIconImage.getHeight() / 2d);
-        if (mirrorTrackIcon) {
-            final var tx = AffineTransform.getScaleInstance(-1, 1);
-            tx.translate(-trackIconImage.getWidth(null), 0);
-            final var op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-            image = op.filter(trackIconImage, null);
-        }
+        at.translate(-image.getWidth() / 2d, -image.getHeight() / 2d);
         g2.drawImage(image, at, null);
+        dirtyRegion.add(at.createTransformedShape(new Rectangle(image.getWidth(), image.getHeight())).getBounds2D(), 0);
     }
 
-    @SuppressWarnings("PMD.AssignmentInOperand") // assignment in operand is intentional
     private void paint(@NonNull final BufferedImage bi,
                        final int frame,
                        final long backTime,
-                       @Nullable final Color overrideColor,
-                       final boolean isPreDrawTrack) {
-        final var g2 = getGraphics(bi);
+                       final boolean isPreDrawTrack,
+                       @NonNull final DirtyRegion dirtyRegion) throws UserException {
+        bandRasterizer.draw(bi, dirtyRegion, (band, bandDirtyRegion) -> {
+            final var g2 = getBandGraphics(bi, band);
+            paintTracks(g2, frame, backTime, isPreDrawTrack, bandDirtyRegion);
+            if (backTime == 0 && parkFrames != null) {
+                drawParkedMarkers(g2, frame, bandDirtyRegion);
+            }
+            g2.dispose();
+        });
+    }
+
+    private void paintTracks(@NonNull final Graphics2D g2,
+                             final int frame,
+                             final long backTime,
+                             final boolean isPreDrawTrack,
+                             @NonNull final DirtyRegion dirtyRegion) {
 
         final var time = getTime(frame);
 
         final var trackConfigurationList = cfg.getTrackConfigurationList();
 
-        var i = 0;
-        for (final var timePointMapList : timePointMapListList) {
-            final var trackConfiguration = trackConfigurationList.get(i++);
+        final var line = new Line2D.Double();
+
+        // only the segments overlapping the time window of this frame are visited,
+        // which is the time since the previous frame or the whole track when pre-drawing
+        final var fromTime = backTime == 0 ? getTime(frame - 1) : Long.MIN_VALUE;
+        for (final var id : segmentIndex.query(fromTime, time)) {
+            final var track = segmentIndex.getTrack(id);
+            final var trackConfiguration = trackConfigurationList.get(track);
+            final var timeline = segmentIndex.getTimeline(id);
+            final var polyline = segmentIndex.getPolyline(id);
+            final var stroke = isPreDrawTrack ? preDrawLineStrokes[track] : lineStrokes[track];
+            final var lineWidth = stroke.getLineWidth();
+            g2.setStroke(stroke);
+
+            final var toIndex = timeline.floorIndex(time);
 
-            for (final var timePointMap : timePointMapList) {
-                final var lineWidth = isPreDrawTrack ? trackConfiguration.getPreDrawLineWidth() : trackConfiguration.getLineWidth();
-                g2.setStroke(new BasicStroke(lineWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            if (toIndex < 0) {
+                continue;
+            }
 
-                final var toTime = timePointMap.floorKey(time);
+            final Rectangle2D drawnBounds;
 
-                if (toTime == null) {
+            if (backTime == 0) {
+                var fromIndex = timeline.floorIndex(fromTime);
+                if (fromIndex < 0) {
+                    // try ceiling because we may be at beginning
+                    fromIndex = timeline.ceilingIndex(fromTime);
+                }
+                if (fromIndex < 0) {
                     continue;
                 }
 
-                Point2D prevPoint = null;
+                g2.setPaint(trackConfiguration.getColor());
+                drawnBounds = drawPolyline(g2, polyline, fromIndex, toIndex, line);
+            } else {
+                if (!cfg.isTailColorFadeout() && timeline.getTime(toIndex) == maxTime) {
+                    continue;
+                }
+                final var fromIndex = timeline.ceilingIndex(timeline.getTime(toIndex) - backTime);
+                g2.setColor(trackConfiguration.getPreDrawTrackColor());
+                drawnBounds = drawPolyline(g2, polyline, fromIndex, toIndex, line);
+            }
 
-                if (backTime == 0) {
-                    final var prevTime = getTime(frame - 1);
-                    var fromTime = timePointMap.floorKey(prevTime);
-                    if (fromTime == null) {
-                        // try ceiling because we may be at beginning
-                        fromTime = timePointMap.ceilingKey(prevTime);
-                    }
-                    if (fromTime == null) {
-                        continue;
-                    }
+            if (drawnBounds != null) {
+                dirtyRegion.add(drawnBounds, lineWidth / 2.0);
+            }
+        }
+    }
 
-                    g2.setPaint(trackConfiguration.getColor());
-                    for (final var entry : timePointMap.subMap(fromTime, true, toTime, true).entrySet()) {
-                        if (prevPoint != null) {
-                            g2.draw(new Line2D.Double(prevPoint, entry.getValue()));
-                        }
-                        prevPoint = entry.getValue();
-                    }
-                } else {
-                    if (!cfg.isTailColorFadeout() && toTime == maxTime) {
-                        continue;
-                    }
-                    for (final var entry : timePointMap.subMap(toTime - backTime, true, toTime, true).entrySet()) {
-                        if (prevPoint != null) {
-                            var drawSegment = false;
-                            if (isPreDrawTrack) {
-                                g2.setColor(trackConfiguration.getPreDrawTrackColor());
-                                drawSegment = true;
-                            } else {
-                                final var ratio = (backTime - time + entry.getKey()) * 1f / backTime;
-                                if (overrideColor != null && ratio > 0) {
-                                    g2.setPaint(blendTailColor(trackConfiguration.getColor(), overrideColor, ratio));
-                                    drawSegment = true;
-                                }
-                            }
-
-                            if (drawSegment) {
-                                g2.draw(new Line2D.Double(prevPoint, entry.getValue()));
-                            }
-                        }
-                        prevPoint = entry.getValue();
-                    }
+    /**
+     * Draws the simplified line between two points of the timeline. Both ends are located
+     * on the simplified line, so consecutive frames continue the line without gaps.
+     */
+    private static Rectangle2D drawPolyline(@NonNull final Graphics2D g2,
+                                            @NonNull final TrackPolyline polyline,
+                                            final int fromIndex,
+                                            final int toIndex,
+                                            @NonNull final Line2D line) {
+        if (fromIndex >= toIndex) {
+            return null;
+        }
+        final var start = new Point2D.Float();
+        final var end = new Point2D.Float();
+        polyline.locate(fromIndex, start);
+
+        Rectangle2D drawnBounds = null;
+        final var lastPoint = polyline.floorPoint(toIndex);
+        for (var point = polyline.floorPoint(fromIndex) + 1; point <= lastPoint; point++) {
+            end.setLocation(polyline.getX(point), polyline.getY(point));
+            line.setLine(start, end);
+            g2.draw(line);
+            drawnBounds = addToBounds(drawnBounds, line);
+            start.setLocation(end);
+        }
+        if (!polyline.isKept(toIndex)) {
+            polyline.locate(toIndex, end);
+            line.setLine(start, end);
+            g2.draw(line);
+            drawnBounds = addToBounds(drawnBounds, line);
+        }
+        return drawnBounds;
+    }
+
+    private static Rectangle2D addToBounds(@Nullable final Rectangle2D bounds,
+                                           @NonNull final Line2D line) {
+        final var result = bounds != null ? bounds : new Rectangle2D.Double(line.getX1(), line.getY1(), 0, 0);
+        result.add(line.getX1(), line.getY1());
+        result.add(line.getX2(), line.getY2());
+        return result;
+    }
+
+    /**
+     * Drops the lines of the tracks which lie outside of the map given by the configured latitudes and longitudes,
+     * keeping a margin for the width of the lines. The segments are split where lines are dropped, so the parts
+     * outside of the map are neither drawn nor visited while rendering the frames.
+     *
+     * @return the parts of the segments of all tracks which may be visible on the map
+     */
+    private List<List<TrackTimeline>> dropLinesOutsideMap(final int realWidth, final int realHeight) {
+        final List<List<TrackTimeline>> visibleTimelineListList = new ArrayList<>();
+        var points = 0L;
+        var keptPoints = 0L;
+        for (var track = 0; track < timelineListList.size(); track++) {
+            final var lineWidth = cfg.getTrackConfigurationList().get(track).getLineWidth();
+            final var margin = lineWidth / 2 + DirtyRegion.ANTIALIASING_MARGIN;
+            final List<TrackTimeline> parts = new ArrayList<>();
+            // the segments are in reverse order because of last known location drawing, so are their parts
+            for (final var timeline : timelineListList.get(track)) {
+                points += timeline.size();
+                for (final var part : timeline.splitToArea(-margin, -margin, realWidth + margin, realHeight + margin).reversed()) {
+                    keptPoints += part.size();
+                    parts.add(part);
                 }
             }
+            visibleTimelineListList.add(parts);
         }
+        LOGGER.info("Dropped {} of {} track points outside of the map", points - keptPoints, points);
+        return visibleTimelineListList;
+    }
+
+    private void logSimplification() {
+        var points = 0L;
+        var drawnPoints = 0L;
+        for (var id = 0; id < segmentIndex.size(); id++) {
+            points += segmentIndex.getTimeline(id).size();
+            drawnPoints += segmentIndex.getPolyline(id).size();
+        }
+        LOGGER.info("Simplified the tracks from {} to {} points", points, drawnPoints);
+    }
+
+    private TailRenderer createTailRenderer() {
+        final var tailColor = cfg.getTailColor();
+        return tailColor == null || cfg.getTailDuration() <= 0 ? null
+                : new TailRenderer(segmentIndex, cfg.getTrackConfigurationList(), tailColor, cfg.isTailColorFadeout(), maxTime);
+    }
+
+    /**
+     * @return the graphics of the image with the rendering hints of the render quality, clipped to the band
+     */
+    private Graphics2D getBandGraphics(@NonNull final BufferedImage bi, @NonNull final Rectangle band) {
+        final var g2 = getGraphics(bi, cfg.getRenderQuality());
+        g2.clip(band);
+        return g2;
     }
 
     private long getTime(final int frame) {
-        return RenderUtil.getTime(frame, minTime, cfg.getFps(), speedup);
+        return frameTimeline.getTime(frame);
     }
 
     private void printText(@NonNull final Graphics2D g2,
                            @Nullable final String text,
                            final float x,
                            final float y,
-                           @NonNull final Font font) {
+                           @NonNull final Font font,
+                           @NonNull final DirtyRegion dirtyRegion) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        // the final video gets the text at its exact position, only the outline of the text is reused,
+        // fleet mode labels are on whole pixels anyway
+        if (cfg.getRenderQuality() == RenderQuality.FINAL && !cfg.isFleetMode()) {
+            drawText(g2, text, x, y, font, dirtyRegion);
+            return;
+        }
+
+        // the sprite is placed on whole pixels, the remaining fraction is rendered into the sprite in steps,
+        // a fraction which rounds up to a whole pixel moves the sprite instead
+        var left = (int) Math.floor(x);
+        var top = (int) Math.floor(y);
+        var phaseX = Math.round((x - left) * SUBPIXEL_STEPS);
+        var phaseY = Math.round((y - top) * SUBPIXEL_STEPS);
+        if (phaseX == SUBPIXEL_STEPS) {
+            left++;
+            phaseX = 0;
+        }
+        if (phaseY == SUBPIXEL_STEPS) {
+            top++;
+            phaseY = 0;
+        }
+        final var phase = new SubpixelPhase(phaseX, phaseY);
+        final var sprite = textSpriteCache.getSprite(text, font, phase, () -> renderTextSprite(text, font, phase, cfg.getRenderQuality()));
+
+        final var spriteX = left - sprite.originX();
+        final var spriteY = top - sprite.originY();
+        g2.drawImage(sprite.image(), spriteX, spriteY, null);
+        dirtyRegion.add(new Rectangle(spriteX, spriteY, sprite.image().getWidth(), sprite.image().getHeight()));
+    }
+
+    private void drawText(@NonNull final Graphics2D g2,
+                          @NonNull final String text,
+                          final float x,
+                          final float y,
+                          @NonNull final Font font,
+                          @NonNull final DirtyRegion dirtyRegion) {
         final var frc = g2.getFontRenderContext();
-        g2.setStroke(new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2.setStroke(new BasicStroke(TEXT_OUTLINE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
         final var height = g2.getFontMetrics(font).getHeight();
-        final var lines = text == null ? new String[0] : text.split("\n");
+        final var lines = text.split("\n");
+
+        var yy = y - (lines.length - 1) * height;
+        for (final var line : lines) {
+            if (!line.isEmpty()) {
+                final var sha = textOutlineCache.getOutline(line, font, frc, x, yy);
+                g2.setColor(Color.white);
+                g2.fill(sha);
+                g2.draw(sha);
+                dirtyRegion.add(sha.getBounds2D(), TEXT_OUTLINE_WIDTH / 2.0);
+
+                g2.setFont(font);
+                g2.setColor(Color.black);
+                g2.drawString(line, x, yy);
+            }
+            yy += height;
+        }
+    }
 
+    private static TextSprite renderTextSprite(@NonNull final String text,
+                                               @NonNull final Font font,
+                                               @NonNull final SubpixelPhase phase,
+                                               @NonNull final RenderQuality quality) {
+        final var x = (float) phase.x() / SUBPIXEL_STEPS;
+        final var y = (float) phase.y() / SUBPIXEL_STEPS;
+        final var lines = text.split("\n");
+
+        final var measureGraphics = getGraphics(new BufferedImage(1, 1, TextSpriteCache.SPRITE_TYPE), quality);
+        final var frc = measureGraphics.getFontRenderContext();
+        final var height = measureGraphics.getFontMetrics(font).getHeight();
+        measureGraphics.dispose();
+
+        final var outlines = new ArrayList<Shape>();
+        Rectangle2D bounds = null;
         var yy = y - (lines.length - 1) * height;
         for (final var line : lines) {
             if (!line.isEmpty()) {
                 final var tl = new TextLayout(line, font, frc);
                 final var sha = tl.getOutline(AffineTransform.getTranslateInstance(x, yy));
+                outlines.add(sha);
+                bounds = bounds == null ? sha.getBounds2D() : bounds.createUnion(sha.getBounds2D());
+            }
+            yy += height;
+        }
+        if (bounds == null) {
+            return new TextSprite(new BufferedImage(1, 1, TextSpriteCache.SPRITE_TYPE), 0, 0);
+        }
+
+        final var padding = TEXT_OUTLINE_WIDTH / 2.0 + DirtyRegion.ANTIALIASING_MARGIN;
+        final var originX = (int) Math.ceil(padding - bounds.getMinX());
+        final var originY = (int) Math.ceil(padding - bounds.getMinY());
+        final var image = new BufferedImage((int) Math.ceil(bounds.getMaxX() + padding) + originX,
+                (int) Math.ceil(bounds.getMaxY() + padding) + originY, TextSpriteCache.SPRITE_TYPE);
+
+        final var g2 = getGraphics(image, quality);
+        g2.translate(originX, originY);
+        g2.setStroke(new BasicStroke(TEXT_OUTLINE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2.setFont(font);
+        var outline = 0;
+        yy = y - (lines.length - 1) * height;
+        for (final var line : lines) {
+            if (!line.isEmpty()) {
+                final var sha = outlines.get(outline++);
                 g2.setColor(Color.white);
                 g2.fill(sha);
                 g2.draw(sha);
 
-                g2.setFont(font);
                 g2.setColor(Color.black);
                 g2.drawString(line, x, yy);
             }
             yy += height;
         }
+        g2.dispose();
+        return new TextSprite(image, originX, originY);
     }
 
+    /**
+     * The fraction of a pixel by which a text sprite is shifted, in steps of {@link #SUBPIXEL_STEPS}.
+     */
+    private record SubpixelPhase(int x, int y) { }
+
     @Data
     @EqualsAndHashCode(callSuper = true)
     private static final class NamedPoint extends Point2D.Double {
@@ -914,6 +1742,43 @@ public final class Renderer {
         private String name;
     }
 
+    @FunctionalInterface
+    private interface ProjectedPointConsumer<T extends MyPoint> {
+        void accept(@NonNull T gpxPoint, long time, double x, double y);
+    }
+
+    private record RenderedFrame(int frame, @NonNull BufferedImage image, @Nullable Point2D marker,
+                                 @Nullable WaypointLayer.Snapshot waypoints, @NonNull DirtyRegion dirtyRegion) { }
+
+    /**
+     * A frame drawn by a render thread, together with the pooled image it is drawn on.
+     */
+    private record PendingFrame(@NonNull BufferedImage image, @NonNull Future<RenderedFrame> future) { }
+
+    /**
+     * The size of the map and the viewport and what was loaded with the tracks.
+     */
+    private record Layout(@Nullable Integer zoom, int realWidth, int realHeight, int viewportWidth, int viewportHeight,
+                          @NonNull TreeMap<Long, Point2D> waypoints, @NonNull SpanIndex spanIndex) { }
+
+    /**
+     * Everything set up once before the frames are rendered. The canvas contains the background and the pre-drawn tracks.
+     */
+    private record Scene(@NonNull Layout layout, @NonNull BufferedImage canvas, @NonNull List<RendererPlugin> plugins, int frames,
+                         @Nullable WaypointLayer waypointLayer) { }
+
+    private static final class RenderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            final var thread = new Thread(runnable, "Renderer-%d".formatted(threadCounter.incrementAndGet())); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     private static class RemainingTimeCalculator {
 
         private final NumberFormat numberFormat;
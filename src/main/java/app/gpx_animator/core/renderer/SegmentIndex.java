@@ -0,0 +1,204 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An interval tree over the time ranges of all track segments, so a frame
+ * only visits the segments which overlap its time window, no matter how
+ * many segments ended long ago or have not started yet.
+ *
+ * <p>Every non-empty segment gets an id. The ids follow the order of the
+ * tracks and of the segments inside each track, which is the order the
+ * segments are drawn in.</p>
+ *
+ * <p>Next to the timeline, every segment has a {@link TrackPolyline} which is
+ * simplified for the scale of the map and used to draw the segment.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class SegmentIndex {
+
+    private final TrackTimeline[] timelines;
+    private final TrackPolyline[] polylines;
+    private final int[] tracks;
+    private final int[] firstIdOfTrack;
+
+    private final IntervalTree tree;
+
+    // per track: the earliest start time of the segments up to each segment, used to find the marker segment
+    private final long[][] earliestStarts;
+
+    // the start times of the tracks with segments in ascending order, and the highest track started up to each of them
+    private final long[] trackStarts;
+    private final int[] lastStartedTracks;
+
+    /**
+     * @param timelineListList the segments of all tracks
+     */
+    SegmentIndex(@NonNull final List<List<TrackTimeline>> timelineListList) {
+        this(timelineListList, 0);
+    }
+
+    /**
+     * @param timelineListList the segments of all tracks, translated to map coordinates
+     * @param tolerance        the tolerance in pixels to simplify the lines of the segments with
+     */
+    SegmentIndex(@NonNull final List<List<TrackTimeline>> timelineListList, final double tolerance) {
+        final var count = timelineListList.stream()
+                .mapToInt(timelineList -> (int) timelineList.stream().filter(timeline -> !timeline.isEmpty()).count())
+                .sum();
+        timelines = new TrackTimeline[count];
+        polylines = new TrackPolyline[count];
+        tracks = new int[count];
+        firstIdOfTrack = new int[timelineListList.size() + 1];
+        earliestStarts = new long[timelineListList.size()][];
+
+        var id = 0;
+        for (var track = 0; track < timelineListList.size(); track++) {
+            firstIdOfTrack[track] = id;
+            final var trackStart = id;
+            for (final var timeline : timelineListList.get(track)) {
+                if (!timeline.isEmpty()) {
+                    timelines[id] = timeline;
+                    polylines[id] = TrackPolyline.simplify(timeline, tolerance);
+                    tracks[id] = track;
+                    id++;
+                }
+            }
+            earliestStarts[track] = new long[id - trackStart];
+            var earliest = Long.MAX_VALUE;
+            for (var i = trackStart; i < id; i++) {
+                earliest = Math.min(earliest, timelines[i].getFirstTime());
+                earliestStarts[track][i - trackStart] = earliest;
+            }
+        }
+        firstIdOfTrack[timelineListList.size()] = id;
+
+        final var startedTracks = IntStream.range(0, timelineListList.size()).boxed()
+                .filter(track -> earliestStarts[track].length > 0)
+                .sorted(Comparator.comparingLong(this::getTrackStart))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        trackStarts = new long[startedTracks.length];
+        lastStartedTracks = new int[startedTracks.length];
+        for (var i = 0; i < startedTracks.length; i++) {
+            trackStarts[i] = getTrackStart(startedTracks[i]);
+            lastStartedTracks[i] = Math.max(startedTracks[i], i > 0 ? lastStartedTracks[i - 1] : -1);
+        }
+
+        final var starts = new long[count];
+        final var ends = new long[count];
+        for (var i = 0; i < count; i++) {
+            starts[i] = timelines[i].getFirstTime();
+            ends[i] = timelines[i].getLastTime();
+        }
+        tree = new IntervalTree(starts, ends);
+    }
+
+    /**
+     * Finds all segments which have at least one point in the time window or
+     * which start before and end after it.
+     *
+     * @param fromTime the start of the time window, inclusive
+     * @param toTime   the end of the time window, inclusive
+     * @return the ids of the segments in drawing order
+     */
+    int[] query(final long fromTime, final long toTime) {
+        return tree.query(fromTime, toTime);
+    }
+
+    /**
+     * Finds the segment which shows the marker of a track: the first
+     * segment of the track which started at or before the given time.
+     *
+     * @param track the index of the track
+     * @param time  the time of the frame
+     * @return the id of the segment or <code>-1</code> if no segment of the track started yet
+     */
+    int markerSegment(final int track, final long time) {
+        final var trackStarts = earliestStarts[track];
+        if (trackStarts.length == 0 || trackStarts[trackStarts.length - 1] > time) {
+            return -1;
+        }
+        // the earliest start times never grow, so the first one at or before the time can be found with a binary search
+        var low = 0;
+        var high = trackStarts.length - 1;
+        while (low < high) {
+            final var mid = (low + high) >>> 1;
+            if (trackStarts[mid] <= time) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return firstIdOfTrack[track] + low;
+    }
+
+    /**
+     * @param time the time of the frame
+     * @return the highest index of the tracks which started at or before the given time or <code>-1</code> if none did
+     */
+    int lastStartedTrack(final long time) {
+        // several tracks can start at the same time, so search for the first one which starts later
+        var low = 0;
+        var high = trackStarts.length;
+        while (low < high) {
+            final var mid = (low + high) >>> 1;
+            if (trackStarts[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low > 0 ? lastStartedTracks[low - 1] : -1;
+    }
+
+    private long getTrackStart(final int track) {
+        final var earliest = earliestStarts[track];
+        return earliest[earliest.length - 1];
+    }
+
+    /**
+     * @return the number of indexed segments, ids are from zero up to this number
+     */
+    int size() {
+        return timelines.length;
+    }
+
+    /**
+     * @return the number of tracks
+     */
+    int getTrackCount() {
+        return earliestStarts.length;
+    }
+
+    int getTrack(final int id) {
+        return tracks[id];
+    }
+
+    TrackTimeline getTimeline(final int id) {
+        return timelines[id];
+    }
+
+    TrackPolyline getPolyline(final int id) {
+        return polylines[id];
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The time spans in which at least one track is active, sorted and merged,
+ * so that the next active time can be found with a binary search.
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class SpanIndex {
+
+    /**
+     * Returned by {@link #nextActiveTime(long)} if no span follows.
+     */
+    static final long NONE = Long.MAX_VALUE;
+
+    /**
+     * Returned by {@link #previousActiveTime(long)} if no span precedes.
+     */
+    static final long NONE_BEFORE = Long.MIN_VALUE;
+
+    private final long[] starts;
+    private final long[] ends;
+
+    /**
+     * @param spanList the spans as arrays of start and end time, both inclusive, in any order and possibly overlapping
+     */
+    SpanIndex(@NonNull final List<Long[]> spanList) {
+        final var sorted = spanList.stream()
+                .sorted(Comparator.comparingLong(span -> span[0]))
+                .toList();
+        final var mergedStarts = new long[sorted.size()];
+        final var mergedEnds = new long[sorted.size()];
+        var count = 0;
+        for (final var span : sorted) {
+            if (count > 0 && span[0] <= mergedEnds[count - 1]) {
+                mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], span[1]);
+            } else {
+                mergedStarts[count] = span[0];
+                mergedEnds[count] = span[1];
+                count++;
+            }
+        }
+        starts = Arrays.copyOf(mergedStarts, count);
+        ends = Arrays.copyOf(mergedEnds, count);
+    }
+
+    /**
+     * @param time the time to check
+     * @return <code>true</code> if the time is inside of a span
+     */
+    boolean isActive(final long time) {
+        final var index = floorSpan(time);
+        return index >= 0 && time <= ends[index];
+    }
+
+    /**
+     * @param time the time to start searching at
+     * @return the time itself if it is active, otherwise the start of the next span or {@link #NONE}
+     */
+    long nextActiveTime(final long time) {
+        if (isActive(time)) {
+            return time;
+        }
+        final var next = floorSpan(time) + 1;
+        return next < starts.length ? starts[next] : NONE;
+    }
+
+    /**
+     * @param time the time to start searching at
+     * @return the time itself if it is active, otherwise the end of the previous span or {@link #NONE_BEFORE}
+     */
+    long previousActiveTime(final long time) {
+        if (isActive(time)) {
+            return time;
+        }
+        final var previous = floorSpan(time);
+        return previous >= 0 ? ends[previous] : NONE_BEFORE;
+    }
+
+    private int floorSpan(final long time) {
+        final var index = Arrays.binarySearch(starts, time);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.configuration.TrackConfiguration;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws the fading tail behind the markers.
+ *
+ * <p>The fade from the tail color to the track color is quantized into a
+ * precomputed color ramp which is fine enough that neighbouring steps
+ * differ by at most one color level. Consecutive segments in the same step
+ * are drawn as a single path along the simplified line of the segment, which
+ * ends exactly at the first and last point inside the tail.</p>
+ *
+ * <p>Only the chunks of the simplified line which touch the clip of the
+ * graphics, like the viewport of the frame, are drawn. The path is
+ * interrupted where chunks are skipped.</p>
+ *
+ * <p>For every track segment, the range of points inside the tail is kept
+ * as a sliding window which is moved forward from frame to frame instead of
+ * being searched again. A tail renderer is not thread safe, every render
+ * thread needs its own instance.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class TailRenderer {
+
+    static final int COLOR_STEPS = 256;
+
+    private final SegmentIndex segmentIndex;
+    private final Color[][] colorRamps;
+    private final BasicStroke[] strokes;
+    private final float[] lineWidths;
+    private final boolean tailColorFadeout;
+    private final long maxTime;
+
+    private final int[] windowStarts;
+    private final int[] windowEnds;
+    private final Path2D.Float path = new Path2D.Float();
+    private final Point2D.Float vertex = new Point2D.Float();
+
+    // the state of the path while a segment is drawn
+    private int currentStep;
+    private boolean pathInterrupted;
+    private float previousX;
+    private float previousY;
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    /**
+     * @param segmentIndex        the track segments of all tracks, translated to map coordinates
+     * @param trackConfigurations the configuration of all tracks
+     * @param tailColor           the color of the newest part of the tail
+     * @param tailColorFadeout    <code>true</code> if the tail is still shown after the end of the track
+     * @param maxTime             the time of the last point of all tracks
+     */
+    TailRenderer(@NonNull final SegmentIndex segmentIndex,
+                 @NonNull final List<TrackConfiguration> trackConfigurations,
+                 @NonNull final Color tailColor,
+                 final boolean tailColorFadeout,
+                 final long maxTime) {
+        this.segmentIndex = segmentIndex;
+        this.tailColorFadeout = tailColorFadeout;
+        this.maxTime = maxTime;
+
+        final var tracks = segmentIndex.getTrackCount();
+        colorRamps = new Color[tracks][];
+        strokes = new BasicStroke[tracks];
+        lineWidths = new float[tracks];
+        for (var track = 0; track < tracks; track++) {
+            final var trackConfiguration = trackConfigurations.get(track);
+            colorRamps[track] = createColorRamp(trackConfiguration.getColor(), tailColor);
+            lineWidths[track] = trackConfiguration.getLineWidth();
+            strokes[track] = new BasicStroke(lineWidths[track], BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+        }
+        windowStarts = new int[segmentIndex.size()];
+        windowEnds = new int[segmentIndex.size()];
+        Arrays.fill(windowEnds, -1);
+    }
+
+    private static Color[] createColorRamp(@NonNull final Color trackColor, @NonNull final Color tailColor) {
+        final var ramp = new Color[COLOR_STEPS];
+        for (var step = 0; step < COLOR_STEPS; step++) {
+            ramp[step] = blendTailColor(trackColor, tailColor, (step + 1f) / COLOR_STEPS);
+        }
+        return ramp;
+    }
+
+    /**
+     * @param ratio the position in the tail, from the oldest (0) to the newest (1) part
+     * @return the step of the color ramp for this position
+     */
+    static int colorStep(final float ratio) {
+        return Math.clamp((int) Math.ceil(ratio * COLOR_STEPS) - 1, 0, COLOR_STEPS - 1);
+    }
+
+    static Color blendTailColor(@NonNull final Color tailColor,
+                                @NonNull final Color trackColor,
+                                final float ratio) {
+        var r = ((double) (1 - ratio)) * tailColor.getRed() + (double) ratio * trackColor.getRed();
+        var g = ((double) (1 - ratio)) * tailColor.getGreen() + (double) ratio * trackColor.getGreen();
+        var b = ((double) (1 - ratio)) * tailColor.getBlue() + (double) ratio * trackColor.getBlue();
+        double a = Math.max(tailColor.getAlpha(), trackColor.getAlpha());
+
+        return new Color((int) r, (int) g, (int) b, (int) a);
+    }
+
+    /**
+     * Draws the tails of all tracks.
+     *
+     * @param g2          the graphics of the frame
+     * @param time        the time of the frame
+     * @param backTime    the duration of the tail
+     * @param dirtyRegion collects the areas which were drawn
+     */
+    void paint(@NonNull final Graphics2D g2,
+               final long time,
+               final long backTime,
+               @NonNull final DirtyRegion dirtyRegion) {
+        if (backTime <= 0) {
+            return;
+        }
+        // only the segments with points inside the tail are visited
+        final var clip = g2.getClipBounds();
+        for (final var id : segmentIndex.query(time - backTime, time)) {
+            final var track = segmentIndex.getTrack(id);
+            g2.setStroke(strokes[track]);
+            final var drawnBounds = paintSegment(g2, id, colorRamps[track], time, backTime,
+                    clip == null ? null : padArea(clip, lineWidths[track] / 2f + DirtyRegion.ANTIALIASING_MARGIN));
+            if (drawnBounds != null) {
+                dirtyRegion.add(drawnBounds, lineWidths[track] / 2.0);
+            }
+        }
+    }
+
+    /**
+     * Checks if the tails are empty, because no track has a point inside of its tail. Unlike
+     * {@link #paint}, the windows are not moved, so the check can be done on any thread.
+     *
+     * @param time     the time of the frame
+     * @param backTime the duration of the tail
+     * @return <code>true</code> if {@link #paint} draws nothing at this time
+     */
+    boolean isEmpty(final long time, final long backTime) {
+        if (backTime <= 0) {
+            return true;
+        }
+        for (final var id : segmentIndex.query(time - backTime, time)) {
+            final var timeline = segmentIndex.getTimeline(id);
+            final var toIndex = timeline.floorIndex(time);
+            // the newest point of the tail is too old to be drawn, see addVertex
+            if (toIndex >= 0 && timeline.getTime(toIndex) > time - backTime
+                    && (tailColorFadeout || timeline.getTime(toIndex) != maxTime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the area as minimum x, minimum y, maximum x and maximum y, grown by the margin on all sides
+     */
+    private static float[] padArea(@NonNull final Rectangle area, final float margin) {
+        return new float[] {area.x - margin, area.y - margin, area.x + area.width + margin, area.y + area.height + margin};
+    }
+
+    /**
+     * @param area the area lines are drawn in, as returned by {@link #padArea}, or <code>null</code> to draw all lines
+     */
+    private Rectangle2D paintSegment(@NonNull final Graphics2D g2,
+                                     final int id,
+                                     @NonNull final Color[] colorRamp,
+                                     final long time,
+                                     final long backTime,
+                                     @Nullable final float[] area) {
+        final var timeline = segmentIndex.getTimeline(id);
+        final var toIndex = slideWindowEnd(timeline, id, time);
+        if (toIndex < 0 || !tailColorFadeout && timeline.getTime(toIndex) == maxTime) {
+            return null;
+        }
+        final var fromIndex = slideWindowStart(timeline, id, timeline.getTime(toIndex) - backTime);
+        final var polyline = segmentIndex.getPolyline(id);
+
+        currentStep = -1;
+        pathInterrupted = false;
+        minX = Float.POSITIVE_INFINITY;
+        minY = Float.POSITIVE_INFINITY;
+        maxX = Float.NEGATIVE_INFINITY;
+        maxY = Float.NEGATIVE_INFINITY;
+        path.reset();
+        if (fromIndex < toIndex) {
+            polyline.locate(fromIndex, vertex);
+            previousX = vertex.x;
+            previousY = vertex.y;
+            final var lastPoint = polyline.floorPoint(toIndex);
+            var point = polyline.floorPoint(fromIndex) + 1;
+            while (point <= lastPoint) {
+                final var chunkEnd = Math.min(polyline.chunkEnd(point), lastPoint + 1);
+                if (area == null || polyline.chunkIntersects(point, area[0], area[1], area[2], area[3])) {
+                    for (; point < chunkEnd; point++) {
+                        addVertex(g2, colorRamp, polyline.getX(point), polyline.getY(point), polyline.getTime(point), time, backTime);
+                    }
+                } else {
+                    // none of the lines to the points of this chunk are visible, continue the path at its last point
+                    point = chunkEnd;
+                    previousX = polyline.getX(point - 1);
+                    previousY = polyline.getY(point - 1);
+                    pathInterrupted = true;
+                }
+            }
+            if (!polyline.isKept(toIndex)) {
+                polyline.locate(toIndex, vertex);
+                addVertex(g2, colorRamp, vertex.x, vertex.y, timeline.getTime(toIndex), time, backTime);
+            }
+        }
+        if (currentStep < 0) {
+            return null;
+        }
+        g2.setColor(colorRamp[currentStep]);
+        g2.draw(path);
+        path.reset();
+        return new Rectangle2D.Float(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    private void addVertex(@NonNull final Graphics2D g2,
+                           @NonNull final Color[] colorRamp,
+                           final float x,
+                           final float y,
+                           final long vertexTime,
+                           final long time,
+                           final long backTime) {
+        final var ratio = (backTime - time + vertexTime) * 1f / backTime;
+        if (ratio > 0) {
+            final var step = colorStep(ratio);
+            if (step != currentStep) {
+                if (currentStep >= 0) {
+                    g2.setColor(colorRamp[currentStep]);
+                    g2.draw(path);
+                    path.reset();
+                }
+                currentStep = step;
+                path.moveTo(previousX, previousY);
+                addToBounds(previousX, previousY);
+            } else if (pathInterrupted) {
+                path.moveTo(previousX, previousY);
+                addToBounds(previousX, previousY);
+            }
+            pathInterrupted = false;
+            path.lineTo(x, y);
+            addToBounds(x, y);
+        }
+        previousX = x;
+        previousY = y;
+    }
+
+    private void addToBounds(final float x, final float y) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    /**
+     * Moves the end of the window to the last point at or before the time.
+     */
+    private int slideWindowEnd(@NonNull final TrackTimeline timeline, final int id, final long time) {
+        var end = windowEnds[id];
+        if (end >= 0 && timeline.getTime(end) > time) {
+            end = timeline.floorIndex(time); // the time went backwards
+        } else {
+            while (end + 1 < timeline.size() && timeline.getTime(end + 1) <= time) {
+                end++;
+            }
+        }
+        windowEnds[id] = end;
+        return end;
+    }
+
+    /**
+     * Moves the start of the window to the first point at or after the time.
+     */
+    private int slideWindowStart(@NonNull final TrackTimeline timeline, final int id, final long time) {
+        var start = windowStarts[id];
+        if (start > 0 && timeline.getTime(start - 1) >= time) {
+            start = timeline.ceilingIndex(time); // the time went backwards
+        } else {
+            while (timeline.getTime(start) < time) {
+                start++;
+            }
+        }
+        windowStarts[id] = start;
+        return start;
+    }
+}
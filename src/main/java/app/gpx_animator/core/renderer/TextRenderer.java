@@ -16,7 +16,11 @@
 package app.gpx_animator.core.renderer;
 
 import app.gpx_animator.core.data.Position;
+import app.gpx_animator.core.data.RenderQuality;
+import app.gpx_animator.core.renderer.cache.TextSpriteCache;
+import app.gpx_animator.core.renderer.cache.TextSpriteCache.TextSprite;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
@@ -34,21 +38,40 @@ import static app.gpx_animator.core.util.RenderUtil.getGraphics;
 
 public abstract class TextRenderer extends ImageRenderer {
 
-    private static final int IMAGE_TYPE = BufferedImage.TYPE_4BYTE_ABGR;
     private static final int ANTI_ALIAS_COMPENSATION = 10;
     private static final float STRIKE_WIDTH = 3f;
     private static final Stroke STROKE = new BasicStroke(STRIKE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
 
     private final Font font;
     private final FontMetrics fontMetrics;
+    private TextSpriteCache textSpriteCache = new TextSpriteCache();
 
     protected TextRenderer(@NonNull final Font font) {
+        this(font, RenderQuality.FINAL);
+    }
+
+    /**
+     * @param font          the font to render the text with
+     * @param renderQuality the quality to render the text with
+     */
+    protected TextRenderer(@NonNull final Font font, @NonNull final RenderQuality renderQuality) {
+        super(renderQuality);
         this.font = font;
         this.fontMetrics = getFontMetrics();
     }
 
+    /**
+     * Use the text sprite cache of the renderer for rendered text.
+     *
+     * @param textSpriteCache the text sprite cache of the renderer
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "TextSpriteCache is shared with the renderer")
+    public void setTextSpriteCache(@NonNull final TextSpriteCache textSpriteCache) {
+        this.textSpriteCache = textSpriteCache;
+    }
+
     private FontMetrics getFontMetrics() {
-        final var image = new BufferedImage(100, 100, IMAGE_TYPE);
+        final var image = new BufferedImage(100, 100, TextSpriteCache.SPRITE_TYPE);
         final var graphics = (Graphics2D) image.getGraphics();
         graphics.setStroke(STROKE);
         return graphics.getFontMetrics(font);
@@ -78,13 +101,21 @@ public abstract class TextRenderer extends ImageRenderer {
      * @param targetImage the target image representing the video frame
      */
     public void renderText(@NonNull final String text, @NonNull final Position position, final int margin, @NonNull final BufferedImage targetImage) {
+        if (Position.HIDDEN.equals(position)) {
+            return;
+        }
         final var trimmedText = text.trim();
+        final var alignment = forPosition(position);
+        final var sprite = textSpriteCache.getSprite(trimmedText, font, alignment, () -> renderTextSprite(trimmedText, alignment));
+        renderImage(sprite.image(), position, margin, targetImage);
+    }
+
+    private TextSprite renderTextSprite(@NonNull final String trimmedText, @NonNull final TextAlignment alignment) {
         final var width = calculateTextWidth(trimmedText) + ANTI_ALIAS_COMPENSATION;
         final var height = calculateTextHeight(trimmedText);
-        final var alignment = forPosition(position);
 
-        final var image = new BufferedImage(width, height, IMAGE_TYPE);
-        final var graphics = getGraphics(image);
+        final var image = new BufferedImage(width, height, TextSpriteCache.SPRITE_TYPE);
+        final var graphics = getGraphics(image, getRenderQuality());
         graphics.setStroke(STROKE);
         graphics.setFont(font);
 
@@ -112,7 +143,8 @@ public abstract class TextRenderer extends ImageRenderer {
             graphics.drawString(trimmedLine, xPosition, yPosition);
         }
 
-        renderImage(image, position, margin, targetImage);
+        graphics.dispose();
+        return new TextSprite(image, 0, 0);
     }
 
     private int calculateHorizontalPosition(@NonNull final TextAlignment alignment, @NonNull final String line, final int width, final int lineNum) {
@@ -0,0 +1,271 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The line of a track segment simplified for drawing at the scale of the map.
+ *
+ * <p>Points which would move the drawn line by less than the tolerance are
+ * dropped. First, every run of points which stays within half the tolerance
+ * of its first point, like the GPS jitter while standing still, is collapsed
+ * into this point. Then the Douglas-Peucker algorithm drops the points which
+ * lie within half the tolerance of the line between the points kept around
+ * them.</p>
+ *
+ * <p>The kept points are referenced by their index in the timeline, so they
+ * keep their time. A dropped point can still be located on the simplified
+ * line, which lets the drawn line end exactly where the marker is. Only the
+ * drawing of the track uses the simplified line, the marker and the plugins
+ * still get all points of the timeline.</p>
+ *
+ * <p>The kept points are grouped into chunks of consecutive points, each
+ * with the bounding box of the lines leading to its points. Whoever draws
+ * a part of the line can skip every chunk whose box lies outside of the
+ * area being drawn, like the viewport, without looking at its points.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class TrackPolyline {
+
+    static final int CHUNK_SIZE = 32;
+
+    private final TrackTimeline timeline;
+    private final int[] indices;
+
+    // the bounding box of every chunk as minimum x, minimum y, maximum x and maximum y, including the point before
+    // the chunk, so it contains the lines to all its points; created when first needed, creating it twice does no harm
+    private volatile float[] chunkBounds;
+
+    private TrackPolyline(@NonNull final TrackTimeline timeline, @NonNull final int[] indices) {
+        this.timeline = timeline;
+        this.indices = indices;
+    }
+
+    private float[] createChunkBounds() {
+        final var chunks = (indices.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final var bounds = new float[chunks * 4];
+        for (var chunk = 0; chunk < chunks; chunk++) {
+            final var from = Math.max(chunk * CHUNK_SIZE - 1, 0);
+            final var to = Math.min((chunk + 1) * CHUNK_SIZE, indices.length);
+            var minX = Float.POSITIVE_INFINITY;
+            var minY = Float.POSITIVE_INFINITY;
+            var maxX = Float.NEGATIVE_INFINITY;
+            var maxY = Float.NEGATIVE_INFINITY;
+            for (var point = from; point < to; point++) {
+                minX = Math.min(minX, getX(point));
+                minY = Math.min(minY, getY(point));
+                maxX = Math.max(maxX, getX(point));
+                maxY = Math.max(maxY, getY(point));
+            }
+            bounds[chunk * 4] = minX;
+            bounds[chunk * 4 + 1] = minY;
+            bounds[chunk * 4 + 2] = maxX;
+            bounds[chunk * 4 + 3] = maxY;
+        }
+        return bounds;
+    }
+
+    /**
+     * @param timeline  the points of the segment in map coordinates
+     * @param tolerance the maximum distance in pixels between a dropped point and the simplified line,
+     *                  zero keeps all points
+     * @return the simplified line of the segment
+     */
+    static TrackPolyline simplify(@NonNull final TrackTimeline timeline, final double tolerance) {
+        final var size = timeline.size();
+        if (tolerance <= 0 || size <= 2) {
+            return new TrackPolyline(timeline, IntStream.range(0, size).toArray());
+        }
+        final var candidates = collapseStationaryRuns(timeline, tolerance / 2);
+        return new TrackPolyline(timeline, douglasPeucker(timeline, candidates, tolerance / 2));
+    }
+
+    private static int[] collapseStationaryRuns(@NonNull final TrackTimeline timeline, final double tolerance) {
+        final var size = timeline.size();
+        final var squaredTolerance = tolerance * tolerance;
+        final var result = new int[size];
+        var count = 0;
+        result[count++] = 0;
+        for (var index = 1; index < size - 1; index++) {
+            final var anchor = result[count - 1];
+            final var dx = timeline.getX(index) - timeline.getX(anchor);
+            final var dy = timeline.getY(index) - timeline.getY(anchor);
+            if (dx * dx + dy * dy > squaredTolerance) {
+                result[count++] = index;
+            }
+        }
+        result[count++] = size - 1;
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] douglasPeucker(@NonNull final TrackTimeline timeline, @NonNull final int[] candidates, final double tolerance) {
+        final var squaredTolerance = tolerance * tolerance;
+        final var keep = new boolean[candidates.length];
+        keep[0] = true;
+        keep[candidates.length - 1] = true;
+
+        // the ranges still to check, as pairs of first and last candidate, instead of a recursion which could get too deep
+        final var stack = new int[candidates.length * 2];
+        var top = 0;
+        stack[top++] = 0;
+        stack[top++] = candidates.length - 1;
+        while (top > 0) {
+            final var last = stack[--top];
+            final var first = stack[--top];
+            final var from = candidates[first];
+            final var to = candidates[last];
+
+            var farthest = -1;
+            var farthestDistance = squaredTolerance;
+            for (var candidate = first + 1; candidate < last; candidate++) {
+                final var distance = squaredDistance(timeline, candidates[candidate], from, to);
+                if (distance > farthestDistance) {
+                    farthest = candidate;
+                    farthestDistance = distance;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        return IntStream.range(0, candidates.length)
+                .filter(candidate -> keep[candidate])
+                .map(candidate -> candidates[candidate])
+                .toArray();
+    }
+
+    private static double squaredDistance(@NonNull final TrackTimeline timeline, final int index, final int from, final int to) {
+        final double x = timeline.getX(index);
+        final double y = timeline.getY(index);
+        final double fromX = timeline.getX(from);
+        final double fromY = timeline.getY(from);
+        final var t = projection(x, y, fromX, fromY, timeline.getX(to), timeline.getY(to));
+        final var dx = fromX + t * (timeline.getX(to) - fromX) - x;
+        final var dy = fromY + t * (timeline.getY(to) - fromY) - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return the position of the point projected onto the line between from and to, from zero to one
+     */
+    private static double projection(final double x, final double y,
+                                     final double fromX, final double fromY,
+                                     final double toX, final double toY) {
+        final var dx = toX - fromX;
+        final var dy = toY - fromY;
+        final var squaredLength = dx * dx + dy * dy;
+        return squaredLength == 0 ? 0 : Math.clamp(((x - fromX) * dx + (y - fromY) * dy) / squaredLength, 0.0, 1.0);
+    }
+
+    /**
+     * @return the number of kept points
+     */
+    int size() {
+        return indices.length;
+    }
+
+    /**
+     * @param point the number of the kept point
+     * @return the index of the point in the timeline
+     */
+    int getIndex(final int point) {
+        return indices[point];
+    }
+
+    long getTime(final int point) {
+        return timeline.getTime(indices[point]);
+    }
+
+    float getX(final int point) {
+        return timeline.getX(indices[point]);
+    }
+
+    float getY(final int point) {
+        return timeline.getY(indices[point]);
+    }
+
+    /**
+     * @param point the number of a kept point
+     * @return the number of the first kept point after the chunk of this point
+     */
+    int chunkEnd(final int point) {
+        return Math.min((point / CHUNK_SIZE + 1) * CHUNK_SIZE, indices.length);
+    }
+
+    /**
+     * @param point the number of a kept point
+     * @return <code>true</code> if the lines to the points of the chunk of this point may touch the area
+     */
+    boolean chunkIntersects(final int point, final float minX, final float minY, final float maxX, final float maxY) {
+        var bounds = chunkBounds;
+        if (bounds == null) {
+            bounds = createChunkBounds();
+            chunkBounds = bounds;
+        }
+        final var offset = point / CHUNK_SIZE * 4;
+        return bounds[offset] <= maxX && bounds[offset + 2] >= minX && bounds[offset + 1] <= maxY && bounds[offset + 3] >= minY;
+    }
+
+    /**
+     * @param index the index of a point in the timeline
+     * @return the number of the last kept point at or before this point
+     */
+    int floorPoint(final int index) {
+        final var point = Arrays.binarySearch(indices, index);
+        return point >= 0 ? point : -point - 2;
+    }
+
+    /**
+     * @param index the index of a point in the timeline
+     * @return <code>true</code> if the point was not dropped
+     */
+    boolean isKept(final int index) {
+        return Arrays.binarySearch(indices, index) >= 0;
+    }
+
+    /**
+     * Finds where a point of the timeline lies on the simplified line.
+     *
+     * @param index  the index of a point in the timeline
+     * @param target receives the position of the point on the simplified line
+     */
+    void locate(final int index, @NonNull final Point2D.Float target) {
+        final var point = floorPoint(index);
+        final var from = indices[point];
+        if (from == index) {
+            target.setLocation(timeline.getX(index), timeline.getY(index));
+            return;
+        }
+        // the last point is always kept, so a dropped point lies between two kept points
+        final var to = indices[point + 1];
+        final double fromX = timeline.getX(from);
+        final double fromY = timeline.getY(from);
+        final double toX = timeline.getX(to);
+        final double toY = timeline.getY(to);
+        final var t = projection(timeline.getX(index), timeline.getY(index), fromX, fromY, toX, toY);
+        target.setLocation(fromX + t * (toX - fromX), fromY + t * (toY - fromY));
+    }
+}
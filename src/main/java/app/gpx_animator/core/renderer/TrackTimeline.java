@@ -0,0 +1,354 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.entity.TrackPoint;
+import app.gpx_animator.core.data.gpx.GpxPoint;
+import app.gpx_animator.core.renderer.projection.MercatorProjection;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The points of one track segment stored in primitive arrays sorted by time.
+ * Compared to a map of point objects this needs only a fraction of the memory
+ * and all time based lookups are binary searches.
+ *
+ * <p>Every point has a unique time. Like before, a point with the same time
+ * as an earlier point is moved to the next free millisecond.</p>
+ *
+ * <p>The coordinates are kept as projected doubles until
+ * {@link #translate(double, double, double)} converts them to pixel
+ * coordinates of the map, which are stored as floats.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class TrackTimeline {
+
+    private long[] times;
+    private double[] projectedXs;
+    private double[] projectedYs;
+    private float[] xs;
+    private float[] ys;
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] pointTimes; // null if no time was moved to make it unique
+    private double[] speeds; // null if no point has a speed, NaN for points without speed
+    private String[] comments; // null if no point has a comment
+    private int size;
+
+    private TrackTimeline() { }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long getFirstTime() {
+        return times[0];
+    }
+
+    long getLastTime() {
+        return times[size - 1];
+    }
+
+    long getTime(final int index) {
+        return times[index];
+    }
+
+    float getX(final int index) {
+        return xs[index];
+    }
+
+    float getY(final int index) {
+        return ys[index];
+    }
+
+    /**
+     * @param time the time to search for
+     * @return the index of the last point at or before the time or <code>-1</code> if there is none
+     */
+    int floorIndex(final long time) {
+        final var index = Arrays.binarySearch(times, 0, size, time);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * @param time the time to search for
+     * @return the index of the first point at or after the time or <code>-1</code> if there is none
+     */
+    int ceilingIndex(final long time) {
+        var index = Arrays.binarySearch(times, 0, size, time);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < size ? index : -1;
+    }
+
+    /**
+     * Creates a point object for plugins which need the details of the track point.
+     *
+     * @param index the index of the point
+     * @return the point with its track point data
+     */
+    GpxPoint getPoint(final int index) {
+        final var time = pointTimes != null ? pointTimes[index] : times[index];
+        final var speed = speeds != null && !Double.isNaN(speeds[index]) ? speeds[index] : null;
+        final var comment = comments != null ? comments[index] : null;
+        final var trackPoint = new TrackPoint(latitudes[index], longitudes[index], time, speed, comment);
+        return new GpxPoint(xs[index], ys[index], trackPoint, time, speed);
+    }
+
+    /**
+     * Translates the projected coordinates into pixel coordinates of the map.
+     */
+    void translate(final double minX, final double maxY, final double scale) {
+        xs = new float[size];
+        ys = new float[size];
+        MercatorProjection.translate(projectedXs, projectedYs, minX, maxY, scale, xs, ys);
+        projectedXs = null;
+        projectedYs = null;
+    }
+
+    /**
+     * Removes all points outside the given time range.
+     *
+     * @param fromTime the first time to keep
+     * @param toTime   the last time to keep
+     */
+    void retainRange(final long fromTime, final long toTime) {
+        final var from = ceilingIndexOrSize(fromTime);
+        final var to = floorIndex(toTime) + 1;
+        if (from == 0 && to == size) {
+            return;
+        }
+        final var newSize = Math.max(0, to - from);
+        times = Arrays.copyOfRange(times, from, from + newSize);
+        projectedXs = projectedXs != null ? Arrays.copyOfRange(projectedXs, from, from + newSize) : null;
+        projectedYs = projectedYs != null ? Arrays.copyOfRange(projectedYs, from, from + newSize) : null;
+        xs = xs != null ? Arrays.copyOfRange(xs, from, from + newSize) : null;
+        ys = ys != null ? Arrays.copyOfRange(ys, from, from + newSize) : null;
+        latitudes = Arrays.copyOfRange(latitudes, from, from + newSize);
+        longitudes = Arrays.copyOfRange(longitudes, from, from + newSize);
+        pointTimes = pointTimes != null ? Arrays.copyOfRange(pointTimes, from, from + newSize) : null;
+        speeds = speeds != null ? Arrays.copyOfRange(speeds, from, from + newSize) : null;
+        comments = comments != null ? Arrays.copyOfRange(comments, from, from + newSize) : null;
+        size = newSize;
+    }
+
+    /**
+     * Splits the segment into the parts which may be visible in the area. A line between
+     * two points is dropped if its bounding box lies outside of the area, the segment is
+     * split where lines are dropped. Points without any visible line are dropped, a
+     * single point is only kept if it lies inside the area.
+     *
+     * <p>The segment must already be translated to map coordinates.</p>
+     *
+     * @return the parts of the segment in the order of time, only the segment itself if nothing was dropped
+     */
+    List<TrackTimeline> splitToArea(final float minX, final float minY, final float maxX, final float maxY) {
+        if (size == 1) {
+            final var inside = xs[0] >= minX && xs[0] <= maxX && ys[0] >= minY && ys[0] <= maxY;
+            return inside ? List.of(this) : List.of();
+        }
+        final var parts = new ArrayList<TrackTimeline>();
+        var from = -1; // the first point of the current part, or -1 if the last line was dropped
+        for (var index = 0; index + 1 < size; index++) {
+            final var visible = Math.min(xs[index], xs[index + 1]) <= maxX && Math.max(xs[index], xs[index + 1]) >= minX
+                    && Math.min(ys[index], ys[index + 1]) <= maxY && Math.max(ys[index], ys[index + 1]) >= minY;
+            if (visible && from < 0) {
+                from = index;
+            } else if (!visible && from >= 0) {
+                parts.add(copyRange(from, index + 1));
+                from = -1;
+            }
+        }
+        if (from == 0) {
+            return List.of(this);
+        }
+        if (from > 0) {
+            parts.add(copyRange(from, size));
+        }
+        return parts;
+    }
+
+    private TrackTimeline copyRange(final int from, final int to) {
+        final var copy = new TrackTimeline();
+        copy.times = Arrays.copyOfRange(times, from, to);
+        copy.xs = Arrays.copyOfRange(xs, from, to);
+        copy.ys = Arrays.copyOfRange(ys, from, to);
+        copy.latitudes = Arrays.copyOfRange(latitudes, from, to);
+        copy.longitudes = Arrays.copyOfRange(longitudes, from, to);
+        copy.pointTimes = pointTimes != null ? Arrays.copyOfRange(pointTimes, from, to) : null;
+        copy.speeds = speeds != null ? Arrays.copyOfRange(speeds, from, to) : null;
+        copy.comments = comments != null ? Arrays.copyOfRange(comments, from, to) : null;
+        copy.size = to - from;
+        return copy;
+    }
+
+    private int ceilingIndexOrSize(final long time) {
+        final var index = ceilingIndex(time);
+        return index < 0 ? size : index;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects the points in the order of the GPX file.
+     */
+    @SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+    static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1_024;
+
+        private long[] times = new long[INITIAL_CAPACITY];
+        private double[] xs = new double[INITIAL_CAPACITY];
+        private double[] ys = new double[INITIAL_CAPACITY];
+        private double[] latitudes = new double[INITIAL_CAPACITY];
+        private double[] longitudes = new double[INITIAL_CAPACITY];
+        private double[] speeds;
+        private String[] comments;
+        private int size;
+
+        private Builder() { }
+
+        Builder add(final long time, final double x, final double y, @NonNull final TrackPoint trackPoint) {
+            if (size == times.length) {
+                grow();
+            }
+            times[size] = time;
+            xs[size] = x;
+            ys[size] = y;
+            latitudes[size] = trackPoint.getLatitude();
+            longitudes[size] = trackPoint.getLongitude();
+            if (trackPoint.getSpeed() != null) {
+                if (speeds == null) {
+                    speeds = new double[times.length];
+                    Arrays.fill(speeds, Double.NaN);
+                }
+                speeds[size] = trackPoint.getSpeed();
+            }
+            if (trackPoint.getComment() != null) {
+                if (comments == null) {
+                    comments = new String[times.length];
+                }
+                comments[size] = trackPoint.getComment();
+            }
+            size++;
+            return this;
+        }
+
+        private void grow() {
+            final var capacity = times.length * 2;
+            times = Arrays.copyOf(times, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            if (speeds != null) {
+                final var oldCapacity = speeds.length;
+                speeds = Arrays.copyOf(speeds, capacity);
+                Arrays.fill(speeds, oldCapacity, capacity, Double.NaN);
+            }
+            if (comments != null) {
+                comments = Arrays.copyOf(comments, capacity);
+            }
+        }
+
+        TrackTimeline build() {
+            final var uniqueTimes = new long[size];
+            var sorted = true;
+            for (var i = 1; i < size && sorted; i++) {
+                sorted = times[i] >= times[i - 1];
+            }
+
+            if (sorted) {
+                // in a sorted track, the next free time is always right after the previous point
+                for (var i = 0; i < size; i++) {
+                    uniqueTimes[i] = i == 0 ? times[0] : Math.max(times[i], uniqueTimes[i - 1] + 1);
+                }
+            } else {
+                final var usedTimes = new HashSet<Long>();
+                for (var i = 0; i < size; i++) {
+                    var time = times[i];
+                    while (!usedTimes.add(time)) {
+                        time++;
+                    }
+                    uniqueTimes[i] = time;
+                }
+            }
+
+            final var order = sorted ? null : IntStream.range(0, size).boxed()
+                    .sorted(Comparator.comparingLong(i -> uniqueTimes[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            final var timeline = new TrackTimeline();
+            timeline.size = size;
+            timeline.times = reorder(uniqueTimes, order);
+            timeline.projectedXs = reorder(Arrays.copyOf(xs, size), order);
+            timeline.projectedYs = reorder(Arrays.copyOf(ys, size), order);
+            timeline.latitudes = reorder(Arrays.copyOf(latitudes, size), order);
+            timeline.longitudes = reorder(Arrays.copyOf(longitudes, size), order);
+            timeline.pointTimes = Arrays.equals(times, 0, size, uniqueTimes, 0, size) ? null : reorder(Arrays.copyOf(times, size), order);
+            timeline.speeds = speeds != null ? reorder(Arrays.copyOf(speeds, size), order) : null;
+            timeline.comments = comments != null ? reorder(Arrays.copyOf(comments, size), order) : null;
+            return timeline;
+        }
+
+        private static long[] reorder(@NonNull final long[] values, final int[] order) {
+            if (order == null) {
+                return values;
+            }
+            final var result = new long[values.length];
+            for (var i = 0; i < order.length; i++) {
+                result[i] = values[order[i]];
+            }
+            return result;
+        }
+
+        private static double[] reorder(@NonNull final double[] values, final int[] order) {
+            if (order == null) {
+                return values;
+            }
+            final var result = new double[values.length];
+            for (var i = 0; i < order.length; i++) {
+                result[i] = values[order[i]];
+            }
+            return result;
+        }
+
+        private static String[] reorder(@NonNull final String[] values, final int[] order) {
+            if (order == null) {
+                return values;
+            }
+            final var result = new String[values.length];
+            for (var i = 0; i < order.length; i++) {
+                result[i] = values[order[i]];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.RenderQuality;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.NavigableMap;
+
+import static app.gpx_animator.core.util.RenderUtil.getGraphics;
+
+/**
+ * Waypoints never disappear once they were shown, so they are drawn only
+ * once, at the time they are reached, into a transparent layer. Every frame
+ * then only composites the area of the layer which contains waypoints.
+ *
+ * <p>The layer uses the coordinates of the map and covers only the bounds
+ * of all waypoints, so it works with any viewport. Whenever new waypoints
+ * are reached, they are drawn into the layer in place, as long as no render
+ * thread still composites the previous {@link Snapshot}. Only while a snapshot
+ * is in flight, the new waypoints are drawn into a copy of the layer, so the
+ * snapshot doesn't change while later waypoints are already being drawn.</p>
+ *
+ * <p>The time passed to {@link #update(long)} usually grows from frame to
+ * frame. If it goes back, the layer is drawn again from the first waypoint
+ * on.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class WaypointLayer {
+
+    private static final int LAYER_TYPE = BufferedImage.TYPE_INT_ARGB_PRE;
+
+    private final long[] times;
+    private final Point2D[] waypoints;
+    private final RenderQuality quality;
+    private final WaypointPainter painter;
+    private final Rectangle layerBounds;
+
+    private int nextWaypoint;
+    private Snapshot snapshot;
+    private BufferedImage layer;
+
+    /**
+     * @param waypoints the waypoints by time, in map coordinates
+     * @param width     the width of the map
+     * @param height    the height of the map
+     * @param quality   the quality to draw the waypoints with
+     * @param painter   draws a single waypoint
+     */
+    WaypointLayer(@NonNull final NavigableMap<Long, Point2D> waypoints,
+                  final int width,
+                  final int height,
+                  @NonNull final RenderQuality quality,
+                  @NonNull final WaypointPainter painter) {
+        this.times = waypoints.keySet().stream().mapToLong(Long::longValue).toArray();
+        this.waypoints = waypoints.values().toArray(new Point2D[0]);
+        this.quality = quality;
+        this.painter = painter;
+        this.layerBounds = measure(width, height);
+    }
+
+    /**
+     * Draws all waypoints reached before the given time into the layer, when
+     * the previous snapshot is not in use anymore.
+     *
+     * @param time the time of the frame, waypoints at exactly this time are not reached yet
+     * @return the waypoints reached so far or <code>null</code> if no waypoint was reached yet
+     */
+    @Nullable
+    Snapshot update(final long time) {
+        return update(time, false);
+    }
+
+    /**
+     * Draws all waypoints reached before the given time into the layer.
+     *
+     * @param time     the time of the frame, waypoints at exactly this time are not reached yet
+     * @param inFlight <code>true</code> if the previous snapshot may still be composited by another thread
+     * @return the waypoints reached so far or <code>null</code> if no waypoint was reached yet
+     */
+    @Nullable
+    Snapshot update(final long time, final boolean inFlight) {
+        if (nextWaypoint > 0 && times[nextWaypoint - 1] >= time) {
+            nextWaypoint = 0;
+            snapshot = null;
+        }
+        if (nextWaypoint < times.length && times[nextWaypoint] < time) {
+            final var g2 = getLayerGraphics(inFlight);
+            g2.translate(-layerBounds.x, -layerBounds.y);
+
+            final var dirtyRegion = new DirtyRegion();
+            while (nextWaypoint < times.length && times[nextWaypoint] < time) {
+                painter.paint(g2, waypoints[nextWaypoint], dirtyRegion);
+                nextWaypoint++;
+            }
+            g2.dispose();
+
+            final var area = union(snapshot != null ? snapshot.area() : null,
+                    dirtyRegion.getRectangles(layerBounds.x + layerBounds.width, layerBounds.y + layerBounds.height));
+            snapshot = new Snapshot(layer, layerBounds.x, layerBounds.y, area == null ? new Rectangle() : area.intersection(layerBounds));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the graphics to draw the new waypoints with, on a copy of the layer if the previous snapshot is in flight
+     */
+    private Graphics2D getLayerGraphics(final boolean inFlight) {
+        if (layer == null || inFlight) {
+            layer = new BufferedImage(layerBounds.width, layerBounds.height, LAYER_TYPE);
+            final var g2 = getGraphics(layer, quality);
+            if (snapshot != null) {
+                g2.setComposite(AlphaComposite.Src);
+                g2.drawImage(snapshot.layer(), 0, 0, null);
+                g2.setComposite(AlphaComposite.SrcOver);
+            }
+            return g2;
+        }
+        final var g2 = getGraphics(layer, quality);
+        if (snapshot == null) {
+            // the time went back, the waypoints are drawn again from the first one on
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, layerBounds.width, layerBounds.height);
+            g2.setComposite(AlphaComposite.SrcOver);
+        }
+        return g2;
+    }
+
+    /**
+     * Finds the area covered by all waypoints by drawing them on an image of a single pixel.
+     */
+    private Rectangle measure(final int width, final int height) {
+        final var dirtyRegion = new DirtyRegion();
+        final var image = new BufferedImage(1, 1, LAYER_TYPE);
+        final var g2 = getGraphics(image, quality);
+        for (final var waypoint : waypoints) {
+            painter.paint(g2, waypoint, dirtyRegion);
+        }
+        g2.dispose();
+
+        final var bounds = union(null, dirtyRegion.getRectangles(width, height));
+        return bounds == null || bounds.isEmpty() ? new Rectangle(0, 0, 1, 1) : bounds;
+    }
+
+    @Nullable
+    private static Rectangle union(@Nullable final Rectangle bounds, @NonNull final List<Rectangle> rectangles) {
+        var result = bounds;
+        for (final var rectangle : rectangles) {
+            result = result == null ? new Rectangle(rectangle) : result.union(rectangle);
+        }
+        return result;
+    }
+
+    /**
+     * Composites the waypoints of a snapshot onto a frame.
+     *
+     * @param snapshot    the snapshot to draw, <code>null</code> is ignored
+     * @param target      the image of the map
+     * @param dirtyRegion collects the area which was drawn
+     */
+    static void draw(@Nullable final Snapshot snapshot,
+                     @NonNull final BufferedImage target,
+                     @NonNull final DirtyRegion dirtyRegion) {
+        draw(snapshot, target, new Rectangle(0, 0, target.getWidth(), target.getHeight()), dirtyRegion);
+    }
+
+    /**
+     * Composites the waypoints of a snapshot inside of a clip onto a frame.
+     *
+     * @param snapshot    the snapshot to draw, <code>null</code> is ignored
+     * @param target      the image of the map
+     * @param clip        the area of the image to draw
+     * @param dirtyRegion collects the area which was drawn
+     */
+    static void draw(@Nullable final Snapshot snapshot,
+                     @NonNull final BufferedImage target,
+                     @NonNull final Rectangle clip,
+                     @NonNull final DirtyRegion dirtyRegion) {
+        if (snapshot == null) {
+            return;
+        }
+        final var area = snapshot.area().intersection(clip);
+        if (area.isEmpty()) {
+            return;
+        }
+        final var sx = area.x - snapshot.x();
+        final var sy = area.y - snapshot.y();
+        final var g2 = target.createGraphics();
+        g2.drawImage(snapshot.layer(), area.x, area.y, area.x + area.width, area.y + area.height,
+                sx, sy, sx + area.width, sy + area.height, null);
+        g2.dispose();
+        dirtyRegion.add(area);
+    }
+
+    /**
+     * The waypoints reached up to a point in time.
+     *
+     * @param layer the transparent image with the waypoints
+     * @param x     the horizontal position of the layer on the map
+     * @param y     the vertical position of the layer on the map
+     * @param area  the area of the map which contains waypoints
+     */
+    record Snapshot(@NonNull BufferedImage layer, int x, int y, @NonNull Rectangle area) { }
+
+    /**
+     * Draws a single waypoint in map coordinates.
+     */
+    @FunctionalInterface
+    interface WaypointPainter {
+        void paint(@NonNull Graphics2D g2, @NonNull Point2D waypoint, @NonNull DirtyRegion dirtyRegion);
+    }
+}
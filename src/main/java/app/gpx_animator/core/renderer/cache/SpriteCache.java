@@ -0,0 +1,171 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.cache;
+
+import app.gpx_animator.core.data.RenderQuality;
+import app.gpx_animator.core.data.TrackIcon;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.NonNls;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static app.gpx_animator.core.util.RenderUtil.getGraphics;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decodes track icons only once per rendering and keeps them in a format
+ * which is fast to draw. Mirrored variants are prepared once as well, so
+ * drawing an icon is a plain image copy. The cache is shared by all tracks
+ * and can be used by multiple render threads at the same time.
+ *
+ * <p>The circle markers of the tracks can be prepared as sprites, too, one
+ * per color, so thousands of markers are drawn by copying a few images.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class SpriteCache {
+
+    @NonNls
+    private static final String RESOURCE_PREFIX = "resource:";
+
+    @NonNls
+    private static final String FILE_PREFIX = "file:";
+
+    private static final int SPRITE_TYPE = BufferedImage.TYPE_INT_ARGB_PRE;
+
+    private final Map<SpriteKey, BufferedImage> sprites = new ConcurrentHashMap<>();
+    private final Map<MarkerKey, BufferedImage> markerSprites = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the sprite for one of the bundled track icons.
+     *
+     * @param trackIcon the track icon
+     * @param mirrored  <code>true</code> to get the horizontally mirrored icon
+     * @return the decoded icon
+     * @throws IOException if the icon can't be decoded
+     */
+    public BufferedImage getSprite(@NonNull final TrackIcon trackIcon, final boolean mirrored) throws IOException {
+        return getSprite(new SpriteKey(RESOURCE_PREFIX.concat(trackIcon.getFilename()), mirrored));
+    }
+
+    /**
+     * Returns the sprite for an icon file provided by the user.
+     *
+     * @param iconFile the icon file
+     * @param mirrored <code>true</code> to get the horizontally mirrored icon
+     * @return the decoded icon
+     * @throws IOException if the icon file can't be read
+     */
+    public BufferedImage getSprite(@NonNull final File iconFile, final boolean mirrored) throws IOException {
+        return getSprite(new SpriteKey(FILE_PREFIX.concat(iconFile.getAbsolutePath()), mirrored));
+    }
+
+    /**
+     * Returns the sprite of a circle marker with a black outline. The center of the
+     * circle is at the pixel given by {@link #getMarkerOrigin(double)}.
+     *
+     * @param color   the fill color of the marker
+     * @param size    the diameter of the marker
+     * @param quality the render quality to draw the marker with
+     * @return the rendered marker
+     */
+    public BufferedImage getMarkerSprite(@NonNull final Color color, final double size, @NonNull final RenderQuality quality) {
+        return markerSprites.computeIfAbsent(new MarkerKey(color, size, quality), k -> {
+            final var origin = getMarkerOrigin(size);
+            final var sprite = new BufferedImage(origin * 2, origin * 2, SPRITE_TYPE);
+            final var g2 = getGraphics(sprite, quality);
+            final var marker = new Ellipse2D.Double(origin - size / 2.0, origin - size / 2.0, size, size);
+            g2.setStroke(new BasicStroke(1f));
+            g2.setColor(color);
+            g2.fill(marker);
+            g2.setColor(Color.black);
+            g2.draw(marker);
+            g2.dispose();
+            return sprite;
+        });
+    }
+
+    /**
+     * @param size the diameter of the marker
+     * @return the distance of the center of the marker from the left and top border of its sprite
+     */
+    public static int getMarkerOrigin(final double size) {
+        return (int) Math.ceil(size / 2.0) + 2; // room for the outline and the antialiasing
+    }
+
+    private BufferedImage getSprite(@NonNull final SpriteKey key) throws IOException {
+        if (key.mirrored()) {
+            final var sprite = getSprite(new SpriteKey(key.source(), false));
+            return sprites.computeIfAbsent(key, k -> mirror(sprite));
+        }
+        try {
+            return sprites.computeIfAbsent(key, k -> {
+                try {
+                    return convert(read(k.source()));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BufferedImage read(@NonNull final String source) throws IOException {
+        final BufferedImage image;
+        if (source.startsWith(RESOURCE_PREFIX)) {
+            image = ImageIO.read(requireNonNull(getClass().getResource(source.substring(RESOURCE_PREFIX.length()))));
+        } else {
+            image = ImageIO.read(new File(source.substring(FILE_PREFIX.length())));
+        }
+        if (image == null) {
+            throw new IOException("Unsupported image format: %s".formatted(source)); //NON-NLS
+        }
+        return image;
+    }
+
+    private static BufferedImage convert(@NonNull final BufferedImage image) {
+        final var sprite = new BufferedImage(image.getWidth(), image.getHeight(), SPRITE_TYPE);
+        final var g = sprite.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return sprite;
+    }
+
+    private static BufferedImage mirror(@NonNull final BufferedImage sprite) {
+        final var width = sprite.getWidth();
+        final var mirrored = new BufferedImage(width, sprite.getHeight(), SPRITE_TYPE);
+        final var g = mirrored.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(sprite, width, 0, 0, sprite.getHeight(), 0, 0, width, sprite.getHeight(), null);
+        g.dispose();
+        return mirrored;
+    }
+
+    private record SpriteKey(@NonNull String source, boolean mirrored) { }
+
+    private record MarkerKey(@NonNull Color color, double size, @NonNull RenderQuality quality) { }
+}
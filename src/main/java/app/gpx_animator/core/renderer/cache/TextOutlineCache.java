@@ -0,0 +1,132 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the outlines of text lines, so a text which is drawn at a new position
+ * in every frame is laid out only once. The outlines are kept at the origin and
+ * translated to the position where they are drawn, which gives exactly the same
+ * shape as laying out the text at that position. The cache can be used by
+ * multiple render threads at the same time. When the cache is full, the least
+ * recently used outline is dropped.
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class TextOutlineCache {
+
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextOutlineCache.class);
+
+    /**
+     * The number of text lines kept if no other maximum is given.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    private final Map<OutlineKey, Path2D.Float> outlines;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TextOutlineCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries the maximum number of text lines to keep
+     */
+    public TextOutlineCache(final int maxEntries) {
+        this.outlines = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<OutlineKey, Path2D.Float> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the outline of a text line at the given position and lays out the line if it is not cached.
+     *
+     * @param line the text line
+     * @param font the font of the text
+     * @param frc  the font render context of the graphics the text is drawn on
+     * @param x    the horizontal position of the text origin
+     * @param y    the vertical position of the baseline
+     * @return a new outline of the text line, which can be changed by the caller
+     */
+    public Path2D getOutline(@NonNull final String line,
+                             @NonNull final Font font,
+                             @NonNull final FontRenderContext frc,
+                             final double x,
+                             final double y) {
+        final var key = new OutlineKey(line, font, frc);
+        Path2D.Float outline;
+        synchronized (outlines) {
+            outline = outlines.get(key);
+        }
+        if (outline == null) {
+            // the layout is done outside of the lock, so other threads are not blocked by it
+            misses.incrementAndGet();
+            outline = new Path2D.Float(new TextLayout(line, font, frc).getOutline(null));
+            synchronized (outlines) {
+                outlines.putIfAbsent(key, outline);
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+        return new Path2D.Float(outline, AffineTransform.getTranslateInstance(x, y));
+    }
+
+    /**
+     * @return the number of requests which could be served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests which needed to lay out the text
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Drops all outlines and logs the cache statistics.
+     */
+    public void close() {
+        final var requests = getHitCount() + getMissCount();
+        final var hitRate = requests == 0 ? 0.0 : 100.0 * getHitCount() / requests;
+        LOGGER.info("Text outline cache: {} hits, {} misses, {}% hit rate", getHitCount(), getMissCount(), "%.1f".formatted(hitRate)); //NON-NLS
+        synchronized (outlines) {
+            outlines.clear();
+        }
+    }
+
+    private record OutlineKey(@NonNull String line, @NonNull Font font, @NonNull FontRenderContext frc) { }
+}
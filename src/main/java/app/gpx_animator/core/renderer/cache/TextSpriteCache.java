@@ -0,0 +1,144 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps pre-rendered text, so the outline and glyphs of a text which is
+ * shown in many frames are rendered only once. The cache is shared by the
+ * renderer and all text plugins and can be used by multiple render threads
+ * at the same time. When the cache is full, the least recently used text
+ * is dropped.
+ *
+ * <p>Sprites are premultiplied images and must not be changed by the
+ * code using them.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class TextSpriteCache {
+
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextSpriteCache.class);
+
+    /**
+     * The image type to use for sprites.
+     */
+    public static final int SPRITE_TYPE = BufferedImage.TYPE_INT_ARGB_PRE;
+
+    /**
+     * The number of texts kept if no other maximum is given.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    private final Map<SpriteKey, TextSprite> sprites;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TextSpriteCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries the maximum number of texts to keep
+     */
+    public TextSpriteCache(final int maxEntries) {
+        this.sprites = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<SpriteKey, TextSprite> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the sprite of a text and renders it if it is not cached.
+     *
+     * @param text     the text
+     * @param font     the font of the text
+     * @param style    everything else which changes the look of the sprite, must implement <code>equals</code> and <code>hashCode</code>
+     * @param renderer renders the sprite if it is not cached
+     * @return the sprite of the text
+     */
+    public TextSprite getSprite(@NonNull final String text,
+                                @NonNull final Font font,
+                                @NonNull final Object style,
+                                @NonNull final Supplier<TextSprite> renderer) {
+        final var key = new SpriteKey(text, font, style);
+        synchronized (sprites) {
+            final var sprite = sprites.get(key);
+            if (sprite != null) {
+                hits.incrementAndGet();
+                return sprite;
+            }
+        }
+
+        // rendering is done outside of the lock, so other threads are not blocked by it
+        misses.incrementAndGet();
+        final var sprite = renderer.get();
+        synchronized (sprites) {
+            sprites.putIfAbsent(key, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * @return the number of requests which could be served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests which needed to render the text
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Drops all sprites and logs the cache statistics.
+     */
+    public void close() {
+        final var requests = getHitCount() + getMissCount();
+        final var hitRate = requests == 0 ? 0.0 : 100.0 * getHitCount() / requests;
+        LOGGER.info("Text sprite cache: {} hits, {} misses, {}% hit rate", getHitCount(), getMissCount(), "%.1f".formatted(hitRate)); //NON-NLS
+        synchronized (sprites) {
+            sprites.clear();
+        }
+    }
+
+    /**
+     * A pre-rendered text.
+     *
+     * @param image   the premultiplied image of the text
+     * @param originX the horizontal position of the text origin in the image
+     * @param originY the vertical position of the text origin in the image
+     */
+    public record TextSprite(@NonNull BufferedImage image, int originX, int originY) { }
+
+    private record SpriteKey(@NonNull String text, @NonNull Font font, @NonNull Object style) { }
+}
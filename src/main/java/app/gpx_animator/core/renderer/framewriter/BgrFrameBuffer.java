@@ -0,0 +1,81 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.framewriter;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable off-heap buffer which holds the packed BGR pixels of one frame, ready
+ * to be handed to the encoder. Frames of type {@link BufferedImage#TYPE_3BYTE_BGR}
+ * already store their pixels in this order, so they are copied with one bulk copy,
+ * or one per row if the image is a {@link BufferedImage#getSubimage sub image}
+ * whose rows are not contiguous.
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+final class BgrFrameBuffer {
+
+    private static final int CHANNELS = 3;
+
+    private ByteBuffer buffer;
+
+    /**
+     * @param image the frame to check
+     * @return <code>true</code> if the pixels of the frame can be copied without conversion
+     */
+    static boolean supports(@NonNull final BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_3BYTE_BGR
+                && image.getRaster().getDataBuffer() instanceof DataBufferByte
+                && image.getSampleModel() instanceof ComponentSampleModel;
+    }
+
+    /**
+     * Copies the pixels of a frame into the buffer, replacing the previous frame.
+     *
+     * @param image a frame {@link #supports supported} by this buffer
+     * @return the buffer holding <code>width * height * 3</code> bytes, valid until the next call
+     */
+    @NonNull
+    ByteBuffer fill(@NonNull final BufferedImage image) {
+        final var raster = image.getRaster();
+        final var sampleModel = (ComponentSampleModel) image.getSampleModel();
+        final var data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        final var scanlineStride = sampleModel.getScanlineStride();
+        final var rowLength = image.getWidth() * CHANNELS;
+        final var height = image.getHeight();
+        final var start = raster.getDataBuffer().getOffset()
+                - raster.getSampleModelTranslateY() * scanlineStride
+                - raster.getSampleModelTranslateX() * CHANNELS;
+
+        final var size = rowLength * height;
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+        buffer.clear();
+        if (scanlineStride == rowLength) {
+            buffer.put(data, start, size);
+        } else {
+            for (var y = 0; y < height; y++) {
+                buffer.put(data, start + y * scanlineStride, rowLength);
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -25,6 +25,9 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import static app.gpx_animator.core.util.Utils.isEqual;
 
@@ -37,9 +40,16 @@ public final class FileFrameWriter implements FrameWriter {
     private final String frameFilePattern;
     private final String imageType;
     private final double fps;
+    private final LinkCreator linkCreator;
     private int frame;
+    private boolean linkFailed;
 
     public FileFrameWriter(final String frameFilePattern, final String imageType, final double fps) throws UserException {
+        this(frameFilePattern, imageType, fps, Files::createLink);
+    }
+
+    FileFrameWriter(final String frameFilePattern, final String imageType, final double fps,
+                    final LinkCreator linkCreator) throws UserException {
         if (isEqual(String.format(frameFilePattern, 100), String.format(frameFilePattern, 200))) {
             final var resourceBundle = Preferences.getResourceBundle();
             throw new UserException(resourceBundle.getString("framewriter.error.outputpattern"));
@@ -48,6 +58,7 @@ public final class FileFrameWriter implements FrameWriter {
         this.frameFilePattern = frameFilePattern;
         this.imageType = imageType;
         this.fps = fps;
+        this.linkCreator = linkCreator;
     }
 
     @Override
@@ -61,9 +72,55 @@ public final class FileFrameWriter implements FrameWriter {
         }
     }
 
+    /**
+     * Writes the frame once and links the files of the repetitions to it, or copies
+     * the file if the file system does not support hard links.
+     */
+    @Override
+    public void addRepeatedFrame(final BufferedImage bi, final long count) throws UserException {
+        if (count <= 0) {
+            return;
+        }
+        addFrame(bi);
+        final var source = new File(String.format(frameFilePattern, frame)).toPath();
+        for (long i = 1; i < count; i++) {
+            final var target = new File(String.format(frameFilePattern, ++frame)).toPath();
+            try {
+                Files.deleteIfExists(target);
+                if (!createLink(target, source)) {
+                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (final IOException e) {
+                throw new UserException(String.format("error writing frame to '%s'", target), e);
+            }
+        }
+    }
+
+    private boolean createLink(final Path link, final Path existing) {
+        if (linkFailed) {
+            return false;
+        }
+        try {
+            linkCreator.createLink(link, existing);
+            return true;
+        } catch (final IOException | UnsupportedOperationException e) {
+            LOGGER.debug("Hard links are not supported, copying the repeated frames", e);
+            linkFailed = true;
+            return false;
+        }
+    }
+
     @Override
     public void close() {
         LOGGER.info("To encode generated frames you may run this command:");
         LOGGER.info("ffmpeg -i {} -vcodec mpeg4 -b 3000k -r {} video.avi", frameFilePattern, fps); //NON-NLS
     }
+
+    /**
+     * Creates a hard link to an existing file.
+     */
+    @FunctionalInterface
+    interface LinkCreator {
+        Path createLink(Path link, Path existing) throws IOException;
+    }
 }
@@ -23,6 +23,21 @@ public interface FrameWriter {
 
     void addFrame(BufferedImage bi) throws UserException;
 
+    /**
+     * Adds the same frame several times in a row, e.g. to keep the first or the last
+     * frame or to freeze the animation while a photo is shown. Writers which can hold
+     * a frame without writing it again should override this.
+     *
+     * @param bi    the frame to add
+     * @param count how many times the frame is added
+     * @throws UserException if the frame could not be written
+     */
+    default void addRepeatedFrame(final BufferedImage bi, final long count) throws UserException {
+        for (long i = 0; i < count; i++) {
+            addFrame(bi);
+        }
+    }
+
     void close();
 
 }
@@ -24,6 +24,9 @@ public class NullFrameWriter implements FrameWriter {
     @Override
     public void addFrame(@Nullable final BufferedImage bi) { }
 
+    @Override
+    public void addRepeatedFrame(@Nullable final BufferedImage bi, final long count) { }
+
     @Override
     public void close() { }
 
@@ -0,0 +1,352 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.framewriter;
+
+import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.preferences.Preferences;
+import app.gpx_animator.core.renderer.FrameBufferPool;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.ResourceBundle;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples drawing from encoding: frames are copied into a bounded queue and
+ * written to the delegate {@link FrameWriter} by a separate encoder thread.
+ * When the queue is full, {@link #addFrame(BufferedImage)} blocks until the
+ * encoder has caught up (back pressure).
+ *
+ * <p>Optionally, the encoder thread compares the pixels of the frames. It then
+ * holds back each frame until the next one arrives. As long as the following
+ * frames have exactly the same pixels, they are counted instead of written, and
+ * the delegate gets the frame once with the number of repetitions. The renderer
+ * already repeats the frames whose content it knows to be unchanged, so this
+ * only catches the remaining ones, at the cost of a comparison per frame.</p>
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
+public final class PipelinedFrameWriter implements FrameWriter {
+
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedFrameWriter.class);
+
+    private static final QueuedFrame END_OF_STREAM = new QueuedFrame(new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR), 0);
+    private static final long FAILURE_CHECK_INTERVAL = 100;
+
+    private final ResourceBundle resourceBundle = Preferences.getResourceBundle();
+    private final FrameWriter delegate;
+    private final BlockingQueue<QueuedFrame> queue;
+    private final FrameBufferPool frameBufferPool;
+    private final Thread encoderThread;
+    private final int capacity;
+    private final boolean comparePixels;
+    private final AtomicLong encoderIdleNanos = new AtomicLong();
+    private final AtomicLong deduplicatedFrames = new AtomicLong();
+
+    private volatile Throwable failure;
+    private long stallNanos;
+    private int maxQueueDepth;
+    private long frameCount;
+    private boolean closed;
+
+    public PipelinedFrameWriter(@NonNull final FrameWriter delegate, final int capacity, @NonNull final FrameBufferPool frameBufferPool) {
+        this(delegate, capacity, frameBufferPool, false);
+    }
+
+    /**
+     * @param delegate        writes the frames on the encoder thread
+     * @param capacity        the number of frames waiting to be encoded before {@link #addFrame(BufferedImage)} blocks
+     * @param frameBufferPool the pool the copies of the frames are borrowed from
+     * @param comparePixels   <code>true</code> to write frames with the same pixels as the frame before as repetitions
+     */
+    public PipelinedFrameWriter(@NonNull final FrameWriter delegate, final int capacity, @NonNull final FrameBufferPool frameBufferPool,
+                                final boolean comparePixels) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.comparePixels = comparePixels;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.frameBufferPool = frameBufferPool;
+        this.encoderThread = new Thread(this::encode, "Encoder"); //NON-NLS
+        this.encoderThread.setDaemon(true);
+        this.encoderThread.start();
+    }
+
+    @Override
+    public void addFrame(@NonNull final BufferedImage image) throws UserException {
+        addRepeatedFrame(image, 1);
+    }
+
+    /**
+     * Queues the frame only once, the delegate gets it with the number of repetitions.
+     */
+    @Override
+    public void addRepeatedFrame(@NonNull final BufferedImage image, final long count) throws UserException {
+        if (count <= 0) {
+            return;
+        }
+        checkFailure();
+        final var copy = frameBufferPool.copyOf(image);
+        try {
+            enqueue(new QueuedFrame(copy, count));
+        } catch (final UserException e) {
+            frameBufferPool.release(copy);
+            throw e;
+        }
+        frameCount += count;
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        UserException interruption = null;
+        try {
+            if (failure == null) {
+                enqueue(END_OF_STREAM);
+            }
+        } catch (final UserException e) {
+            // without the end of the stream, the encoder only stops when it is interrupted
+            interruption = e;
+            encoderThread.interrupt();
+        } finally {
+            // the delegate must not be closed while the encoder thread still writes to it
+            if (joinEncoder() && interruption == null) {
+                interruption = new UserException(resourceBundle.getString("renderer.error.interrupted"));
+            }
+            releaseQueuedFrames();
+            delegate.close();
+        }
+
+        LOGGER.info("Encoder queue: {} frames, max depth {} of {}, renderer stalled {} ms, encoder idle {} ms",
+                frameCount, maxQueueDepth, capacity,
+                getStallTime().toMillis(), getEncoderIdleTime().toMillis());
+        if (comparePixels) {
+            LOGGER.info("{} of {} frames had the same pixels and were written as repetitions of the previous frame",
+                    getDeduplicatedFrames(), frameCount);
+        }
+
+        if (failure == null && interruption != null) {
+            throw new RuntimeException(interruption);
+        }
+        if (failure != null) {
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(failure instanceof UserException userException ? userException
+                    : new UserException(resourceBundle.getString("framewriter.error.record").formatted(failure.getMessage()), failure));
+        }
+    }
+
+    /**
+     * @return the number of frames waiting to be encoded
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the highest number of frames that were waiting to be encoded at the same time
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return the number of frames which had the same pixels as the frame before
+     */
+    public long getDeduplicatedFrames() {
+        return deduplicatedFrames.get();
+    }
+
+    /**
+     * @return the total time the renderer was blocked because the queue was full
+     */
+    public Duration getStallTime() {
+        return Duration.ofNanos(stallNanos);
+    }
+
+    /**
+     * @return the total time the encoder was waiting for frames because the queue was empty
+     */
+    public Duration getEncoderIdleTime() {
+        return Duration.ofNanos(encoderIdleNanos.get());
+    }
+
+    private void enqueue(@NonNull final QueuedFrame frame) throws UserException {
+        if (queue.offer(frame)) {
+            return;
+        }
+
+        final var stallStart = System.nanoTime();
+        try {
+            while (!queue.offer(frame, FAILURE_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserException(resourceBundle.getString("framewriter.error.record").formatted(e.getMessage()), e);
+        } finally {
+            stallNanos += System.nanoTime() - stallStart;
+        }
+    }
+
+    /**
+     * Waits until the encoder thread has finished, even if the current thread is interrupted. An
+     * interruption stops the encoder, the interrupt flag of the current thread is restored afterwards.
+     *
+     * @return <code>true</code> if the current thread was interrupted
+     */
+    private boolean joinEncoder() {
+        var interrupted = Thread.interrupted();
+        if (interrupted) {
+            encoderThread.interrupt();
+        }
+        while (true) {
+            try {
+                encoderThread.join();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+                encoderThread.interrupt();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return interrupted;
+    }
+
+    /**
+     * Returns the frames to the pool which are left in the queue after the encoder failed.
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals") // END_OF_STREAM is a marker instance
+    private void releaseQueuedFrames() {
+        for (var frame = queue.poll(); frame != null; frame = queue.poll()) {
+            if (frame != END_OF_STREAM) {
+                frameBufferPool.release(frame.image());
+            }
+        }
+    }
+
+    private void checkFailure() throws UserException {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof UserException userException) {
+            throw userException;
+        }
+        if (failure.getCause() instanceof UserException userException) {
+            throw userException;
+        }
+        throw new UserException(resourceBundle.getString("framewriter.error.record").formatted(failure.getMessage()), failure);
+    }
+
+    @SuppressWarnings({"PMD.AvoidCatchingThrowable", "PMD.CompareObjectsWithEquals"}) // report every failure to the renderer
+    private void encode() {
+        BufferedImage pending = null;
+        var pendingCount = 0L;
+        try {
+            while (true) {
+                var frame = queue.poll();
+                if (frame == null) {
+                    final var idleStart = System.nanoTime();
+                    frame = queue.take();
+                    encoderIdleNanos.addAndGet(System.nanoTime() - idleStart);
+                }
+                if (frame == END_OF_STREAM) {
+                    if (pending != null) {
+                        write(pending, pendingCount);
+                    }
+                    return;
+                }
+                if (!comparePixels) {
+                    try {
+                        write(frame.image(), frame.count());
+                    } finally {
+                        frameBufferPool.release(frame.image());
+                    }
+                } else if (pending != null && hasSamePixels(pending, frame.image())) {
+                    pendingCount += frame.count();
+                    deduplicatedFrames.addAndGet(frame.count());
+                    frameBufferPool.release(frame.image());
+                } else {
+                    final var previous = pending;
+                    final var previousCount = pendingCount;
+                    pending = frame.image();
+                    pendingCount = frame.count();
+                    if (previous != null) {
+                        try {
+                            write(previous, previousCount);
+                        } finally {
+                            frameBufferPool.release(previous);
+                        }
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Throwable t) {
+            failure = t;
+            releaseQueuedFrames();
+        } finally {
+            frameBufferPool.release(pending);
+        }
+    }
+
+    private void write(@NonNull final BufferedImage image, final long count) throws UserException {
+        if (count == 1) {
+            delegate.addFrame(image);
+        } else {
+            delegate.addRepeatedFrame(image, count);
+        }
+    }
+
+    /**
+     * Compares the pixels of two queued frames. The queued frames are copies in images of their
+     * own, so their data buffers hold exactly their pixels.
+     */
+    private static boolean hasSamePixels(@NonNull final BufferedImage image, @NonNull final BufferedImage other) {
+        if (image.getWidth() != other.getWidth() || image.getHeight() != other.getHeight()
+                || image.getType() != other.getType() || image.getType() == BufferedImage.TYPE_CUSTOM) {
+            return false;
+        }
+        final var buffer = image.getRaster().getDataBuffer();
+        final var otherBuffer = other.getRaster().getDataBuffer();
+        if (buffer instanceof DataBufferByte bytes && otherBuffer instanceof DataBufferByte otherBytes) {
+            return Arrays.equals(bytes.getData(), otherBytes.getData());
+        }
+        if (buffer instanceof DataBufferInt ints && otherBuffer instanceof DataBufferInt otherInts) {
+            return Arrays.equals(ints.getData(), otherInts.getData());
+        }
+        return false;
+    }
+
+    private record QueuedFrame(@NonNull BufferedImage image, long count) { }
+}
@@ -16,33 +16,51 @@
 package app.gpx_animator.core.renderer.framewriter;
 
 import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.data.EncoderProfile;
 import app.gpx_animator.core.data.MusicCodec;
 import app.gpx_animator.core.data.VideoCodec;
 import app.gpx_animator.core.preferences.Preferences;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.NonNls;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.FrameGrabber;
 import org.bytedeco.javacv.FrameRecorder;
 import org.bytedeco.javacv.Java2DFrameConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.time.Duration;
 import java.util.ResourceBundle;
 
 import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_NONE;
-import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_YUV420P;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGR24;
 
 @SuppressWarnings("PMD.BeanMembersShouldSerialize") // This class is not serializable
 public final class VideoFrameWriter implements FrameWriter {
 
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(VideoFrameWriter.class);
+
     private final ResourceBundle resourceBundle = Preferences.getResourceBundle();
     private final Java2DFrameConverter frameConverter;
-    private final FrameRecorder recorder;
+    private final BgrFrameBuffer bgrFrameBuffer = new BgrFrameBuffer();
+    private final FFmpegFrameRecorder recorder;
+    private final String encoderName;
     private FFmpegFrameGrabber frameGrabber;
+    private long encodeNanos;
+    private long frameCount;
+    private long heldFrames;
 
-    public VideoFrameWriter(@NonNull final File file, @NonNull final VideoCodec videoCodec, final File fileMusic,
+    @SuppressWarnings({"checkstyle:ParameterNumber", "java:S107"})
+    public VideoFrameWriter(@NonNull final File file, @NonNull final VideoCodec videoCodec,
+                            @NonNull final EncoderProfile encoderProfile, final int encoderThreads, final File fileMusic,
                             @NonNull final MusicCodec musicCodec, final double fps, final int width, final int height) throws UserException {
+        this.encoderName = videoCodec.isLossless() ? videoCodec.getCodecName()
+                : "%s, %s profile".formatted(videoCodec.getCodecName(), encoderProfile.getKey()); //NON-NLS
         frameConverter = new Java2DFrameConverter();
 
         try {
@@ -51,12 +69,17 @@ public final class VideoFrameWriter implements FrameWriter {
             throw new UserException(resourceBundle.getString("framewriter.error.createrecorder").formatted(e.getMessage()), e);
         }
 
-        recorder.setFormat("matroska"); // mp4 doesn't support streaming
+        recorder.setFormat(videoCodec.getFormat());
         recorder.setVideoCodec(videoCodec.getCodecId());
-        recorder.setPixelFormat(AV_PIX_FMT_YUV420P);
-        recorder.setFormat("mp4");
-        recorder.setVideoOption("crf", "24"); // recorder.setVideoQuality(24); -> crashes on systems with comma as decimal separator
+        recorder.setPixelFormat(videoCodec.getPixelFormat());
         recorder.setFrameRate(fps);
+        videoCodec.getEncoderOptions().forEach(recorder::setVideoOption);
+        if (videoCodec.isLossless()) {
+            recorder.setGopSize(1); // intra only, every frame can be cut and decoded on its own
+        } else {
+            applyEncoderProfile(encoderProfile, fps);
+        }
+        recorder.setVideoOption("threads", Integer.toString(encoderThreads)); // 0 lets the encoder decide //NON-NLS
         if (fileMusic != null && fileMusic.exists()) {
             frameGrabber = new FFmpegFrameGrabber(fileMusic);
             try {
@@ -80,31 +103,101 @@ public final class VideoFrameWriter implements FrameWriter {
     }
 
     @Override
-    @SuppressWarnings("PMD.CloseResource") // frame will be closed later automatically
     public void addFrame(@NonNull final BufferedImage image) {
-        final var frame = frameConverter.convert(image);
+        addRepeatedFrame(image, 1);
+    }
+
+    /**
+     * Encodes the frame once and holds it for the repetitions by moving the
+     * timestamp of the next frame, so the video gets a variable frame rate.
+     * The last repetition is encoded again to hold the frame at the end of
+     * the video too, where no following frame would end the hold.
+     */
+    @Override
+    public void addRepeatedFrame(@NonNull final BufferedImage image, final long count) {
+        if (count <= 0) {
+            return;
+        }
+        final var firstFrame = recorder.getFrameNumber();
+        recordImage(image);
+        if (count > 1) {
+            recorder.setFrameNumber(Math.toIntExact(firstFrame + count - 1));
+            recordImage(image);
+            heldFrames += count - 2;
+        }
+        recordMusic(count);
+    }
+
+    @SuppressWarnings("PMD.CloseResource") // frame will be closed later automatically
+    private void recordImage(@NonNull final BufferedImage image) {
+        final var start = System.nanoTime();
         try {
-            recorder.record(frame);
+            if (BgrFrameBuffer.supports(image)) {
+                // hand the BGR pixels to FFmpeg as they are, without a converted Frame in between
+                final var width = image.getWidth();
+                recorder.recordImage(width, image.getHeight(), Frame.DEPTH_UBYTE, 3, width * 3, AV_PIX_FMT_BGR24,
+                        bgrFrameBuffer.fill(image));
+            } else {
+                recorder.record(frameConverter.convert(image));
+            }
         } catch (final FrameRecorder.Exception e) {
             throw new RuntimeException(new UserException(resourceBundle.getString("framewriter.error.record").formatted(e.getMessage()), e));
+        } finally {
+            encodeNanos += System.nanoTime() - start;
         }
+        frameCount++;
+    }
+
+    private void recordMusic(final long frames) {
         if (frameGrabber != null) {
             try {
-                var frameMusic = frameGrabber.grabFrame();
-                recorder.record(frameMusic);
+                for (long frame = 0; frame < frames; frame++) {
+                    var frameMusic = frameGrabber.grabFrame();
+                    recorder.record(frameMusic);
+                }
             } catch (final FrameGrabber.Exception | FrameRecorder.Exception e) {
                 throw new RuntimeException(new UserException(resourceBundle.getString("framewriter.error.record").formatted(e.getMessage()), e));
             }
         }
     }
 
+    private void applyEncoderProfile(@NonNull final EncoderProfile profile, final double fps) {
+        if (profile.getPreset() != null) {
+            recorder.setVideoOption("preset", profile.getPreset()); //NON-NLS
+        }
+        if (profile.getTune() != null) {
+            recorder.setVideoOption("tune", profile.getTune()); //NON-NLS
+        }
+        if (profile.getBitrate() > 0) {
+            recorder.setVideoBitrate(profile.getBitrate());
+        } else {
+            // recorder.setVideoQuality(crf); -> crashes on systems with comma as decimal separator
+            recorder.setVideoOption("crf", Integer.toString(profile.getCrf())); //NON-NLS
+        }
+        recorder.setGopSize(profile.getGopSize(fps));
+    }
+
+    /**
+     * @return the total time spent encoding, including the frames the encoder flushed when it was closed
+     */
+    public Duration getEncodeTime() {
+        return Duration.ofNanos(encodeNanos);
+    }
+
     @Override
     public void close() {
+        final var start = System.nanoTime();
         try {
             recorder.close();
         } catch (final FrameRecorder.Exception e) {
             throw new RuntimeException(new UserException(resourceBundle.getString("framewriter.error.closerecorder").formatted(e.getMessage()), e));
+        } finally {
+            encodeNanos += System.nanoTime() - start;
         }
+        final var seconds = encodeNanos / 1_000_000_000.0;
+        LOGGER.info("Encoder ({}): {} frames encoded in {} ms, {} frames per second, {} repeated frames held without encoding",
+                encoderName, frameCount, getEncodeTime().toMillis(),
+                "%.1f".formatted(seconds > 0 ? frameCount / seconds : 0.0), heldFrames);
         if (frameGrabber != null) {
             try {
                 frameGrabber.close();
@@ -35,7 +35,7 @@ public final class AttributionPlugin extends TextRenderer implements RendererPlu
     private final int margin;
 
     public AttributionPlugin(@NonNull final Configuration configuration) {
-        super(configuration.getFont());
+        super(configuration.getFont(), configuration.getRenderQuality());
 
         final var mapTemplate = MapUtil.getMapTemplate(configuration.getTmsUrlTemplate());
         final var mapAttribution = mapTemplate == null || mapTemplate.attributionText() == null
@@ -63,4 +63,9 @@ public final class AttributionPlugin extends TextRenderer implements RendererPlu
         renderText(attribution, position, margin, image);
     }
 
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        return false; // the same text at the same position in every frame
+    }
+
 }
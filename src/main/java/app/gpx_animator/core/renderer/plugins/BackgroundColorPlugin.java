@@ -17,8 +17,11 @@ package app.gpx_animator.core.renderer.plugins;
 
 import app.gpx_animator.core.configuration.Configuration;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 
 import static app.gpx_animator.core.util.RenderUtil.getGraphics;
@@ -45,4 +48,14 @@ public final class BackgroundColorPlugin implements RendererPlugin {
         graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
     }
 
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        return false; // the background is drawn once, not on the frames
+    }
+
+    @Override
+    public Rectangle getRenderedArea() {
+        return new Rectangle();
+    }
+
 }
@@ -17,10 +17,14 @@ package app.gpx_animator.core.renderer.plugins;
 
 import app.gpx_animator.core.UserException;
 import app.gpx_animator.core.configuration.Configuration;
+import app.gpx_animator.core.data.RenderQuality;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.imgscalr.Scalr;
 
 import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 
@@ -31,8 +35,10 @@ import static app.gpx_animator.core.util.RenderUtil.getGraphics;
 public final class BackgroundImagePlugin implements RendererPlugin {
 
     private final BufferedImage backgroundImage;
+    private final RenderQuality renderQuality;
 
     public BackgroundImagePlugin(@NonNull final Configuration configuration) throws UserException {
+        renderQuality = configuration.getRenderQuality();
         final var file = configuration.getBackgroundImage();
         if (file != null && file.exists()) {
             try {
@@ -60,11 +66,21 @@ public final class BackgroundImagePlugin implements RendererPlugin {
         final var scaledImage = backgroundImage.getWidth() <= image.getWidth() && backgroundImage.getHeight() <= image.getHeight()
                 ? backgroundImage
                 : Scalr.resize(Scalr.resize(backgroundImage,
-                Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_TO_WIDTH, image.getWidth()),
-                Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_TO_HEIGHT, image.getHeight());
+                renderQuality.getScalingMethod(), Scalr.Mode.FIT_TO_WIDTH, image.getWidth()),
+                renderQuality.getScalingMethod(), Scalr.Mode.FIT_TO_HEIGHT, image.getHeight());
 
-        final var graphics = getGraphics(image);
+        final var graphics = getGraphics(image, renderQuality);
         graphics.drawImage(scaledImage, 0, 0, scaledImage.getWidth(), scaledImage.getHeight(), null);
     }
 
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        return false; // the background is drawn once, not on the frames
+    }
+
+    @Override
+    public Rectangle getRenderedArea() {
+        return new Rectangle();
+    }
+
 }
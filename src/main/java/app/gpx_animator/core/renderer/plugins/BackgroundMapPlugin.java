@@ -22,10 +22,13 @@ import app.gpx_animator.core.renderer.Metadata;
 import app.gpx_animator.core.renderer.RenderingContext;
 import app.gpx_animator.core.renderer.cache.TileCache;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RescaleOp;
 import java.util.ResourceBundle;
@@ -182,4 +185,14 @@ public final class BackgroundMapPlugin implements RendererPlugin {
         return Math.toDegrees(2.0 * (Math.atan(Math.exp(y)) - Math.PI / 4.0));
     }
 
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        return false; // the map is drawn once, not on the frames
+    }
+
+    @Override
+    public Rectangle getRenderedArea() {
+        return new Rectangle();
+    }
+
 }
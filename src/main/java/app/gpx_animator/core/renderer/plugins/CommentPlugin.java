@@ -18,12 +18,15 @@ package app.gpx_animator.core.renderer.plugins;
 import app.gpx_animator.core.configuration.Configuration;
 import app.gpx_animator.core.data.Position;
 import app.gpx_animator.core.data.gpx.GpxPoint;
+import app.gpx_animator.core.renderer.FrameTimeline;
+import app.gpx_animator.core.renderer.Metadata;
 import app.gpx_animator.core.renderer.TextRenderer;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.util.Objects;
 
 // Plugins are loaded using reflection
 @SuppressWarnings("unused")
@@ -32,14 +35,21 @@ public final class CommentPlugin extends TextRenderer implements RendererPlugin
     private final Position position;
     private final int margin;
 
+    private FrameTimeline frameTimeline;
     private String lastComment;
+    private int lastCommentFrame;
 
     public CommentPlugin(@NonNull final Configuration configuration) {
-        super(configuration.getFont());
+        super(configuration.getFont(), configuration.getRenderQuality());
         position = configuration.getCommentPosition();
         margin = configuration.getCommentMargin();
     }
 
+    @Override
+    public void setMetadata(@NonNull final Metadata metadata) {
+        frameTimeline = metadata.frameTimeline();
+    }
+
     @Override
     public int getOrder() {
         return 1_000;
@@ -52,20 +62,48 @@ public final class CommentPlugin extends TextRenderer implements RendererPlugin
             return;
         }
 
-        final var comment = getCommentString(marker);
+        final var comment = marker == null ? null : getCommentString(frame);
         if (comment != null && !comment.isBlank()) {
             renderText(comment, position, margin, image);
         }
     }
 
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        if (Position.HIDDEN.equals(position) || marker == null) {
+            return false;
+        }
+        // the comment of the frame before was already followed, so this only checks the marker of the new frame
+        return !Objects.equals(getCommentString(frame - 1), getCommentString(frame));
+    }
+
+    /**
+     * Follows the markers of all frames up to the given one which are in the video,
+     * skipped idle frames don't count. The comment of the previous frame is kept, so
+     * rendering the frames one after the other only checks the marker of the new frame.
+     */
+    private String getCommentString(final int frame) {
+        if (frame < lastCommentFrame) {
+            lastComment = null;
+            lastCommentFrame = 0;
+        }
+        for (var next = lastCommentFrame + 1; next <= frame; next++) {
+            if (!frameTimeline.isIdle(next)) {
+                updateComment(frameTimeline.getMarker(next));
+            }
+        }
+        lastCommentFrame = frame;
+        return lastComment;
+    }
+
     /**
      * This method has a special behaviour:
-     * - If the track point has a comment, it returns the comment.
-     * - If the track point has no comment, it returns the last comment.
+     * - If the track point has a comment, it becomes the comment.
+     * - If the track point has no comment, the last comment stays.
      * - If the track point has an empty comment, it resets the comment.
      */
-    private String getCommentString(@Nullable final Point2D marker) {
-        if (marker instanceof GpxPoint gpxPoint) {
+    private void updateComment(@Nullable final GpxPoint gpxPoint) {
+        if (gpxPoint != null) {
             final var trackPoint = gpxPoint.getTrackPoint();
             final var comment = trackPoint.getComment();
 
@@ -82,6 +120,5 @@ public final class CommentPlugin extends TextRenderer implements RendererPlugin
                 }
             }
         }
-        return lastComment;
     }
 }
@@ -19,10 +19,10 @@ import app.gpx_animator.core.configuration.Configuration;
 import app.gpx_animator.core.data.Position;
 import app.gpx_animator.core.data.SpeedUnit;
 import app.gpx_animator.core.data.gpx.GpxPoint;
+import app.gpx_animator.core.renderer.FrameTimeline;
 import app.gpx_animator.core.renderer.Metadata;
 import app.gpx_animator.core.renderer.TextRenderer;
 import app.gpx_animator.core.util.PointUtil;
-import app.gpx_animator.core.util.RenderUtil;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.jetbrains.annotations.Nullable;
@@ -30,8 +30,6 @@ import org.jetbrains.annotations.Nullable;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.text.DateFormat;
-import java.util.HashMap;
-import java.util.Map;
 
 // Plugins are loaded using reflection
 @SuppressWarnings("unused")
@@ -46,16 +44,16 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
     private final SpeedUnit speedUnit;
     private final boolean showDateTime;
 
-    private long minTime;
-    private double speedup;
+    private FrameTimeline frameTimeline;
     private int frames;
     private final long gpsTimeout;
 
-    private final Map<Integer, Double> speedValues = new HashMap<>();
-    private GpxPoint lastSpeedPoint = null;
+    // the text of the last frame, which is needed again to compare it with the next frame
+    private int textFrame;
+    private String text;
 
     public InformationPlugin(@NonNull final Configuration configuration) {
-        super(configuration.getFont());
+        super(configuration.getFont(), configuration.getRenderQuality());
         this.information = configuration.getInformation();
         this.position = configuration.getInformationPosition();
         this.margin = configuration.getInformationMargin();
@@ -68,8 +66,7 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
 
     @Override
     public void setMetadata(@NonNull final Metadata metadata) {
-        this.minTime = metadata.minTime();
-        this.speedup = metadata.speedup();
+        this.frameTimeline = metadata.frameTimeline();
         this.frames = metadata.frames();
     }
 
@@ -85,10 +82,27 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
             return;
         }
 
-        final var time = RenderUtil.getTime(frame, minTime, fps, speedup);
+        renderText(getText(frame, marker), position, margin, image);
+    }
+
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        if (marker == null || Position.HIDDEN.equals(position)) {
+            return false;
+        }
+        final var previousMarker = frameTimeline.getMarker(frame - 1);
+        return previousMarker == null || !getText(frame - 1, previousMarker).equals(getText(frame, marker));
+    }
+
+    private String getText(final int frame, @NonNull final Point2D marker) {
+        if (frame == textFrame && text != null) {
+            return text;
+        }
+
+        final var time = frameTimeline.getTime(frame);
         final var dateTimeString = showDateTime ? dateFormat.format(time) : "";
         final var latLongString = getLatLonString(marker);
-        final var speedString = getSpeedString(marker, time, frame);
+        final var speedString = getSpeedString(marker, frame);
 
         final var gpsTime = getTime(marker);    //TODO --Get strings from resource
         var gpsDateTimeString = "Unknown";
@@ -106,7 +120,7 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
             gpsStatusString = gpsStatus ? "OK" : "LOST";      //TODO --Get strings from resource
         }
 
-        final var text = information
+        text = information
                 .replace("%SPEED%", speedString)                    // Speed
                 .replace("%LATLON%", latLongString)                 // (last) GPS postion
                 .replace("%DATETIME%", dateTimeString)              // Frame (real) time
@@ -114,7 +128,8 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
                 .replace("%GPSDIFFTIME%", gpsDiffTimeString)        // Difference between frame time and last GPS time
                 .replace("%GPSLOSTTIME%", gpsLostTimeString)        // Difference between frame time and last GPS time if GSP LOST
                 .replace("%GPSSTATUS%", gpsStatusString);           // GPS status only [OK/LOST]
-        renderText(text, position, margin, image);
+        textFrame = frame;
+        return text;
     }
 
     private String getLatLonString(@NonNull final Point2D point) {
@@ -126,9 +141,9 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
         }
     }
 
-    public String getSpeedString(final Point2D point, final long time, final int frame) {
-        if (point instanceof GpxPoint gpxPoint) {
-            final var speed = calculateSpeedForDisplay(gpxPoint, time, frame);
+    public String getSpeedString(final Point2D point, final int frame) {
+        if (point instanceof GpxPoint) {
+            final var speed = calculateSpeedForDisplay(frame);
             if (speedUnit.isDisplayMinutes()) {
                 final var format = "%d:%02d %s";
                 return format.formatted((int) speed, (int) ((speed - (int) speed) * 60), speedUnit.getAbbreviation()); // Display minutes and seconds
@@ -149,31 +164,32 @@ public final class InformationPlugin extends TextRenderer implements RendererPlu
         }
     }
 
-    private double calculateSpeedForDisplay(final GpxPoint point, final long time, final int frame) {
+    /**
+     * The speed is averaged over the markers of the frames of the last second which are in the
+     * video, skipped idle frames don't count. It only depends on the frame number, so the frames
+     * can be rendered in any order.
+     */
+    private double calculateSpeedForDisplay(final int frame) {
         if (frame == frames) {
             return 0.0; // for the last frame always zero
         }
 
-        final var speed = point.getSpeed() != null
-                ? point.getSpeed() * 3.6 // mps to kmh
-                : calculateSpeed(point, time);
-
-        speedValues.put(frame, speed);
-
-        final var deleteBefore = frame - (Math.round(fps)); // 1 second
-        speedValues.keySet().removeIf(f -> f < deleteBefore);
-
-        return speedUnit.convertSpeed(Math.round(speedValues.values().stream().mapToDouble(Double::doubleValue).average().orElse(0)));
-    }
-
+        final var firstFrame = (int) Math.max(1, frame - Math.round(fps)); // 1 second
+        final var previousFrame = frameTimeline.previousActiveFrame(firstFrame);
+        var lastPoint = previousFrame < 1 ? null : frameTimeline.getMarker(previousFrame);
+        var speedSum = 0.0;
+        var speedCount = 0;
+        for (var speedFrame = firstFrame; speedFrame <= frame; speedFrame++) {
+            final var point = frameTimeline.isIdle(speedFrame) ? null : frameTimeline.getMarker(speedFrame);
+            if (point != null) {
+                speedSum += point.getSpeed() != null
+                        ? point.getSpeed() * 3.6 // mps to kmh
+                        : PointUtil.calculateSpeed(lastPoint, point, frameTimeline.getTime(speedFrame));
+                speedCount++;
+                lastPoint = point;
+            }
+        }
 
-    private double calculateSpeed(final GpxPoint point, final long time) {
-        final var speed = PointUtil.calculateSpeed(lastSpeedPoint, point, time);
-        lastSpeedPoint = point;
-        return speed;
+        return speedUnit.convertSpeed(Math.round(speedCount == 0 ? 0 : speedSum / speedCount));
     }
-
-
-
-
 }
@@ -36,6 +36,7 @@ public final class LogoPlugin extends ImageRenderer implements RendererPlugin {
     private final int margin;
 
     public LogoPlugin(@NonNull final Configuration configuration) throws UserException {
+        super(configuration.getRenderQuality());
         position = configuration.getLogoPosition();
         margin = configuration.getLogoMargin();
 
@@ -66,4 +67,9 @@ public final class LogoPlugin extends ImageRenderer implements RendererPlugin {
         renderImage(logo, position, margin, image);
     }
 
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        return false; // the same logo at the same position in every frame
+    }
+
 }
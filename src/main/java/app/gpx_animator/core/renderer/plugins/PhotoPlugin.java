@@ -18,13 +18,14 @@ package app.gpx_animator.core.renderer.plugins;
 import app.gpx_animator.core.UserException;
 import app.gpx_animator.core.configuration.Configuration;
 import app.gpx_animator.core.data.Photo;
+import app.gpx_animator.core.data.RenderQuality;
 import app.gpx_animator.core.preferences.Preferences;
+import app.gpx_animator.core.renderer.FrameBufferPool;
 import app.gpx_animator.core.renderer.Metadata;
 import app.gpx_animator.core.renderer.RenderingContext;
 import app.gpx_animator.core.renderer.framewriter.FrameWriter;
 import app.gpx_animator.core.util.DateUtil;
 import app.gpx_animator.core.util.RenderUtil;
-import app.gpx_animator.core.util.Utils;
 import com.drew.imaging.ImageMetadataReader;
 import com.drew.imaging.ImageProcessingException;
 import com.drew.metadata.MetadataException;
@@ -41,6 +42,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -77,18 +79,21 @@ public final class PhotoPlugin implements RendererPlugin {
     private final long photoTime;
     private final long photoFreezeFrameTime;
     private final long photoAnimationDuration;
+    private final RenderQuality renderQuality;
 
     private final Map<Long, List<Photo>> remainingPhotos;
 
     private Metadata metadata;
     private FrameWriter frameWriter;
     private RenderingContext context;
+    private FrameBufferPool frameBufferPool = new FrameBufferPool();
 
     public PhotoPlugin(@NonNull final Configuration configuration) {
         this.fps = configuration.getFps();
         this.photoTime = configuration.getPhotoTime() == null ? 0 : configuration.getPhotoTime();
         this.photoFreezeFrameTime = configuration.getPhotoFreezeFrameTime() == null ? 0 : configuration.getPhotoFreezeFrameTime();
         this.photoAnimationDuration = configuration.getPhotoAnimationDuration() == null ? 0 : configuration.getPhotoAnimationDuration();
+        this.renderQuality = configuration.getRenderQuality();
         this.remainingPhotos = loadPhotos(configuration.getPhotoDirectory());
     }
 
@@ -109,6 +114,12 @@ public final class PhotoPlugin implements RendererPlugin {
         this.context = renderingContext;
     }
 
+    @Override
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "FrameBufferPool is shared with the renderer")
+    public void setFrameBufferPool(@NonNull final FrameBufferPool frameBufferPool) {
+        this.frameBufferPool = frameBufferPool;
+    }
+
     private Map<Long, List<Photo>> loadPhotos(@Nullable final File directory) {
         if (directory == null) {
             return new HashMap<>();
@@ -194,9 +205,21 @@ public final class PhotoPlugin implements RendererPlugin {
         return (int) Math.round(fps * milliseconds / 1_000);
     }
 
+    @Override
+    public boolean supportsRandomAccess() {
+        return false; // every photo is shown only once, in frames added to the video
+    }
+
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        // the photos are added to the video when their frame is drawn
+        final var time = metadata.frameTimeline().getTime(frame);
+        return remainingPhotos.keySet().stream().anyMatch(timeOfPhoto -> time >= timeOfPhoto);
+    }
+
     @Override
     public void renderFrame(final int frame, @Nullable final Point2D marker, @NonNull final BufferedImage bi) {
-        final var time = RenderUtil.getTime(frame, metadata.minTime(), fps, metadata.speedup());
+        final var time = metadata.frameTimeline().getTime(frame);
         final var keys = remainingPhotos.keySet().stream()
                 .filter(timeOfPhoto -> time >= timeOfPhoto)
                 .toList();
@@ -216,7 +239,7 @@ public final class PhotoPlugin implements RendererPlugin {
 
         final var photoImage = readPhoto(photo, frameImage.getWidth() - 20, frameImage.getHeight() - 20);
         if (photoImage != null) {
-            final var bi2 = Utils.deepCopy(frameImage);
+            final var bi2 = frameBufferPool.copyOf(frameImage);
             final var g2d = bi2.createGraphics();
             final var posX = (frameImage.getWidth() - photoImage.getWidth()) / 2;
             final var posY = (frameImage.getHeight() - photoImage.getHeight()) / 2;
@@ -230,17 +253,17 @@ public final class PhotoPlugin implements RendererPlugin {
             final var allFrames = frames + (2 * inOutFrames) + (2 * freezeFrames);
 
             try {
-                renderFreezeFramesBefore(frameImage, freezeFrames, allFrames, filename);
+                renderFreezeFramesBefore(frameImage, freezeFrames, filename);
                 renderAnimationIn(frameImage, photoImage, inOutFrames, freezeFrames, allFrames, filename, marker);
-                for (long frame = 0; frame < frames; frame++) {
-                    final var pct = (int) (100.0 * (freezeFrames + inOutFrames + frame) / allFrames);
-                    context.setProgress1(pct, String.format(resourceBundle.getString(PHOTOS_PROGRESS_RENDERING), filename));
-                    frameWriter.addFrame(bi2);
-                }
+                final var pct = (int) (100.0 * (freezeFrames + inOutFrames) / allFrames);
+                context.setProgress1(pct, String.format(resourceBundle.getString(PHOTOS_PROGRESS_RENDERING), filename));
+                frameWriter.addRepeatedFrame(bi2, frames);
                 renderAnimationOut(frameImage, photoImage, inOutFrames, freezeFrames + inOutFrames + frames, allFrames, filename, marker);
                 renderFreezeFramesAfter(frameImage, freezeFrames, freezeFrames + inOutFrames * 2 + frames, allFrames, filename);
             } catch (final UserException e) {
                 LOGGER.error("Problems rendering photo '{}'!", photo, e);
+            } finally {
+                frameBufferPool.release(bi2);
             }
         }
     }
@@ -251,7 +274,7 @@ public final class PhotoPlugin implements RendererPlugin {
             final var rotatedImage = RenderUtil.rotateImage(originalImage, photo.orientation());
             final var scaledWidth = Math.round(width * 0.8f);
             final var scaledHeight = Math.round(height * 0.8f);
-            final var scaledImage = RenderUtil.scaleImage(rotatedImage, scaledWidth, scaledHeight);
+            final var scaledImage = RenderUtil.scaleImage(rotatedImage, scaledWidth, scaledHeight, renderQuality);
             final var borderedImage = addBorder(scaledImage);
             borderedImage.flush();
             return borderedImage;
@@ -262,13 +285,10 @@ public final class PhotoPlugin implements RendererPlugin {
         return null;
     }
 
-    private void renderFreezeFramesBefore(@NonNull final BufferedImage frameImage, final int frames, final int allFrames,
+    private void renderFreezeFramesBefore(@NonNull final BufferedImage frameImage, final int frames,
                                           @NonNull final String filename) throws UserException {
-        for (long frame = 1; frame <= frames; frame++) {
-            final var pct = (int) (100.0 * frame / allFrames);
-            context.setProgress1(pct, String.format(resourceBundle.getString(PHOTOS_PROGRESS_RENDERING), filename));
-            frameWriter.addFrame(frameImage);
-        }
+        context.setProgress1(0, String.format(resourceBundle.getString(PHOTOS_PROGRESS_RENDERING), filename));
+        frameWriter.addRepeatedFrame(frameImage, frames);
     }
 
     private void renderAnimationIn(@NonNull final BufferedImage frameImage, @NonNull final BufferedImage photoImage, final int frames,
@@ -293,18 +313,16 @@ public final class PhotoPlugin implements RendererPlugin {
 
     private void renderFreezeFramesAfter(@NonNull final BufferedImage frameImage, final int frames, final int frameStart, final int allFrames,
                                          @NonNull final String filename) throws UserException {
-        for (long frame = 1; frame <= frames; frame++) {
-            final var pct = (int) (100.0 * (frameStart + frame) / allFrames);
-            context.setProgress1(pct, String.format(resourceBundle.getString(PHOTOS_PROGRESS_RENDERING), filename));
-            frameWriter.addFrame(frameImage);
-        }
+        final var pct = (int) (100.0 * frameStart / allFrames);
+        context.setProgress1(pct, String.format(resourceBundle.getString(PHOTOS_PROGRESS_RENDERING), filename));
+        frameWriter.addRepeatedFrame(frameImage, frames);
     }
 
     private void renderAnimation(@NonNull final BufferedImage frameImage, @NonNull final BufferedImage photoImage, final long frames,
                                  final long frame, final Point2D marker) throws UserException {
         final var scaledImageWidth = (int) (photoImage.getWidth() * frame / frames);
         final var scaledImageHeight = (int) (photoImage.getHeight() * frame / frames);
-        final var scaledImage = RenderUtil.scaleImage(photoImage, scaledImageWidth, scaledImageHeight);
+        final var scaledImage = RenderUtil.scaleImage(photoImage, scaledImageWidth, scaledImageHeight, renderQuality);
 
         final var upperLeftImageX = (frameImage.getWidth() - scaledImage.getWidth()) / 2;
         final var upperLeftImageY = (frameImage.getHeight() - scaledImage.getHeight()) / 2;
@@ -313,13 +331,17 @@ public final class PhotoPlugin implements RendererPlugin {
         final var upperLeftX = upperLeftImageX - distanceUpperLeftToMarkerX;
         final var upperLeftY = upperLeftImageY - distanceUpperLeftToMarkerY;
 
-        final var bi2 = Utils.deepCopy(frameImage);
+        final var bi2 = frameBufferPool.copyOf(frameImage);
         final var g2d = bi2.createGraphics();
 
         g2d.drawImage(scaledImage, upperLeftX, upperLeftY, null);
         g2d.dispose();
 
-        frameWriter.addFrame(bi2);
+        try {
+            frameWriter.addFrame(bi2);
+        } finally {
+            frameBufferPool.release(bi2);
+        }
     }
 
     private static BufferedImage addBorder(@NonNull final BufferedImage photoImage) {
@@ -344,4 +366,9 @@ public final class PhotoPlugin implements RendererPlugin {
         return border;
     }
 
+    @Override
+    public Rectangle getRenderedArea() {
+        return new Rectangle();
+    }
+
 }
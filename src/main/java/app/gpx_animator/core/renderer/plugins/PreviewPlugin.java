@@ -17,6 +17,7 @@ package app.gpx_animator.core.renderer.plugins;
 
 import app.gpx_animator.core.configuration.Configuration;
 import app.gpx_animator.core.preferences.Preferences;
+import app.gpx_animator.core.renderer.FrameBufferPool;
 import app.gpx_animator.core.util.RenderUtil;
 import app.gpx_animator.ui.UIMode;
 import app.gpx_animator.ui.swing.PreviewDialog;
@@ -24,6 +25,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
@@ -37,9 +39,11 @@ public final class PreviewPlugin implements RendererPlugin {
     private final Configuration configuration;
 
     private PreviewDialog preview;
+    private FrameBufferPool frameBufferPool = new FrameBufferPool();
 
     private int width;
     private int height;
+    private boolean scaled;
 
     private boolean enabled = UIMode.getMode() != UIMode.CLI && Preferences.isPreviewEnabled();
     private long lastUpdate = 0;
@@ -54,6 +58,21 @@ public final class PreviewPlugin implements RendererPlugin {
         return Integer.MAX_VALUE;
     }
 
+    @Override
+    public void setFrameBufferPool(@NonNull final FrameBufferPool frameBufferPool) {
+        this.frameBufferPool = frameBufferPool;
+    }
+
+    @Override
+    public boolean supportsRandomAccess() {
+        return false; // shows the progress of rendering the video
+    }
+
+    @Override
+    public boolean hasChanged(final int frame, @Nullable final Point2D marker) {
+        return false; // a repeated frame looks the same in the preview
+    }
+
     @Override
     public void renderFrame(final int frame, @Nullable final Point2D marker, @NotNull final BufferedImage image) {
         if (!enabled && !configuration.isPreview()) {
@@ -71,8 +90,10 @@ public final class PreviewPlugin implements RendererPlugin {
             calculateImageSize(image);
         }
 
-        final var sameSize = image.getWidth() == width && image.getHeight() == height;
-        final var previewImage = sameSize ? image : RenderUtil.scaleImage(image, width, height);
+        // the renderer reuses the frame buffer, so the preview needs its own copy, which goes back to the pool
+        // when the dialog shows the next preview
+        final var previewImage = scaled ? RenderUtil.scaleImage(image, width, height, configuration.getRenderQuality())
+                : frameBufferPool.copyOf(image);
 
         if (preview == null) {
             preview = new PreviewDialog(this, previewImage);
@@ -97,6 +118,17 @@ public final class PreviewPlugin implements RendererPlugin {
         enabled = false;
     }
 
+    /**
+     * Called by the preview dialog when it doesn't show the image anymore.
+     *
+     * @param image the preview image which was replaced
+     */
+    public void previewReplaced(@NonNull final BufferedImage image) {
+        if (!scaled) {
+            frameBufferPool.release(image);
+        }
+    }
+
     private void calculateImageSize(@NotNull final BufferedImage image) {
         width = image.getWidth();
         height = image.getHeight();
@@ -112,6 +144,12 @@ public final class PreviewPlugin implements RendererPlugin {
             width = newHeight * width / height;
             height = newHeight;
         }
+        scaled = width != image.getWidth() || height != image.getHeight();
+    }
+
+    @Override
+    public Rectangle getRenderedArea() {
+        return new Rectangle();
     }
 
 }
@@ -16,12 +16,15 @@
 package app.gpx_animator.core.renderer.plugins;
 
 import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.renderer.FrameBufferPool;
 import app.gpx_animator.core.renderer.Metadata;
 import app.gpx_animator.core.renderer.RenderingContext;
+import app.gpx_animator.core.renderer.cache.TextSpriteCache;
 import app.gpx_animator.core.renderer.framewriter.FrameWriter;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
+import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 
@@ -92,6 +95,22 @@ public interface RendererPlugin {
      */
     default void setRenderingContext(final @NonNull RenderingContext renderingContext) { }
 
+    /**
+     * <p>Overwrite this method, if you want to borrow frame sized images from
+     * the pool of the renderer instead of allocating new ones.</p>
+     *
+     * @param frameBufferPool the frame buffer pool of the renderer
+     */
+    default void setFrameBufferPool(final @NonNull FrameBufferPool frameBufferPool) { }
+
+    /**
+     * <p>Overwrite this method, if you want to reuse rendered text from the
+     * cache shared by the renderer and all text plugins.</p>
+     *
+     * @param textSpriteCache the text sprite cache of the renderer
+     */
+    default void setTextSpriteCache(final @NonNull TextSpriteCache textSpriteCache) { }
+
     /**
      * <p>This render method is called to render the background image of the
      * video. If the video does not use the moving map feature, the background
@@ -116,6 +135,58 @@ public interface RendererPlugin {
     @SuppressWarnings("RedundantThrows") // implementations throw this exception
     default void renderFrame(final int frame, final @Nullable Point2D marker, final @NonNull BufferedImage image) throws UserException { }
 
+    /**
+     * <p>Single frames can be rendered in any order, e.g. to show a single frame
+     * of the video. Return <code>false</code> if this plugin depends on the frames
+     * being rendered one after the other, or if it doesn't draw on the frames but
+     * does something else, like adding frames to the video. Such plugins are
+     * skipped when single frames are rendered.</p>
+     *
+     * <p>Default is to support rendering single frames.</p>
+     *
+     * @return <code>true</code> if {@link #renderFrame(int, Point2D, BufferedImage)}
+     *         draws the same for a frame, no matter which frames were rendered before
+     */
+    default boolean supportsRandomAccess() {
+        return true;
+    }
+
+    /**
+     * <p>While nothing moves, e.g. when the marker stands still, the renderer repeats the
+     * previous frame instead of drawing the same frame again. It asks all plugins before,
+     * and {@link #renderFrame(int, Point2D, BufferedImage)} is not called for a repeated
+     * frame. This method is only called if the frame before, <code>frame - 1</code>, is in
+     * the video too.</p>
+     *
+     * <p>Return <code>true</code> if this plugin would draw anything different on the frame
+     * than on the frame before, or if it does something else in
+     * {@link #renderFrame(int, Point2D, BufferedImage)} for this frame, like adding frames to
+     * the video.</p>
+     *
+     * <p>Default is <code>true</code>, which means every frame is drawn.</p>
+     *
+     * @param frame  the frame number
+     * @param marker the track point marking the actual position
+     * @return <code>true</code> if the frame has to be drawn because of this plugin
+     */
+    default boolean hasChanged(final int frame, final @Nullable Point2D marker) {
+        return true;
+    }
+
+    /**
+     * <p>This method is called after every call of {@link #renderFrame(int, Point2D, BufferedImage)}
+     * and returns the area of the frame which was modified by the plugin. The renderer reuses its
+     * frame buffer and restores only the modified areas before the next frame is drawn.</p>
+     *
+     * <p>Default is <code>null</code>, which means the modified area is unknown and the whole
+     * frame has to be restored. Return an empty rectangle if the frame was not modified.</p>
+     *
+     * @return the modified area in frame coordinates or <code>null</code> if unknown
+     */
+    default @Nullable Rectangle getRenderedArea() {
+        return null;
+    }
+
     /**
      * <p>This method is called when the rendering has finished successfully.</p>
      *
@@ -0,0 +1,111 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.projection;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Web Mercator projection of the track points onto the map.
+ *
+ * <p>Whole tracks are projected with a vectorized kernel if the JVM was
+ * started with <code>--add-modules jdk.incubator.vector</code>, otherwise
+ * with a scalar kernel.</p>
+ */
+public final class MercatorProjection {
+
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(MercatorProjection.class);
+
+    @NonNls
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    @NonNls
+    private static final String VECTOR_KERNEL = "app.gpx_animator.core.renderer.projection.VectorProjectionKernel";
+
+    private static final ProjectionKernel KERNEL = createKernel();
+
+    private MercatorProjection() throws InstantiationException {
+        throw new InstantiationException("MercatorProjection is a utility class and can't be instantiated!");
+    }
+
+    private static ProjectionKernel createKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return createVectorKernel();
+            } catch (final ReflectiveOperationException | LinkageError e) {
+                LOGGER.warn("The vector API is not usable, projecting track points one by one", e);
+            }
+        }
+        return new ScalarProjectionKernel();
+    }
+
+    /**
+     * Creates the vectorized kernel, which is compiled separately because it
+     * uses the incubating vector API. It must only be created if the module
+     * <code>jdk.incubator.vector</code> is available.
+     *
+     * @return the vectorized kernel
+     * @throws ReflectiveOperationException if the kernel is not on the class path
+     */
+    static ProjectionKernel createVectorKernel() throws ReflectiveOperationException {
+        return Class.forName(VECTOR_KERNEL)
+                .asSubclass(ProjectionKernel.class)
+                .getDeclaredConstructor()
+                .newInstance();
+    }
+
+    public static double lonToX(final double lon) {
+        return Math.toRadians(lon);
+    }
+
+    public static double latToY(final double lat) {
+        return Math.log(Math.tan(Math.PI / 4 + Math.toRadians(lat) / 2));
+    }
+
+    /**
+     * Projects geographic coordinates and finds their bounding box in the same pass.
+     *
+     * @param longitudes the longitudes in degrees
+     * @param latitudes  the latitudes in degrees, as many as longitudes
+     * @param xs         receives the projected x coordinates, as many as longitudes
+     * @param ys         receives the projected y coordinates, as many as longitudes
+     * @return the bounding box of the projected coordinates
+     */
+    public static ProjectedBounds project(@NonNull final double[] longitudes, @NonNull final double[] latitudes,
+                                          @NonNull final double[] xs, @NonNull final double[] ys) {
+        return KERNEL.project(longitudes, latitudes, xs, ys);
+    }
+
+    /**
+     * Translates projected coordinates into pixel coordinates of the map.
+     *
+     * @param xs       the projected x coordinates
+     * @param ys       the projected y coordinates, as many as xs
+     * @param minX     the projected x coordinate of the left border of the map
+     * @param maxY     the projected y coordinate of the top border of the map
+     * @param scale    the number of pixels per projected unit
+     * @param screenXs receives the x coordinates in pixels, as many as xs
+     * @param screenYs receives the y coordinates in pixels, as many as xs
+     */
+    public static void translate(@NonNull final double[] xs, @NonNull final double[] ys,
+                                 final double minX, final double maxY, final double scale,
+                                 @NonNull final float[] screenXs, @NonNull final float[] screenYs) {
+        KERNEL.translate(xs, ys, minX, maxY, scale, screenXs, screenYs);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.projection;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The bounding box of projected points. Without any points, the minimums
+ * are positive and the maximums negative infinity.
+ *
+ * @param minX the smallest projected x coordinate
+ * @param maxX the largest projected x coordinate
+ * @param minY the smallest projected y coordinate
+ * @param maxY the largest projected y coordinate
+ */
+public record ProjectedBounds(double minX, double maxX, double minY, double maxY) {
+
+    /**
+     * The bounds of no points at all.
+     */
+    public static final ProjectedBounds EMPTY = new ProjectedBounds(
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+    /**
+     * @param other the bounds to add
+     * @return the bounds containing both bounds
+     */
+    public ProjectedBounds union(@NonNull final ProjectedBounds other) {
+        return new ProjectedBounds(Math.min(minX, other.minX), Math.max(maxX, other.maxX),
+                Math.min(minY, other.minY), Math.max(maxY, other.maxY));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.projection;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Projects whole arrays of coordinates at once. All arrays passed to a
+ * kernel have the same length.
+ */
+interface ProjectionKernel {
+
+    /**
+     * Projects geographic coordinates with the Web Mercator projection and
+     * finds their bounding box in the same pass.
+     *
+     * @param longitudes the longitudes in degrees
+     * @param latitudes  the latitudes in degrees
+     * @param xs         receives the projected x coordinates
+     * @param ys         receives the projected y coordinates
+     * @return the bounding box of the projected coordinates
+     */
+    ProjectedBounds project(@NonNull double[] longitudes, @NonNull double[] latitudes, @NonNull double[] xs, @NonNull double[] ys);
+
+    /**
+     * Translates projected coordinates into pixel coordinates of the map.
+     *
+     * @param xs       the projected x coordinates
+     * @param ys       the projected y coordinates
+     * @param minX     the projected x coordinate of the left border of the map
+     * @param maxY     the projected y coordinate of the top border of the map
+     * @param scale    the number of pixels per projected unit
+     * @param screenXs receives the x coordinates in pixels
+     * @param screenYs receives the y coordinates in pixels
+     */
+    void translate(@NonNull double[] xs, @NonNull double[] ys, double minX, double maxY, double scale,
+                   @NonNull float[] screenXs, @NonNull float[] screenYs);
+}
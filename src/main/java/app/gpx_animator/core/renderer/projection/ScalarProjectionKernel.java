@@ -0,0 +1,72 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.projection;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Projects one coordinate after the other, used where the vector API is not available.
+ */
+final class ScalarProjectionKernel implements ProjectionKernel {
+
+    @Override
+    public ProjectedBounds project(@NonNull final double[] longitudes, @NonNull final double[] latitudes,
+                                   @NonNull final double[] xs, @NonNull final double[] ys) {
+        return project(longitudes, latitudes, 0, xs, ys);
+    }
+
+    /**
+     * Projects the coordinates from an index on, also used for the remainder of the vectorized kernel.
+     */
+    static ProjectedBounds project(@NonNull final double[] longitudes, @NonNull final double[] latitudes, final int from,
+                                   @NonNull final double[] xs, @NonNull final double[] ys) {
+        var minX = Double.POSITIVE_INFINITY;
+        var maxX = Double.NEGATIVE_INFINITY;
+        var minY = Double.POSITIVE_INFINITY;
+        var maxY = Double.NEGATIVE_INFINITY;
+        for (var i = from; i < longitudes.length; i++) {
+            final var x = MercatorProjection.lonToX(longitudes[i]);
+            final var y = MercatorProjection.latToY(latitudes[i]);
+            xs[i] = x;
+            ys[i] = y;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        return new ProjectedBounds(minX, maxX, minY, maxY);
+    }
+
+    @Override
+    public void translate(@NonNull final double[] xs, @NonNull final double[] ys,
+                          final double minX, final double maxY, final double scale,
+                          @NonNull final float[] screenXs, @NonNull final float[] screenYs) {
+        translate(xs, ys, 0, minX, maxY, scale, screenXs, screenYs);
+    }
+
+    /**
+     * Translates the coordinates from an index on, also used for the remainder of the vectorized kernel.
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber") // the kernel works on plain arrays
+    static void translate(@NonNull final double[] xs, @NonNull final double[] ys, final int from,
+                          final double minX, final double maxY, final double scale,
+                          @NonNull final float[] screenXs, @NonNull final float[] screenYs) {
+        for (var i = from; i < xs.length; i++) {
+            screenXs[i] = (float) ((xs[i] - minX) * scale);
+            screenYs[i] = (float) ((maxY - ys[i]) * scale);
+        }
+    }
+}
@@ -15,10 +15,10 @@
  */
 package app.gpx_animator.core.util;
 
+import app.gpx_animator.core.data.RenderQuality;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 
 import org.imgscalr.Scalr;
@@ -30,13 +30,12 @@ public final class RenderUtil {
     }
 
     public static Graphics2D getGraphics(@NonNull final BufferedImage image) {
+        return getGraphics(image, RenderQuality.FINAL);
+    }
+
+    public static Graphics2D getGraphics(@NonNull final BufferedImage image, @NonNull final RenderQuality quality) {
         final var graphics = (Graphics2D) image.getGraphics();
-        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        graphics.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
-        graphics.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
+        graphics.addRenderingHints(quality.getRenderingHints());
         return graphics;
     }
 
@@ -45,17 +44,23 @@ public final class RenderUtil {
     }
 
     public static BufferedImage scaleImage(@NonNull final BufferedImage photoImage, final int width, final int height) {
+        return scaleImage(photoImage, width, height, RenderQuality.FINAL);
+    }
+
+    public static BufferedImage scaleImage(@NonNull final BufferedImage photoImage, final int width, final int height,
+                                           @NonNull final RenderQuality quality) {
+        final var method = quality.getScalingMethod();
         BufferedImage image;
 
         if (width >= height) {
-            image = Scalr.resize(photoImage, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_TO_WIDTH, width);
+            image = Scalr.resize(photoImage, method, Scalr.Mode.FIT_TO_WIDTH, width);
             if (image.getHeight() > height) {
-                image = Scalr.resize(image, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_TO_HEIGHT, height);
+                image = Scalr.resize(image, method, Scalr.Mode.FIT_TO_HEIGHT, height);
             }
         } else {
-            image = Scalr.resize(photoImage, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_TO_HEIGHT, height);
+            image = Scalr.resize(photoImage, method, Scalr.Mode.FIT_TO_HEIGHT, height);
             if (image.getWidth() > width) {
-                image = Scalr.resize(image, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_TO_WIDTH, width);
+                image = Scalr.resize(image, method, Scalr.Mode.FIT_TO_WIDTH, width);
             }
         }
 
@@ -22,11 +22,14 @@ import app.gpx_animator.core.UserException;
 import app.gpx_animator.core.configuration.Configuration;
 import app.gpx_animator.core.configuration.TrackConfiguration;
 import app.gpx_animator.core.configuration.adapter.FontXmlAdapter;
+import app.gpx_animator.core.data.EncoderProfile;
 import app.gpx_animator.core.data.MusicCodec;
 import app.gpx_animator.core.data.Position;
+import app.gpx_animator.core.data.RenderQuality;
 import app.gpx_animator.core.data.SpeedUnit;
 import app.gpx_animator.core.data.TrackIcon;
 import app.gpx_animator.core.data.VideoCodec;
+import app.gpx_animator.core.data.ViewportMode;
 import app.gpx_animator.core.preferences.Preferences;
 import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.jetbrains.annotations.NotNull;
@@ -168,6 +171,8 @@ public final class CommandLineConfigurationFactory {
                         case MIN_LON -> cfg.minLon(Double.parseDouble(args[++i]));
                         case OUTPUT -> cfg.output(new File(args[++i]));
                         case VIDEO_CODEC -> cfg.videoCodec(VideoCodec.parse(args[++i], VideoCodec.H264));
+                        case ENCODER_PROFILE -> cfg.encoderProfile(EncoderProfile.parse(args[++i], EncoderProfile.BALANCED));
+                        case ENCODER_THREADS -> cfg.encoderThreads(Integer.parseInt(args[++i]));
                         case MUSIC_CODEC -> cfg.musicCodec(MusicCodec.parse(args[++i], MusicCodec.AAC));
                         case LOGO -> cfg.logo(new File(args[++i]));
                         case LOGO_POSITION -> cfg.logoPosition(Position.parse(args[++i]));
@@ -179,6 +184,11 @@ public final class CommandLineConfigurationFactory {
                         case PREVIEW_LENGTH -> cfg.previewLength(Long.parseLong(args[++i]));
                         case SKIP_IDLE -> cfg.skipIdle(Boolean.parseBoolean(args[++i]));
                         case PRE_DRAW_TRACK -> cfg.preDrawTrack(Boolean.parseBoolean(args[++i]));
+                        case RENDER_THREADS -> cfg.renderThreads(Integer.parseInt(args[++i]));
+                        case RENDER_BANDS -> cfg.renderBands(Integer.parseInt(args[++i]));
+                        case FLEET_MODE -> cfg.fleetMode(Boolean.parseBoolean(args[++i]));
+                        case COMPARE_FRAMES -> cfg.compareFrames(Boolean.parseBoolean(args[++i]));
+                        case RENDER_QUALITY -> cfg.renderQuality(RenderQuality.parse(args[++i], RenderQuality.FINAL));
                         case PRE_DRAW_TRACK_COLOR -> preDrawTrackColorList.add((Color.decode(args[++i])));
                         case SPEEDUP -> cfg.speedup(Double.parseDouble(args[++i]));
                         case SPEED_UNIT -> cfg.speedUnit(SpeedUnit.parse(args[++i], SpeedUnit.KMH));
@@ -203,6 +213,7 @@ public final class CommandLineConfigurationFactory {
                         case VIEWPORT_WIDTH -> cfg.viewportWidth(Integer.parseInt(args[++i]));
                         case VIEWPORT_HEIGHT -> cfg.viewportHeight(Integer.parseInt(args[++i]));
                         case VIEWPORT_INERTIA -> cfg.viewportInertia(Integer.parseInt(args[++i]));
+                        case VIEWPORT_MODE -> cfg.viewportMode(ViewportMode.parse(args[++i], ViewportMode.TRAILING));
                         case WAYPOINT_FONT -> cfg.waypointFont(new FontXmlAdapter().unmarshal(args[++i]));
                         case WAYPOINT_SIZE -> cfg.waypointSize(Double.parseDouble(args[++i]));
                         case WIDTH -> cfg.width(Integer.parseInt(args[++i]));
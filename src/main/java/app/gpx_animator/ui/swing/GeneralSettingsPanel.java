@@ -18,11 +18,14 @@ package app.gpx_animator.ui.swing;
 import app.gpx_animator.core.Constants;
 import app.gpx_animator.core.Option;
 import app.gpx_animator.core.configuration.Configuration;
+import app.gpx_animator.core.data.EncoderProfile;
 import app.gpx_animator.core.data.MapTemplate;
 import app.gpx_animator.core.data.MusicCodec;
 import app.gpx_animator.core.data.Position;
+import app.gpx_animator.core.data.RenderQuality;
 import app.gpx_animator.core.data.SpeedUnit;
 import app.gpx_animator.core.data.VideoCodec;
+import app.gpx_animator.core.data.ViewportMode;
 import app.gpx_animator.core.preferences.Preferences;
 import app.gpx_animator.core.util.MapUtil;
 import org.jetbrains.annotations.NotNull;
@@ -92,6 +95,8 @@ abstract class GeneralSettingsPanel extends JPanel {
 
     private final FileSelector outputFileSelector;
     private final JComboBox<VideoCodec> videoCodecComboBox;
+    private final JComboBox<EncoderProfile> encoderProfileComboBox;
+    private final JSpinner encoderThreadsSpinner;
 
     private final FileSelector inputMusicFileSelector;
     private final JComboBox<MusicCodec> musicCodecComboBox;
@@ -100,6 +105,7 @@ abstract class GeneralSettingsPanel extends JPanel {
     private final JSpinner viewportWidthSpinner;
     private final JSpinner viewportHeightSpinner;
     private final JSpinner viewportInertiaSpinner;
+    private final JComboBox<ViewportMode> viewportModeComboBox;
     private final JSpinner zoomSpinner;
     private final JSpinner marginSpinner;
     private final JSpinner logoMarginSpinner;
@@ -145,6 +151,11 @@ abstract class GeneralSettingsPanel extends JPanel {
     private final JSpinner maxLonSpinner;
     private final JSpinner minLatSpinner;
     private final JSpinner gpsTimeoutSpinner;
+    private final JSpinner renderThreadsSpinner;
+    private final JSpinner renderBandsSpinner;
+    private final JCheckBox fleetModeCheckBox;
+    private final JCheckBox compareFramesCheckBox;
+    private final JComboBox<RenderQuality> renderQualityComboBox;
 
     private transient List<MapTemplate> mapTemplateList;
 
@@ -155,7 +166,7 @@ abstract class GeneralSettingsPanel extends JPanel {
     })
     GeneralSettingsPanel() {
         var rowCounter = 0;
-        final var maxRows = 49;
+        final var maxRows = 57;
 
         setBorder(new EmptyBorder(5, 5, 5, 5));
         final var gridBagLayout = new GridBagLayout();
@@ -235,6 +246,44 @@ abstract class GeneralSettingsPanel extends JPanel {
         gbcVideoCodec.gridy = rowCounter;
         add(videoCodecComboBox, gbcVideoCodec);
 
+        final var lblEncoderProfile = new JLabel(resourceBundle.getString("ui.panel.generalsettings.encoderprofile.label"));
+        final var gbcLabelEncoderProfile = new GridBagConstraints();
+        gbcLabelEncoderProfile.anchor = GridBagConstraints.LINE_END;
+        gbcLabelEncoderProfile.insets = new Insets(0, 0, 5, 5);
+        gbcLabelEncoderProfile.gridx = 0;
+        gbcLabelEncoderProfile.gridy = ++rowCounter;
+        add(lblEncoderProfile, gbcLabelEncoderProfile);
+
+        encoderProfileComboBox = new JComboBox<>();
+        encoderProfileComboBox.setToolTipText(Option.ENCODER_PROFILE.getHelp());
+        EncoderProfile.fillComboBox(encoderProfileComboBox);
+        final var gbcEncoderProfileComboBox = new GridBagConstraints();
+        gbcEncoderProfileComboBox.fill = GridBagConstraints.HORIZONTAL;
+        gbcEncoderProfileComboBox.insets = new Insets(0, 0, 5, 0);
+        gbcEncoderProfileComboBox.gridx = 1;
+        gbcEncoderProfileComboBox.gridy = rowCounter;
+        add(encoderProfileComboBox, gbcEncoderProfileComboBox);
+        encoderProfileComboBox.addItemListener(e -> configurationChanged());
+
+        final var lblEncoderThreads = new JLabel(resourceBundle.getString("ui.panel.generalsettings.encoderthreads.label"));
+        final var gbcLabelEncoderThreads = new GridBagConstraints();
+        gbcLabelEncoderThreads.anchor = GridBagConstraints.LINE_END;
+        gbcLabelEncoderThreads.insets = new Insets(0, 0, 5, 5);
+        gbcLabelEncoderThreads.gridx = 0;
+        gbcLabelEncoderThreads.gridy = ++rowCounter;
+        add(lblEncoderThreads, gbcLabelEncoderThreads);
+
+        encoderThreadsSpinner = new JSpinner();
+        encoderThreadsSpinner.setToolTipText(Option.ENCODER_THREADS.getHelp());
+        encoderThreadsSpinner.setModel(new SpinnerNumberModel(0, 0, null, 1));
+        final var gbcEncoderThreadsSpinner = new GridBagConstraints();
+        gbcEncoderThreadsSpinner.fill = GridBagConstraints.HORIZONTAL;
+        gbcEncoderThreadsSpinner.insets = new Insets(0, 0, 5, 0);
+        gbcEncoderThreadsSpinner.gridx = 1;
+        gbcEncoderThreadsSpinner.gridy = rowCounter;
+        add(encoderThreadsSpinner, gbcEncoderThreadsSpinner);
+        encoderThreadsSpinner.addChangeListener(e -> configurationChanged());
+
 
         final var lblInputMusic = new JLabel(resourceBundle.getString("ui.panel.generalsettings.inputmusic.label"));
         final var gbcLabelInputMusic = new GridBagConstraints();
@@ -453,6 +502,25 @@ abstract class GeneralSettingsPanel extends JPanel {
         add(viewportInertiaSpinner, gbcViewportInertiaSpinner);
         viewportInertiaSpinner.addChangeListener(changeListener);
 
+        final var lblViewportMode = new JLabel(resourceBundle.getString("ui.panel.generalsettings.viewport.mode.label"));
+        final var gbcLabelViewportMode = new GridBagConstraints();
+        gbcLabelViewportMode.anchor = GridBagConstraints.LINE_END;
+        gbcLabelViewportMode.insets = new Insets(0, 0, 5, 5);
+        gbcLabelViewportMode.gridx = 0;
+        gbcLabelViewportMode.gridy = ++rowCounter;
+        add(lblViewportMode, gbcLabelViewportMode);
+
+        viewportModeComboBox = new JComboBox<>();
+        viewportModeComboBox.setToolTipText(Option.VIEWPORT_MODE.getHelp());
+        ViewportMode.fillComboBox(viewportModeComboBox);
+        final var gbcViewportModeComboBox = new GridBagConstraints();
+        gbcViewportModeComboBox.fill = GridBagConstraints.HORIZONTAL;
+        gbcViewportModeComboBox.insets = new Insets(0, 0, 5, 0);
+        gbcViewportModeComboBox.gridx = 1;
+        gbcViewportModeComboBox.gridy = rowCounter;
+        add(viewportModeComboBox, gbcViewportModeComboBox);
+        viewportModeComboBox.addItemListener(e -> configurationChanged());
+
         final var lblZoom = new JLabel(resourceBundle.getString("ui.panel.generalsettings.zoom.label"));
         final var gbcLabelZoom = new GridBagConstraints();
         gbcLabelZoom.anchor = GridBagConstraints.LINE_END;
@@ -1450,6 +1518,99 @@ abstract class GeneralSettingsPanel extends JPanel {
         add(gpsTimeoutSpinner, gbcGpsTimeoutSpinner);
         gpsTimeoutSpinner.addChangeListener(changeListener);
 
+        final var lblRenderThreads = new JLabel(resourceBundle.getString("ui.panel.generalsettings.renderthreads.label"));
+        final var gbcLabelRenderThreads = new GridBagConstraints();
+        gbcLabelRenderThreads.anchor = GridBagConstraints.LINE_END;
+        gbcLabelRenderThreads.insets = new Insets(0, 0, 5, 5);
+        gbcLabelRenderThreads.gridx = 0;
+        gbcLabelRenderThreads.gridy = ++rowCounter;
+        add(lblRenderThreads, gbcLabelRenderThreads);
+
+        renderThreadsSpinner = new JSpinner();
+        renderThreadsSpinner.setToolTipText(Option.RENDER_THREADS.getHelp());
+        renderThreadsSpinner.setModel(new SpinnerNumberModel(1, 1, null, 1));
+        final var gbcRenderThreadsSpinner = new GridBagConstraints();
+        gbcRenderThreadsSpinner.fill = GridBagConstraints.HORIZONTAL;
+        gbcRenderThreadsSpinner.insets = new Insets(0, 0, 5, 0);
+        gbcRenderThreadsSpinner.gridx = 1;
+        gbcRenderThreadsSpinner.gridy = rowCounter;
+        add(renderThreadsSpinner, gbcRenderThreadsSpinner);
+        renderThreadsSpinner.addChangeListener(changeListener);
+
+        final var lblRenderBands = new JLabel(resourceBundle.getString("ui.panel.generalsettings.renderbands.label"));
+        final var gbcLabelRenderBands = new GridBagConstraints();
+        gbcLabelRenderBands.anchor = GridBagConstraints.LINE_END;
+        gbcLabelRenderBands.insets = new Insets(0, 0, 5, 5);
+        gbcLabelRenderBands.gridx = 0;
+        gbcLabelRenderBands.gridy = ++rowCounter;
+        add(lblRenderBands, gbcLabelRenderBands);
+
+        renderBandsSpinner = new JSpinner();
+        renderBandsSpinner.setToolTipText(Option.RENDER_BANDS.getHelp());
+        renderBandsSpinner.setModel(new SpinnerNumberModel(1, 1, null, 1));
+        final var gbcRenderBandsSpinner = new GridBagConstraints();
+        gbcRenderBandsSpinner.fill = GridBagConstraints.HORIZONTAL;
+        gbcRenderBandsSpinner.insets = new Insets(0, 0, 5, 0);
+        gbcRenderBandsSpinner.gridx = 1;
+        gbcRenderBandsSpinner.gridy = rowCounter;
+        add(renderBandsSpinner, gbcRenderBandsSpinner);
+        renderBandsSpinner.addChangeListener(changeListener);
+
+        final var lblFleetMode = new JLabel(resourceBundle.getString("ui.panel.generalsettings.fleetmode.label"));
+        final var gbcLabelFleetMode = new GridBagConstraints();
+        gbcLabelFleetMode.anchor = GridBagConstraints.LINE_END;
+        gbcLabelFleetMode.insets = new Insets(0, 0, 5, 5);
+        gbcLabelFleetMode.gridx = 0;
+        gbcLabelFleetMode.gridy = ++rowCounter;
+        add(lblFleetMode, gbcLabelFleetMode);
+
+        fleetModeCheckBox = new JCheckBox("");
+        fleetModeCheckBox.setToolTipText(Option.FLEET_MODE.getHelp());
+        final var gbcFleetModeCheckBox = new GridBagConstraints();
+        gbcFleetModeCheckBox.anchor = GridBagConstraints.LINE_START;
+        gbcFleetModeCheckBox.insets = new Insets(0, 0, 5, 0);
+        gbcFleetModeCheckBox.gridx = 1;
+        gbcFleetModeCheckBox.gridy = rowCounter;
+        add(fleetModeCheckBox, gbcFleetModeCheckBox);
+        fleetModeCheckBox.addItemListener(e -> configurationChanged());
+
+        final var lblCompareFrames = new JLabel(resourceBundle.getString("ui.panel.generalsettings.compareframes.label"));
+        final var gbcLabelCompareFrames = new GridBagConstraints();
+        gbcLabelCompareFrames.anchor = GridBagConstraints.LINE_END;
+        gbcLabelCompareFrames.insets = new Insets(0, 0, 5, 5);
+        gbcLabelCompareFrames.gridx = 0;
+        gbcLabelCompareFrames.gridy = ++rowCounter;
+        add(lblCompareFrames, gbcLabelCompareFrames);
+
+        compareFramesCheckBox = new JCheckBox("");
+        compareFramesCheckBox.setToolTipText(Option.COMPARE_FRAMES.getHelp());
+        final var gbcCompareFramesCheckBox = new GridBagConstraints();
+        gbcCompareFramesCheckBox.anchor = GridBagConstraints.LINE_START;
+        gbcCompareFramesCheckBox.insets = new Insets(0, 0, 5, 0);
+        gbcCompareFramesCheckBox.gridx = 1;
+        gbcCompareFramesCheckBox.gridy = rowCounter;
+        add(compareFramesCheckBox, gbcCompareFramesCheckBox);
+        compareFramesCheckBox.addItemListener(e -> configurationChanged());
+
+        final var lblRenderQuality = new JLabel(resourceBundle.getString("ui.panel.generalsettings.renderquality.label"));
+        final var gbcLabelRenderQuality = new GridBagConstraints();
+        gbcLabelRenderQuality.anchor = GridBagConstraints.LINE_END;
+        gbcLabelRenderQuality.insets = new Insets(0, 0, 5, 5);
+        gbcLabelRenderQuality.gridx = 0;
+        gbcLabelRenderQuality.gridy = ++rowCounter;
+        add(lblRenderQuality, gbcLabelRenderQuality);
+
+        renderQualityComboBox = new JComboBox<>();
+        renderQualityComboBox.setToolTipText(Option.RENDER_QUALITY.getHelp());
+        RenderQuality.fillComboBox(renderQualityComboBox);
+        final var gbcRenderQualityComboBox = new GridBagConstraints();
+        gbcRenderQualityComboBox.fill = GridBagConstraints.HORIZONTAL;
+        gbcRenderQualityComboBox.insets = new Insets(0, 0, 5, 0);
+        gbcRenderQualityComboBox.gridx = 1;
+        gbcRenderQualityComboBox.gridy = rowCounter;
+        add(renderQualityComboBox, gbcRenderQualityComboBox);
+        renderQualityComboBox.addItemListener(e -> configurationChanged());
+
         rowCounter++; // increment rowCounter before check, because it started at index 0
         if (rowCounter != maxRows) {
             throw new IllegalStateException(
@@ -1541,6 +1702,7 @@ abstract class GeneralSettingsPanel extends JPanel {
         viewportHeightSpinner.setValue(c.getViewportHeight());
         viewportWidthSpinner.setValue(c.getViewportWidth());
         viewportInertiaSpinner.setValue(c.getViewportInertia());
+        viewportModeComboBox.setSelectedItem(c.getViewportMode() != null ? c.getViewportMode() : ViewportMode.TRAILING);
         marginSpinner.setValue(c.getMargin());
         logoMarginSpinner.setValue(c.getLogoMargin());
         informationMarginSpinner.setValue(c.getInformationMargin());
@@ -1600,6 +1762,8 @@ abstract class GeneralSettingsPanel extends JPanel {
         inputMusicFileSelector.setFilename(c.getInputMusic() != null ? c.getInputMusic().toString() : "");
         musicCodecComboBox.setSelectedItem(c.getMusicCodec() != null ? c.getMusicCodec() : MusicCodec.AAC);
         videoCodecComboBox.setSelectedItem(c.getVideoCodec() != null ? c.getVideoCodec() : VideoCodec.H264);
+        encoderProfileComboBox.setSelectedItem(c.getEncoderProfile());
+        encoderThreadsSpinner.setValue(c.getEncoderThreads());
         logoFileSelector.setFilename(c.getLogo() != null ? c.getLogo().toString() : "");
         fontSelector.setSelectedFont(c.getFont());
         markerSizeSpinner.setValue(c.getMarkerSize());
@@ -1615,6 +1779,11 @@ abstract class GeneralSettingsPanel extends JPanel {
         commentLocationComboBox.setSelectedItem(c.getCommentPosition() != null ? c.getCommentPosition() : Position.BOTTOM_CENTER);
         speedUnitComboBox.setSelectedItem(c.getSpeedUnit() != null ? c.getSpeedUnit() : SpeedUnit.KMH);
         gpsTimeoutSpinner.setValue(c.getGpsTimeout());
+        renderThreadsSpinner.setValue(c.getRenderThreads());
+        renderBandsSpinner.setValue(c.getRenderBands());
+        fleetModeCheckBox.setSelected(c.isFleetMode());
+        compareFramesCheckBox.setSelected(c.isCompareFrames());
+        renderQualityComboBox.setSelectedItem(c.getRenderQuality() != null ? c.getRenderQuality() : RenderQuality.FINAL);
     }
 
 
@@ -1630,6 +1799,7 @@ abstract class GeneralSettingsPanel extends JPanel {
                 .viewportHeight((Integer) viewportHeightSpinner.getValue())
                 .viewportWidth((Integer) viewportWidthSpinner.getValue())
                 .viewportInertia((Integer) viewportInertiaSpinner.getValue())
+                .viewportMode((ViewportMode) viewportModeComboBox.getSelectedItem())
                 .margin((Integer) marginSpinner.getValue())
                 .logoMargin((Integer) logoMarginSpinner.getValue())
                 .informationMargin((Integer) informationMarginSpinner.getValue())
@@ -1664,6 +1834,8 @@ abstract class GeneralSettingsPanel extends JPanel {
                 .output(outputFileSelector.getFile())
                 .inputMusic(inputMusicFileSelector.getFile())
                 .videoCodec((VideoCodec) videoCodecComboBox.getSelectedItem())
+                .encoderProfile((EncoderProfile) encoderProfileComboBox.getSelectedItem())
+                .encoderThreads((Integer) encoderThreadsSpinner.getValue())
                 .musicCodec((MusicCodec) musicCodecComboBox.getSelectedItem())
                 .font(fontSelector.getSelectedFont())
                 .markerSize((Double) markerSizeSpinner.getValue())
@@ -1678,7 +1850,12 @@ abstract class GeneralSettingsPanel extends JPanel {
                 .attribution(attribution)
                 .attributionPosition((Position) attributionLocationComboBox.getSelectedItem())
                 .speedUnit(speedUnit)
-                .gpsTimeout((Long) gpsTimeoutSpinner.getValue());
+                .gpsTimeout((Long) gpsTimeoutSpinner.getValue())
+                .renderThreads((Integer) renderThreadsSpinner.getValue())
+                .renderBands((Integer) renderBandsSpinner.getValue())
+                .fleetMode(fleetModeCheckBox.isSelected())
+                .compareFrames(compareFramesCheckBox.isSelected())
+                .renderQuality((RenderQuality) renderQualityComboBox.getSelectedItem());
     }
 
     private String generateAttributionText(final boolean replacePlaceholders, final Object tmsItem) {
@@ -38,6 +38,7 @@ public final class PreviewDialog extends JDialog {
 
     private final transient PreviewPlugin plugin;
     private final ImageIcon imageIcon = new ImageIcon();
+    private transient BufferedImage image;
 
     public PreviewDialog(@NonNull final PreviewPlugin plugin, @NonNull final BufferedImage image) {
         super();
@@ -64,6 +65,7 @@ public final class PreviewDialog extends JDialog {
     public void updatePreview(@NonNull final BufferedImage image) {
         SwingUtilities.invokeLater(() -> {
             imageIcon.setImage(image);
+            replaceImage(image);
             this.repaint(1_000);
         });
     }
@@ -72,6 +74,19 @@ public final class PreviewDialog extends JDialog {
         plugin.dialogClosed();
         setVisible(false);
         dispose();
+        SwingUtilities.invokeLater(() -> replaceImage(null));
+    }
+
+    /**
+     * Hands the image which is not shown anymore back to the plugin. This runs on the event
+     * dispatch thread, so the replaced image is not painted anymore.
+     */
+    private void replaceImage(@Nullable final BufferedImage newImage) {
+        final var previous = image;
+        image = newImage;
+        if (previous != null) {
+            plugin.previewReplaced(previous);
+        }
     }
 
 }
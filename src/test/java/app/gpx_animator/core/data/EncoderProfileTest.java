@@ -0,0 +1,55 @@
+package app.gpx_animator.core.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncoderProfileTest {
+
+    @Test
+    void testParse() {
+        assertEquals(EncoderProfile.DRAFT, EncoderProfile.parse("draft", EncoderProfile.BALANCED));
+        assertEquals(EncoderProfile.ARCHIVE, EncoderProfile.parse("ARCHIVE", EncoderProfile.BALANCED));
+        assertEquals(EncoderProfile.SOCIAL, EncoderProfile.parse("social", EncoderProfile.BALANCED));
+        assertEquals(EncoderProfile.BALANCED, EncoderProfile.parse("unknown", EncoderProfile.BALANCED));
+        assertEquals(EncoderProfile.BALANCED, EncoderProfile.parse(null, EncoderProfile.BALANCED));
+    }
+
+    @Test
+    void testBalancedKeepsTheEncoderDefaults() {
+        assertNull(EncoderProfile.BALANCED.getPreset());
+        assertNull(EncoderProfile.BALANCED.getTune());
+        assertEquals(24, EncoderProfile.BALANCED.getCrf());
+        assertEquals(0, EncoderProfile.BALANCED.getBitrate());
+        assertEquals(-1, EncoderProfile.BALANCED.getGopSize(30));
+    }
+
+    @Test
+    void testSocialHasAKeyFrameEveryTwoSeconds() {
+        assertEquals(60, EncoderProfile.SOCIAL.getGopSize(30));
+        assertEquals(60, EncoderProfile.SOCIAL.getGopSize(29.97));
+        assertTrue(EncoderProfile.SOCIAL.getBitrate() > 0);
+    }
+
+    @Test
+    void testEveryProfileIsSupportedByTheLossyCodecs() {
+        for (final var profile : EncoderProfile.values()) {
+            assertTrue(profile.isSupportedBy(VideoCodec.H264));
+            assertTrue(profile.isSupportedBy(VideoCodec.H265));
+        }
+    }
+
+    @Test
+    void testIntermediateCodecsOnlySupportTheProfileWithoutPreset() {
+        for (final var codec : new VideoCodec[] {VideoCodec.FFV1, VideoCodec.UTVIDEO, VideoCodec.RAW}) {
+            assertTrue(EncoderProfile.BALANCED.isSupportedBy(codec));
+            assertFalse(EncoderProfile.DRAFT.isSupportedBy(codec));
+            assertFalse(EncoderProfile.ARCHIVE.isSupportedBy(codec));
+            assertFalse(EncoderProfile.SOCIAL.isSupportedBy(codec));
+        }
+    }
+
+}
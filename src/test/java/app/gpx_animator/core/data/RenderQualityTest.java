@@ -0,0 +1,49 @@
+package app.gpx_animator.core.data;
+
+import org.imgscalr.Scalr;
+import org.junit.jupiter.api.Test;
+
+import java.awt.RenderingHints;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderQualityTest {
+
+    @Test
+    void testParse() {
+        assertEquals(RenderQuality.DRAFT, RenderQuality.parse("draft", RenderQuality.FINAL));
+        assertEquals(RenderQuality.PREVIEW, RenderQuality.parse("PREVIEW", RenderQuality.FINAL));
+        assertEquals(RenderQuality.FINAL, RenderQuality.parse("final", RenderQuality.DRAFT));
+        assertEquals(RenderQuality.FINAL, RenderQuality.parse("unknown", RenderQuality.FINAL));
+        assertEquals(RenderQuality.FINAL, RenderQuality.parse(null, RenderQuality.FINAL));
+    }
+
+    @Test
+    void testFinalKeepsFullQuality() {
+        final var hints = RenderQuality.FINAL.getRenderingHints();
+        assertEquals(RenderingHints.VALUE_ANTIALIAS_ON, hints.get(RenderingHints.KEY_ANTIALIASING));
+        assertEquals(RenderingHints.VALUE_TEXT_ANTIALIAS_ON, hints.get(RenderingHints.KEY_TEXT_ANTIALIASING));
+        assertEquals(RenderingHints.VALUE_FRACTIONALMETRICS_ON, hints.get(RenderingHints.KEY_FRACTIONALMETRICS));
+        assertEquals(RenderingHints.VALUE_RENDER_QUALITY, hints.get(RenderingHints.KEY_RENDERING));
+        assertEquals(RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY, hints.get(RenderingHints.KEY_ALPHA_INTERPOLATION));
+        assertEquals(RenderingHints.VALUE_COLOR_RENDER_QUALITY, hints.get(RenderingHints.KEY_COLOR_RENDERING));
+        assertEquals(Scalr.Method.ULTRA_QUALITY, RenderQuality.FINAL.getScalingMethod());
+    }
+
+    @Test
+    void testDraftDisablesAntialiasing() {
+        final var hints = RenderQuality.DRAFT.getRenderingHints();
+        assertEquals(RenderingHints.VALUE_ANTIALIAS_OFF, hints.get(RenderingHints.KEY_ANTIALIASING));
+        assertEquals(RenderingHints.VALUE_TEXT_ANTIALIAS_OFF, hints.get(RenderingHints.KEY_TEXT_ANTIALIASING));
+        assertEquals(Scalr.Method.SPEED, RenderQuality.DRAFT.getScalingMethod());
+    }
+
+    @Test
+    void testLowerQualitySimplifiesMore() {
+        assertTrue(RenderQuality.FINAL.getSimplificationTolerance() > 0);
+        assertTrue(RenderQuality.PREVIEW.getSimplificationTolerance() > RenderQuality.FINAL.getSimplificationTolerance());
+        assertTrue(RenderQuality.DRAFT.getSimplificationTolerance() > RenderQuality.PREVIEW.getSimplificationTolerance());
+    }
+
+}
@@ -0,0 +1,107 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.data.RenderQuality;
+import org.junit.jupiter.api.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Random;
+
+import static app.gpx_animator.core.util.RenderUtil.getGraphics;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BandRasterizerTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 479;
+
+    private static BufferedImage drawLines(final int bands, final DirtyRegion dirtyRegion) throws UserException {
+        final var image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+        try (var bandRasterizer = new BandRasterizer(bands, Thread.ofPlatform().daemon().factory())) {
+            bandRasterizer.draw(image, dirtyRegion, (band, bandDirtyRegion) -> {
+                final var random = new Random(42);
+                final var g2 = getGraphics(image, RenderQuality.FINAL);
+                g2.clip(band);
+                for (var i = 0; i < 200; i++) {
+                    final var line = new Line2D.Double(random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT,
+                            random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT);
+                    g2.setStroke(new BasicStroke(1 + random.nextFloat() * 20, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                    g2.setColor(new Color(random.nextInt(), true));
+                    g2.draw(line);
+                    if (i == 0) {
+                        bandDirtyRegion.add(line.getBounds2D(), 10);
+                    }
+                }
+                g2.dispose();
+            });
+        }
+        return image;
+    }
+
+    private static byte[] pixels(final BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    @Test
+    void bandsDrawTheSameImage() throws UserException {
+        // given an image drawn at once
+        final var expectedDirtyRegion = new DirtyRegion();
+        final var expected = drawLines(1, expectedDirtyRegion);
+
+        for (final var bands : new int[] {2, 3, 7, HEIGHT + 1}) {
+            // when the same is drawn in bands
+            final var dirtyRegion = new DirtyRegion();
+            final var image = drawLines(bands, dirtyRegion);
+
+            // then the image is exactly the same and the dirty region covers the same area
+            assertArrayEquals(pixels(expected), pixels(image));
+            final var expectedArea = expectedDirtyRegion.getRectangles(WIDTH, HEIGHT).getFirst();
+            final var rectangles = dirtyRegion.getRectangles(WIDTH, HEIGHT);
+            final var area = new Rectangle(rectangles.getFirst());
+            rectangles.forEach(area::add);
+            assertEquals(expectedArea, area);
+        }
+    }
+
+    @Test
+    void fullBandMakesEverythingDirty() throws UserException {
+        // given a painter which makes only the last band full
+        final var dirtyRegion = new DirtyRegion();
+        try (var bandRasterizer = new BandRasterizer(4, Thread.ofPlatform().daemon().factory())) {
+            // when the bands are drawn
+            bandRasterizer.draw(new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR), dirtyRegion, (band, bandDirtyRegion) -> {
+                if (band.getMaxY() == HEIGHT) {
+                    bandDirtyRegion.setFull();
+                }
+            });
+        }
+
+        // then the whole image is dirty
+        assertTrue(dirtyRegion.isFull());
+    }
+
+    @Test
+    void failureOfAnyBandIsReported() {
+        try (var bandRasterizer = new BandRasterizer(4, Thread.ofPlatform().daemon().factory())) {
+            // when one of the bands fails
+            final var image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+            final var exception = assertThrows(UserException.class, () -> bandRasterizer.draw(image, new DirtyRegion(),
+                    (band, bandDirtyRegion) -> {
+                        if (band.y > 0) {
+                            throw new UserException("band failed");
+                        }
+                    }));
+
+            // then the failure is thrown by the calling thread
+            assertEquals("band failed", exception.getMessage());
+        }
+    }
+}
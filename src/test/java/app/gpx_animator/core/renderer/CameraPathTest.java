@@ -0,0 +1,119 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.ViewportMode;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CameraPathTest {
+
+    private static final Dimension MAP = new Dimension(10_000, 8_000);
+    private static final Dimension VIEWPORT = new Dimension(300, 200);
+
+    private static double[] randomWalk(final Random random, final int frames, final double start) {
+        final var values = new double[frames + 1];
+        var value = start;
+        for (var frame = 0; frame <= frames; frame++) {
+            // half pixels keep the sums exact, so the result doesn't depend on the order of the additions
+            value += random.nextInt(21) - 10;
+            values[frame] = random.nextInt(10) == 0 ? Double.NaN : value + 0.5;
+        }
+        return values;
+    }
+
+    private static int expectedPosition(final double[] markers, final int frame, final ViewportMode mode, final int inertia,
+                                        final int size, final int viewportSize) {
+        final var shown = new ArrayList<Integer>();
+        var current = 0;
+        for (var i = 0; i < markers.length; i++) {
+            if (!Double.isNaN(markers[i])) {
+                if (i <= frame) {
+                    current = shown.size();
+                }
+                shown.add(i);
+            }
+        }
+        final var start = mode.getWindowStart(current, inertia);
+        var sum = 0.0;
+        for (var i = start; i < start + inertia; i++) {
+            sum += markers[shown.get(Math.clamp(i, 0, shown.size() - 1))];
+        }
+        final var position = sum / inertia - viewportSize / 2.0;
+        return (int) Math.clamp(position, 0, size - viewportSize);
+    }
+
+    @Test
+    void everyModeAveragesItsWindowOfMarkers() {
+        final var random = new Random(42);
+        for (final var mode : ViewportMode.values()) {
+            for (final var inertia : new int[] {1, 2, 7, 50}) {
+                // given a marker which walks randomly and is missing in some frames
+                final var xs = randomWalk(random, 1_000, 5_000);
+                final var ys = randomWalk(random, 1_000, 100);
+                for (var frame = 0; frame < xs.length; frame++) {
+                    ys[frame] = Double.isNaN(xs[frame]) ? Double.NaN : ys[frame];
+                    xs[frame] = Double.isNaN(ys[frame]) ? Double.NaN : xs[frame];
+                }
+
+                // when the camera path is planned
+                final var path = CameraPath.plan(xs, ys, mode, inertia, MAP, VIEWPORT);
+
+                // then every frame looks at the average of the markers in its window
+                assertEquals(1_000, path.getFrames());
+                for (var frame = 0; frame <= 1_000; frame++) {
+                    assertEquals(expectedPosition(xs, frame, mode, inertia, MAP.width, VIEWPORT.width), path.getX(frame));
+                    assertEquals(expectedPosition(ys, frame, mode, inertia, MAP.height, VIEWPORT.height), path.getY(frame));
+                }
+            }
+        }
+    }
+
+    @Test
+    void centeredModeKeepsSteadyMarkerInTheCenter() {
+        // given a marker moving at a steady speed
+        final var xs = new double[101];
+        final var ys = new double[101];
+        for (var frame = 0; frame <= 100; frame++) {
+            xs[frame] = 1_000 + frame * 10;
+            ys[frame] = 1_000;
+        }
+
+        // when the camera path is planned with centered smoothing
+        final var path = CameraPath.plan(xs, ys, ViewportMode.CENTERED, 11, MAP, VIEWPORT);
+
+        // then the marker is in the center of the viewport, away from the start and the end of the track
+        for (var frame = 5; frame <= 95; frame++) {
+            final var viewport = path.getViewport(frame);
+            assertEquals(xs[frame], viewport.getCenterX(), 0);
+            assertEquals(ys[frame], viewport.getCenterY(), 0);
+        }
+    }
+
+    @Test
+    void viewportStaysOnTheMap() {
+        // given a marker running from outside the top left to outside the bottom right corner of the map
+        final var xs = new double[201];
+        final var ys = new double[201];
+        for (var frame = 0; frame <= 200; frame++) {
+            xs[frame] = -500 + frame * 60.0;
+            ys[frame] = -500 + frame * 50.0;
+        }
+
+        for (final var mode : ViewportMode.values()) {
+            // when the camera path is planned
+            final var path = CameraPath.plan(xs, ys, mode, 20, MAP, VIEWPORT);
+
+            // then the viewport never leaves the map
+            for (var frame = 0; frame <= 200; frame++) {
+                final var viewport = path.getViewport(frame);
+                assertTrue(viewport.x >= 0 && viewport.getMaxX() <= MAP.width);
+                assertTrue(viewport.y >= 0 && viewport.getMaxY() <= MAP.height);
+            }
+        }
+    }
+}
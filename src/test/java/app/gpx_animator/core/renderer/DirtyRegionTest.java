@@ -0,0 +1,58 @@
+package app.gpx_animator.core.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyRegionTest {
+
+    @Test
+    void addPadsAndClipsToImage() {
+        // given an empty dirty region
+        final var dirtyRegion = new DirtyRegion();
+        assertTrue(dirtyRegion.isEmpty());
+
+        // when adding an area at the border of the image with a padding
+        dirtyRegion.add(new Rectangle2D.Double(0.5, 10.5, 5, 5), 1.5);
+
+        // then the area is padded and clipped to the image bounds
+        assertEquals(List.of(new Rectangle(0, 7, 9, 12)), dirtyRegion.getRectangles(100, 100));
+    }
+
+    @Test
+    void manyAreasAreMerged() {
+        // given a dirty region with more areas than it keeps separately
+        final var dirtyRegion = new DirtyRegion();
+        for (var i = 0; i < 100; i++) {
+            dirtyRegion.add(new Rectangle(i, i, 1, 1));
+        }
+
+        // when asking for the dirty areas
+        final var rectangles = dirtyRegion.getRectangles(1_000, 1_000);
+
+        // then all areas are covered
+        final var union = new Rectangle(rectangles.getFirst());
+        rectangles.forEach(union::add);
+        assertTrue(union.contains(new Rectangle(0, 0, 100, 100)));
+    }
+
+    @Test
+    void fullRegionCoversWholeImage() {
+        // given a dirty region with one small area
+        final var dirtyRegion = new DirtyRegion();
+        dirtyRegion.add(new Rectangle(10, 10, 5, 5));
+
+        // when the whole image is marked as dirty
+        dirtyRegion.setFull();
+        dirtyRegion.add(new Rectangle(20, 20, 5, 5));
+
+        // then the dirty region covers the whole image
+        assertTrue(dirtyRegion.isFull());
+        assertEquals(List.of(new Rectangle(0, 0, 640, 480)), dirtyRegion.getRectangles(640, 480));
+    }
+}
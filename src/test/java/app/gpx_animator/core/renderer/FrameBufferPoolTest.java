@@ -0,0 +1,112 @@
+package app.gpx_animator.core.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FrameBufferPoolTest {
+
+    @Test
+    void releasedImageIsRecycled() {
+        // given a pool with one released image
+        final var pool = new FrameBufferPool();
+        final var image = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+        pool.release(image);
+
+        // when borrowing an image with the same size and type
+        final var recycled = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+
+        // then the released image is returned
+        assertSame(image, recycled);
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.getOutstandingCount());
+    }
+
+    @Test
+    void differentSizeIsNotRecycled() {
+        // given a pool with one released image
+        final var pool = new FrameBufferPool();
+        final var image = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+        pool.release(image);
+
+        // when borrowing an image with a different size
+        final var other = pool.acquire(32, 64, BufferedImage.TYPE_3BYTE_BGR);
+
+        // then a new image is allocated
+        assertNotSame(image, other);
+        assertEquals(0, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+    }
+
+    @Test
+    void copyOfOverwritesRecycledContent() {
+        // given a pool with a released image full of stale content
+        final var pool = new FrameBufferPool();
+        final var stale = pool.acquire(8, 8, BufferedImage.TYPE_4BYTE_ABGR);
+        final var g = stale.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 8, 8);
+        g.dispose();
+        pool.release(stale);
+
+        // when copying a transparent image
+        final var copy = pool.copyOf(new BufferedImage(8, 8, BufferedImage.TYPE_4BYTE_ABGR));
+
+        // then the stale content is gone
+        assertSame(stale, copy);
+        assertEquals(0, copy.getRGB(4, 4));
+    }
+
+    @Test
+    void imageReleasedTwiceIsRecycledOnce() {
+        // given a pool with an image which is released twice
+        final var pool = new FrameBufferPool();
+        final var image = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+        pool.release(image);
+        pool.release(image);
+
+        // when borrowing two images with the same size and type
+        final var first = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+        final var second = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+
+        // then the image is only handed to one of the borrowers
+        assertSame(image, first);
+        assertNotSame(first, second);
+        assertEquals(2, pool.getOutstandingCount());
+    }
+
+    @Test
+    void foreignImageIsNotRecycled() {
+        // given a pool and an image which was not borrowed from it
+        final var pool = new FrameBufferPool();
+        final var foreign = new BufferedImage(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+
+        // when the image is released to the pool
+        pool.release(foreign);
+
+        // then it is not handed out and the outstanding count stays the same
+        assertNotSame(foreign, pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR));
+        assertEquals(1, pool.getOutstandingCount());
+    }
+
+    @Test
+    void imageReturnedAfterCloseIsDropped() {
+        // given a closed pool with an image which is still in use
+        final var pool = new FrameBufferPool();
+        final var image = pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+        pool.close();
+
+        // when the image is returned
+        pool.release(image);
+
+        // then it counts as returned, but is not kept
+        assertEquals(0, pool.getOutstandingCount());
+        assertNotSame(image, pool.acquire(64, 32, BufferedImage.TYPE_3BYTE_BGR));
+    }
+}
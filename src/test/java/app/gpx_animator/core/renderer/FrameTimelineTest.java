@@ -0,0 +1,134 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.entity.TrackPoint;
+import app.gpx_animator.core.util.RenderUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrameTimelineTest {
+
+    private static TrackTimeline segment(final Random random, final long from, final int points) {
+        final var builder = TrackTimeline.builder();
+        var time = from;
+        for (var i = 0; i < points; i++) {
+            builder.add(time, 0, 0, new TrackPoint(47.0, 8.0, time, null, null));
+            time += 1 + random.nextInt(3_000);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void timesMatchTheFrameTimeFormula() {
+        // given a frame timeline with a fractional frame duration
+        final var frameTimeline = new FrameTimeline(1_000, 1_000_000, 29.97, 7.5, new SegmentIndex(List.of()));
+
+        // then every frame has the time calculated by the formula
+        assertEquals(1_000, frameTimeline.getFrames());
+        for (var frame = 0; frame <= 1_000; frame++) {
+            assertEquals(RenderUtil.getTime(frame, 1_000_000, 29.97, 7.5), frameTimeline.getTime(frame));
+        }
+    }
+
+    @Test
+    void markersMatchLookups() {
+        // given several tracks with random segments and pauses between them
+        final var random = new Random(42);
+        final var tracks = new ArrayList<List<TrackTimeline>>();
+        for (var track = 0; track < 5; track++) {
+            final var timelines = new ArrayList<TrackTimeline>();
+            var start = (long) random.nextInt(100_000);
+            for (var i = 0; i < 10; i++) {
+                final var timeline = segment(random, start, 1 + random.nextInt(50));
+                timelines.add(timeline);
+                start = timeline.getLastTime() + random.nextInt(20_000);
+            }
+            tracks.add(timelines);
+        }
+        final var segmentIndex = new SegmentIndex(tracks);
+
+        // when the marker positions are precomputed
+        final var frameTimeline = new FrameTimeline(2_000, 0, 25, 10, segmentIndex);
+
+        // then every frame has the same marker positions as looking them up
+        for (var frame = 0; frame <= 2_000; frame++) {
+            final var time = frameTimeline.getTime(frame);
+            for (var track = 0; track < tracks.size(); track++) {
+                final var id = segmentIndex.markerSegment(track, time);
+                assertEquals(id, frameTimeline.getMarkerSegment(frame, track));
+                if (id >= 0) {
+                    assertEquals(segmentIndex.getTimeline(id).floorIndex(time), frameTimeline.getMarkerIndex(frame, track));
+                }
+            }
+        }
+    }
+
+    @Test
+    void markerIsOnTheLastStartedTrack() {
+        // given two tracks where the second one starts later
+        final var random = new Random(42);
+        final var first = segment(random, 0, 100);
+        final var second = segment(random, 50_000, 100);
+        first.translate(0, 0, 1);
+        second.translate(0, 0, 1);
+        final var frameTimeline = new FrameTimeline(1_000, 0, 25, 10, new SegmentIndex(List.of(List.of(first), List.of(second))));
+
+        for (var frame = 0; frame <= 1_000; frame++) {
+            // when the marker of a frame is requested
+            final var marker = frameTimeline.getMarker(frame);
+
+            // then it is the point of the second track as soon as it started, else the one of the first track
+            final var time = frameTimeline.getTime(frame);
+            final var timeline = time >= second.getFirstTime() ? second : first;
+            assertEquals(timeline.getTime(timeline.floorIndex(time)), marker.getTime());
+        }
+    }
+
+    @Test
+    void previousActiveFrameMatchesLinearSearch() {
+        // given a frame timeline with idle frames between short and long active spans
+        final var spanIndex = new SpanIndex(List.of(
+                new Long[]{1_000L, 1_050L},
+                new Long[]{1_060L, 1_065L},
+                new Long[]{5_000L, 9_000L},
+                new Long[]{20_000L, 20_001L}));
+        final var frameTimeline = new FrameTimeline(1_000, 0, 25, 1, new SegmentIndex(List.of()), spanIndex);
+
+        for (var frame = 1; frame <= 1_001; frame++) {
+            // when searching for the last frame before which is in the video
+            final var previous = frameTimeline.previousActiveFrame(frame);
+
+            // then it is the last frame found by checking one frame after the other backwards
+            var expected = frame - 1;
+            while (expected >= 1 && !spanIndex.isActive(frameTimeline.getTime(expected))) {
+                expected--;
+            }
+            assertEquals(Math.max(expected, 0), previous);
+            assertEquals(!spanIndex.isActive(frameTimeline.getTime(Math.min(frame, 1_000))), frameTimeline.isIdle(Math.min(frame, 1_000)));
+        }
+    }
+
+    @Test
+    void firstFrameAtOrAfterMatchesLinearSearch() {
+        // given a frame timeline where several frames share the same time
+        final var frameTimeline = new FrameTimeline(500, 0, 60, 0.01, new SegmentIndex(List.of()));
+
+        for (var time = -1L; time <= frameTimeline.getTime(500) + 1; time++) {
+            for (final var from : new int[] {0, 1, 250, 500}) {
+                // when searching for the first frame of a time
+                final var frame = frameTimeline.firstFrameAtOrAfter(time, from);
+
+                // then it is the first frame found by checking one frame after the other
+                var expected = from;
+                while (expected <= 500 && frameTimeline.getTime(expected) < time) {
+                    expected++;
+                }
+                assertEquals(expected, frame);
+            }
+        }
+    }
+}
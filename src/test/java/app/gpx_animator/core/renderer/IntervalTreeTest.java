@@ -0,0 +1,36 @@
+package app.gpx_animator.core.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class IntervalTreeTest {
+
+    @Test
+    void queryMatchesLinearSearch() {
+        // given many random intervals, some of them empty because they end before they start
+        final var random = new Random(42);
+        final var starts = new long[500];
+        final var ends = new long[500];
+        for (var i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(10_000);
+            ends[i] = starts[i] - 10 + random.nextInt(1_000);
+        }
+        final var tree = new IntervalTree(starts, ends);
+
+        for (var i = 0; i < 1_000; i++) {
+            // when querying a random range
+            final var from = random.nextInt(11_000) - 500L;
+            final var to = from + random.nextInt(100);
+
+            // then the same intervals are found as by checking all of them, in ascending order
+            final var expected = IntStream.range(0, starts.length)
+                    .filter(id -> starts[id] <= to && ends[id] >= from && starts[id] <= ends[id])
+                    .toArray();
+            assertArrayEquals(expected, tree.query(from, to));
+        }
+    }
+}
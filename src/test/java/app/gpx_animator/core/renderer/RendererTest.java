@@ -0,0 +1,140 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.configuration.Configuration;
+import app.gpx_animator.core.configuration.TrackConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RendererTest {
+
+    private static final RenderingContext RENDERING_CONTEXT = new RenderingContext() {
+        @Override
+        public void setProgress1(final int pct, final String message) { }
+
+        @Override
+        public boolean isCancelled1() {
+            return false;
+        }
+    };
+
+    @TempDir
+    Path tempDir;
+
+    private static TrackConfiguration track(final String gpx, final Color color) {
+        return TrackConfiguration.createBuilder()
+                .inputGpx(new File(RendererTest.class.getResource("/gpx/" + gpx).getFile()))
+                .color(color)
+                .build();
+    }
+
+    /**
+     * The bike ride is followed by a stopover with waypoints and comments, the hours between them are skipped as idle.
+     */
+    private static Configuration.Builder configuration(final Path output) {
+        return Configuration.createBuilder()
+                .addTrackConfiguration(track("bikeride.gpx", Color.BLUE))
+                .addTrackConfiguration(track("stopover.gpx", Color.RED))
+                .output(output.resolve("frame%05d.png").toFile())
+                .width(320)
+                .viewportWidth(160)
+                .viewportHeight(120)
+                .fps(4)
+                .skipIdle(true)
+                .flashbackDuration(1_000L)
+                .waypointSize(6.0);
+    }
+
+    private static List<BufferedImage> render(final Configuration configuration) throws UserException, IOException {
+        new Renderer(configuration).render(RENDERING_CONTEXT);
+        final var frames = new ArrayList<BufferedImage>();
+        try (var files = Files.list(configuration.getOutput().getParentFile().toPath())) {
+            for (final var file : files.sorted().toList()) {
+                frames.add(ImageIO.read(file.toFile()));
+            }
+        }
+        return frames;
+    }
+
+    private Path createDirectory(final String name) throws IOException {
+        return Files.createDirectory(tempDir.resolve(name));
+    }
+
+    private static void assertSamePixels(final BufferedImage expected, final BufferedImage actual, final String message) {
+        final var width = expected.getWidth();
+        final var height = expected.getHeight();
+        assertEquals(width, actual.getWidth(), message);
+        assertEquals(height, actual.getHeight(), message);
+        assertArrayEquals(expected.getRGB(0, 0, width, height, null, 0, width),
+                actual.getRGB(0, 0, width, height, null, 0, width), message);
+    }
+
+    @Test
+    void singleFramesMatchTheSequentialRender() throws UserException, IOException {
+        // given the frames of a sequential render
+        final var sequentialFrames = render(configuration(createDirectory("sequential")).build());
+
+        // when the frames which are in the video are rendered one by one in shuffled order
+        final var renderer = new Renderer(configuration(createDirectory("random")).build());
+        final var frames = renderer.prepare(RENDERING_CONTEXT);
+        final var videoFrames = new ArrayList<Integer>();
+        for (var frame = 1; frame <= frames; frame++) {
+            if (!renderer.isSkipped(frame)) {
+                videoFrames.add(frame);
+            }
+        }
+        assertTrue(videoFrames.size() < frames, "The idle frames between the tracks are skipped");
+        assertEquals(videoFrames.size(), sequentialFrames.size());
+
+        final var order = new ArrayList<>(videoFrames);
+        Collections.shuffle(order, new Random(42));
+
+        // then every frame has exactly the pixels of the same frame in the sequential render
+        for (final var frame : order) {
+            final var expected = sequentialFrames.get(videoFrames.indexOf(frame));
+            assertSamePixels(expected, renderer.renderFrame(frame), "Frame %d".formatted(frame));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"4, 1", "1, 3", "4, 3"})
+    void parallelFramesMatchTheSequentialRender(final int renderThreads, final int renderBands) throws UserException, IOException {
+        // given the frames of a sequential render, which keeps the first and the last frame for a second
+        final var sequentialFrames = render(configuration(createDirectory("sequential"))
+                .keepFirstFrame(1_000L)
+                .keepLastFrame(1_000L)
+                .build());
+
+        // when the same video is rendered with several threads and bands
+        final var parallelFrames = render(configuration(createDirectory("parallel"))
+                .keepFirstFrame(1_000L)
+                .keepLastFrame(1_000L)
+                .renderThreads(renderThreads)
+                .renderBands(renderBands)
+                .build());
+
+        // then every frame has exactly the same pixels
+        assertEquals(sequentialFrames.size(), parallelFrames.size());
+        for (var i = 0; i < sequentialFrames.size(); i++) {
+            assertSamePixels(sequentialFrames.get(i), parallelFrames.get(i), "File %d".formatted(i + 1));
+        }
+    }
+}
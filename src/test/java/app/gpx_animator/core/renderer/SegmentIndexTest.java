@@ -0,0 +1,112 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.entity.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SegmentIndexTest {
+
+    private static TrackTimeline segment(final long from, final long to) {
+        return TrackTimeline.builder()
+                .add(from, 0, 0, new TrackPoint(47.0, 8.0, from, null, null))
+                .add(to, 0, 0, new TrackPoint(47.0, 8.0, to, null, null))
+                .build();
+    }
+
+    @Test
+    void queryFindsOverlappingSegmentsInDrawingOrder() {
+        // given two tracks with segments in the order of the tracks
+        final var index = new SegmentIndex(List.of(
+                List.of(segment(3_000, 4_000), segment(1_000, 2_000)),
+                List.of(segment(1_500, 3_500))));
+
+        // then only the overlapping segments are found, in the order of the tracks
+        assertArrayEquals(new int[] {1, 2}, index.query(1_200, 1_600));
+        assertArrayEquals(new int[] {0, 2}, index.query(3_200, 3_300));
+        assertArrayEquals(new int[] {0, 1, 2}, index.query(2_000, 3_000));
+        assertArrayEquals(new int[0], index.query(4_001, 5_000));
+        assertEquals(1, index.getTrack(2));
+    }
+
+    @Test
+    void queryMatchesLinearSearch() {
+        // given many random segments
+        final var random = new Random(42);
+        final var tracks = new ArrayList<List<TrackTimeline>>();
+        final var segments = new ArrayList<TrackTimeline>();
+        for (var track = 0; track < 10; track++) {
+            final var timelines = new ArrayList<TrackTimeline>();
+            for (var i = 0; i < 100; i++) {
+                final var start = random.nextInt(100_000);
+                final var timeline = segment(start, start + 1 + random.nextInt(5_000));
+                timelines.add(timeline);
+                segments.add(timeline);
+            }
+            tracks.add(timelines);
+        }
+        final var index = new SegmentIndex(tracks);
+
+        for (var i = 0; i < 1_000; i++) {
+            // when querying a random time window
+            final var from = random.nextInt(110_000);
+            final var to = from + random.nextInt(2_000);
+
+            // then the same segments are found as by checking all of them
+            final var expected = IntStream.range(0, segments.size())
+                    .filter(id -> segments.get(id).getFirstTime() <= to && segments.get(id).getLastTime() >= from)
+                    .toArray();
+            assertArrayEquals(expected, index.query(from, to));
+        }
+    }
+
+    @Test
+    void markerSegmentIsTheFirstStartedSegmentOfTheTrack() {
+        // given a track with segments which are not in chronological order
+        final var index = new SegmentIndex(List.of(
+                List.of(segment(1_000, 2_000)),
+                List.of(segment(5_000, 6_000), segment(3_000, 4_000))));
+
+        // then the marker is on the first segment in the track which has started
+        assertEquals(-1, index.markerSegment(1, 2_999));
+        assertEquals(2, index.markerSegment(1, 3_000));
+        assertEquals(1, index.markerSegment(1, 5_000));
+        assertEquals(0, index.markerSegment(0, 9_000));
+    }
+
+    @Test
+    void lastStartedTrackMatchesLinearSearch() {
+        // given many tracks, several of them starting at the same time and one without segments
+        final var random = new Random(42);
+        final var tracks = new ArrayList<List<TrackTimeline>>();
+        for (var track = 0; track < 200; track++) {
+            final var timelines = new ArrayList<TrackTimeline>();
+            if (track != 7) {
+                for (var i = 0; i < 3; i++) {
+                    final var start = 1_000L * random.nextInt(50);
+                    timelines.add(segment(start, start + 500));
+                }
+            }
+            tracks.add(timelines);
+        }
+        final var index = new SegmentIndex(tracks);
+
+        for (var time = -1_000L; time <= 60_000; time += 250) {
+            // when searching for the last track which started
+            final var track = index.lastStartedTrack(time);
+
+            // then it is the highest track with a marker segment
+            var expected = tracks.size() - 1;
+            while (expected >= 0 && index.markerSegment(expected, time) < 0) {
+                expected--;
+            }
+            assertEquals(expected, track);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package app.gpx_animator.core.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpanIndexTest {
+
+    @Test
+    void overlappingSpansAreMerged() {
+        // given unsorted and overlapping spans
+        final var spanIndex = new SpanIndex(List.of(
+                new Long[]{5_000L, 6_000L},
+                new Long[]{1_000L, 2_000L},
+                new Long[]{1_500L, 3_000L}));
+
+        // then times inside of any span are active
+        assertTrue(spanIndex.isActive(1_000));
+        assertTrue(spanIndex.isActive(2_500));
+        assertTrue(spanIndex.isActive(3_000));
+        assertTrue(spanIndex.isActive(6_000));
+
+        // and times between the spans are idle
+        assertFalse(spanIndex.isActive(999));
+        assertFalse(spanIndex.isActive(3_001));
+        assertFalse(spanIndex.isActive(6_001));
+    }
+
+    @Test
+    void nextActiveTime() {
+        // given two spans with a gap
+        final var spanIndex = new SpanIndex(List.of(new Long[]{1_000L, 2_000L}, new Long[]{5_000L, 6_000L}));
+
+        // then the next active time is found
+        assertEquals(1_000, spanIndex.nextActiveTime(0));
+        assertEquals(1_500, spanIndex.nextActiveTime(1_500));
+        assertEquals(5_000, spanIndex.nextActiveTime(2_001));
+        assertEquals(SpanIndex.NONE, spanIndex.nextActiveTime(6_001));
+    }
+
+    @Test
+    void previousActiveTime() {
+        // given two spans with a gap
+        final var spanIndex = new SpanIndex(List.of(new Long[]{1_000L, 2_000L}, new Long[]{5_000L, 6_000L}));
+
+        // then the previous active time is found
+        assertEquals(SpanIndex.NONE_BEFORE, spanIndex.previousActiveTime(999));
+        assertEquals(1_500, spanIndex.previousActiveTime(1_500));
+        assertEquals(2_000, spanIndex.previousActiveTime(4_999));
+        assertEquals(6_000, spanIndex.previousActiveTime(7_000));
+    }
+}
@@ -0,0 +1,103 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.configuration.TrackConfiguration;
+import app.gpx_animator.core.data.entity.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+import static app.gpx_animator.core.util.RenderUtil.getGraphics;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailRendererTest {
+
+    private static final Color TRACK_COLOR = new Color(255, 0, 0);
+    private static final Color TAIL_COLOR = new Color(0, 0, 255);
+    private static final long TAIL_DURATION = 60_000;
+
+    private static TailRenderer createTailRenderer() {
+        final var builder = TrackTimeline.builder();
+        for (var i = 0; i < 100; i++) {
+            builder.add(i * 1_000L, i, i % 10, new TrackPoint(47.0, 8.0, i * 1_000L, null, null));
+        }
+        final var timeline = builder.build();
+        timeline.translate(0, 20, 1);
+        final var trackConfiguration = TrackConfiguration.createBuilder().color(TRACK_COLOR).lineWidth(2f).build();
+        return new TailRenderer(new SegmentIndex(List.of(List.of(timeline))), List.of(trackConfiguration), TAIL_COLOR, true, 99_000);
+    }
+
+    private static int[] render(final TailRenderer tailRenderer, final long time) {
+        return render(tailRenderer, time, null);
+    }
+
+    private static int[] render(final TailRenderer tailRenderer, final long time, final Rectangle clip) {
+        final var image = new BufferedImage(120, 30, BufferedImage.TYPE_INT_RGB);
+        final var g2 = getGraphics(image);
+        g2.clip(clip);
+        tailRenderer.paint(g2, time, TAIL_DURATION, new DirtyRegion());
+        g2.dispose();
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test
+    void colorRampDiffersAtMostOneLevelFromTheExactFade() {
+        // given random ratios of the tail
+        final var random = new Random(42);
+        for (var i = 0; i < 10_000; i++) {
+            final var ratio = Math.max(Float.MIN_VALUE, random.nextFloat());
+
+            // when the color is taken from the ramp
+            final var exact = TailRenderer.blendTailColor(TRACK_COLOR, TAIL_COLOR, ratio);
+            final var step = TailRenderer.colorStep(ratio);
+            final var quantized = TailRenderer.blendTailColor(TRACK_COLOR, TAIL_COLOR, (step + 1f) / TailRenderer.COLOR_STEPS);
+
+            // then it is almost the exact color
+            assertTrue(Math.abs(exact.getRed() - quantized.getRed()) <= 1);
+            assertTrue(Math.abs(exact.getBlue() - quantized.getBlue()) <= 1);
+        }
+    }
+
+    @Test
+    void newestPartOfTheTailHasTheTailColor() {
+        assertEquals(TailRenderer.COLOR_STEPS - 1, TailRenderer.colorStep(1f));
+        assertEquals(0, TailRenderer.colorStep(Float.MIN_VALUE));
+    }
+
+    @Test
+    void slidingWindowHandlesTimeGoingBackwards() {
+        // given a tail renderer which already rendered a later frame
+        final var tailRenderer = createTailRenderer();
+        render(tailRenderer, 30_000);
+        render(tailRenderer, 90_000);
+
+        // when an earlier frame is rendered
+        final var image = render(tailRenderer, 50_000);
+
+        // then it looks like the frame rendered by a new tail renderer
+        assertArrayEquals(render(createTailRenderer(), 50_000), image);
+    }
+
+    @Test
+    void clippedTailMatchesTheUnclippedTailInsideTheClip() {
+        // given a clip which contains only a part of the tail
+        final var clip = new Rectangle(70, 0, 12, 30);
+
+        // when the tail is rendered with and without the clip
+        final var clipped = render(createTailRenderer(), 99_000, clip);
+        final var unclipped = render(createTailRenderer(), 99_000);
+
+        // then the pixels inside the clip are the same and nothing is drawn outside of it
+        for (var y = 0; y < 30; y++) {
+            for (var x = 0; x < 120; x++) {
+                final var expected = clip.contains(x, y) ? unclipped[y * 120 + x] : 0xff000000;
+                assertEquals(expected, clipped[y * 120 + x]);
+            }
+        }
+    }
+}
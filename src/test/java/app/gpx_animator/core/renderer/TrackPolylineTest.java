@@ -0,0 +1,141 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.entity.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackPolylineTest {
+
+    private static TrackTimeline timelineOf(final double[][] points) {
+        final var builder = TrackTimeline.builder();
+        for (var i = 0; i < points.length; i++) {
+            builder.add(i * 1_000L, points[i][0], -points[i][1], new TrackPoint(47.0, 8.0, i * 1_000L, null, null));
+        }
+        final var timeline = builder.build();
+        timeline.translate(0, 0, 1);
+        return timeline;
+    }
+
+    private static double distanceToPolyline(final TrackPolyline polyline, final double x, final double y) {
+        var distance = Double.MAX_VALUE;
+        for (var point = 1; point < polyline.size(); point++) {
+            distance = Math.min(distance, Line2D.ptSegDist(polyline.getX(point - 1), polyline.getY(point - 1),
+                    polyline.getX(point), polyline.getY(point), x, y));
+        }
+        return distance;
+    }
+
+    @Test
+    void straightLineKeepsOnlyBothEnds() {
+        // given a dense straight line
+        final var points = new double[1_000][];
+        for (var i = 0; i < points.length; i++) {
+            points[i] = new double[]{i * 0.1, i * 0.05};
+        }
+
+        // when it is simplified
+        final var polyline = TrackPolyline.simplify(timelineOf(points), 0.5);
+
+        // then only the first and the last point are kept
+        assertEquals(2, polyline.size());
+        assertEquals(0, polyline.getIndex(0));
+        assertEquals(999, polyline.getIndex(1));
+        assertEquals(999_000, polyline.getTime(1));
+    }
+
+    @Test
+    void cornersAreKept() {
+        // given a line with a sharp corner
+        final var timeline = timelineOf(new double[][]{{0, 0}, {5, 0}, {10, 0}, {10, 5}, {10, 10}});
+
+        // when it is simplified
+        final var polyline = TrackPolyline.simplify(timeline, 0.5);
+
+        // then the corner is kept
+        assertEquals(3, polyline.size());
+        assertEquals(2, polyline.getIndex(1));
+        assertTrue(polyline.isKept(2));
+        assertFalse(polyline.isKept(1));
+        assertEquals(0, polyline.floorPoint(1));
+        assertEquals(1, polyline.floorPoint(3));
+    }
+
+    @Test
+    void stationaryJitterIsCollapsed() {
+        // given a long stop with GPS jitter between two moves
+        final var random = new Random(42);
+        final var points = new double[502][];
+        points[0] = new double[]{0, 0};
+        for (var i = 1; i <= 500; i++) {
+            points[i] = new double[]{50 + random.nextDouble() * 0.2, 50 + random.nextDouble() * 0.2};
+        }
+        points[501] = new double[]{100, 0};
+
+        // when it is simplified
+        final var polyline = TrackPolyline.simplify(timelineOf(points), 1);
+
+        // then the stop is a single point
+        assertEquals(3, polyline.size());
+        assertEquals(1, polyline.getIndex(1));
+    }
+
+    @Test
+    void zeroToleranceKeepsAllPoints() {
+        // given a straight line
+        final var timeline = timelineOf(new double[][]{{0, 0}, {1, 0}, {2, 0}, {3, 0}});
+
+        // when it is not simplified
+        final var polyline = TrackPolyline.simplify(timeline, 0);
+
+        // then all points are kept
+        assertEquals(4, polyline.size());
+    }
+
+    @Test
+    void droppedPointsStayWithinTolerance() {
+        // given a random walk
+        final var random = new Random(42);
+        final var points = new double[5_000][];
+        var x = 0.0;
+        var y = 0.0;
+        for (var i = 0; i < points.length; i++) {
+            x += random.nextGaussian() * 0.3;
+            y += random.nextGaussian() * 0.3;
+            points[i] = new double[]{x, y};
+        }
+        final var timeline = timelineOf(points);
+
+        // when it is simplified
+        final var tolerance = 0.5;
+        final var polyline = TrackPolyline.simplify(timeline, tolerance);
+
+        // then far fewer points are drawn, but every point is still close to the line
+        assertTrue(polyline.size() < timeline.size() / 2);
+        for (var index = 0; index < timeline.size(); index++) {
+            assertTrue(distanceToPolyline(polyline, timeline.getX(index), timeline.getY(index)) <= tolerance + 1e-4);
+        }
+    }
+
+    @Test
+    void droppedPointIsLocatedOnTheSimplifiedLine() {
+        // given a point slightly off a straight line
+        final var timeline = timelineOf(new double[][]{{0, 0}, {4, 0.1}, {10, 0}});
+        final var polyline = TrackPolyline.simplify(timeline, 0.5);
+
+        // when the dropped point is located
+        final var location = new Point2D.Float();
+        polyline.locate(1, location);
+
+        // then it is projected onto the line between the kept points
+        assertEquals(2, polyline.size());
+        assertEquals(4f, location.x, 1e-4);
+        assertEquals(0f, location.y, 1e-4);
+    }
+}
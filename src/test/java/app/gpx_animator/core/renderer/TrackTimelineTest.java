@@ -0,0 +1,103 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.entity.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TrackTimelineTest {
+
+    private static TrackTimeline timelineOf(final long... times) {
+        final var builder = TrackTimeline.builder();
+        for (var i = 0; i < times.length; i++) {
+            builder.add(times[i], i, i, new TrackPoint(47.0, 8.0, times[i], null, null));
+        }
+        final var timeline = builder.build();
+        timeline.translate(0, 0, 1);
+        return timeline;
+    }
+
+    @Test
+    void duplicateTimesInSortedTrack() {
+        // given a sorted track with duplicate times
+        final var timeline = timelineOf(1_000, 1_000, 1_000, 1_001, 2_000);
+
+        // then every point gets the next free time
+        assertEquals(5, timeline.size());
+        assertEquals(1_000, timeline.getTime(0));
+        assertEquals(1_001, timeline.getTime(1));
+        assertEquals(1_002, timeline.getTime(2));
+        assertEquals(1_003, timeline.getTime(3));
+        assertEquals(2_000, timeline.getTime(4));
+
+        // and the points keep their original time
+        assertEquals(1_000, timeline.getPoint(2).getTime());
+    }
+
+    @Test
+    void duplicateTimesInUnsortedTrack() {
+        // given an unsorted track with duplicate times
+        final var timeline = timelineOf(3_000, 1_000, 1_001, 1_000);
+
+        // then the points are sorted and every point gets the next free time
+        assertEquals(1_000, timeline.getTime(0));
+        assertEquals(1_001, timeline.getTime(1));
+        assertEquals(1_002, timeline.getTime(2));
+        assertEquals(3_000, timeline.getTime(3));
+        assertEquals(3, timeline.getX(2), 0);
+    }
+
+    @Test
+    void floorAndCeiling() {
+        // given a track with three points
+        final var timeline = timelineOf(1_000, 2_000, 3_000);
+
+        // then floor and ceiling find the nearest points
+        assertEquals(-1, timeline.floorIndex(999));
+        assertEquals(0, timeline.floorIndex(1_000));
+        assertEquals(1, timeline.floorIndex(2_999));
+        assertEquals(0, timeline.ceilingIndex(0));
+        assertEquals(2, timeline.ceilingIndex(2_001));
+        assertEquals(-1, timeline.ceilingIndex(3_001));
+    }
+
+    @Test
+    void retainRange() {
+        // given a track with four points
+        final var timeline = timelineOf(1_000, 2_000, 3_000, 4_000);
+
+        // when trimming the first and the last point
+        timeline.retainRange(1_500, 3_500);
+
+        // then the points in between are left
+        assertEquals(2, timeline.size());
+        assertEquals(2_000, timeline.getFirstTime());
+        assertEquals(3_000, timeline.getLastTime());
+        assertEquals(1, timeline.getX(0), 0);
+        assertNull(timeline.getPoint(0).getSpeed());
+    }
+
+    @Test
+    void splitToArea() {
+        // given a track which leaves the area and comes back
+        final var builder = TrackTimeline.builder();
+        final float[] xs = {0, 5, 20, 30, 20, 8, 2};
+        for (var i = 0; i < xs.length; i++) {
+            builder.add(i * 1_000L, xs[i], 0, new TrackPoint(47.0, 8.0, i * 1_000L, null, null));
+        }
+        final var timeline = builder.build();
+        timeline.translate(0, 0, 1);
+
+        // when the lines outside of the area are dropped
+        final var parts = timeline.splitToArea(0, -1, 10, 1);
+
+        // then the track is split into the parts inside the area, each with the first point outside of it
+        assertEquals(2, parts.size());
+        assertEquals(0, parts.get(0).getFirstTime());
+        assertEquals(2_000, parts.get(0).getLastTime());
+        assertEquals(4_000, parts.get(1).getFirstTime());
+        assertEquals(6_000, parts.get(1).getLastTime());
+        assertEquals(20, parts.get(1).getX(0), 0);
+    }
+}
@@ -0,0 +1,96 @@
+package app.gpx_animator.core.renderer;
+
+import app.gpx_animator.core.data.RenderQuality;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaypointLayerTest {
+
+    private static WaypointLayer layerOf(final TreeMap<Long, Point2D> waypoints) {
+        return new WaypointLayer(waypoints, 100, 100, RenderQuality.FINAL, (g2, waypoint, dirtyRegion) -> {
+            final var square = new Rectangle2D.Double(waypoint.getX() - 2, waypoint.getY() - 2, 4, 4);
+            g2.setColor(Color.red);
+            g2.fill(square);
+            dirtyRegion.add(square, 0);
+        });
+    }
+
+    @Test
+    void waypointsAreDrawnOnceReached() {
+        // given two waypoints
+        final var waypoints = new TreeMap<Long, Point2D>();
+        waypoints.put(1_000L, new Point2D.Double(10, 10));
+        waypoints.put(2_000L, new Point2D.Double(80, 80));
+        final var layer = layerOf(waypoints);
+
+        // then no waypoint is reached at its exact time
+        assertNull(layer.update(1_000));
+
+        // when the first waypoint is reached
+        final var first = layer.update(1_001);
+        final var image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        final var dirtyRegion = new DirtyRegion();
+        WaypointLayer.draw(first, image, dirtyRegion);
+
+        // then only the first waypoint is drawn
+        assertEquals(Color.red.getRGB(), image.getRGB(10, 10));
+        assertEquals(Color.black.getRGB(), image.getRGB(80, 80));
+        assertTrue(first.area().contains(10, 10));
+        assertFalse(first.area().contains(80, 80));
+        assertFalse(dirtyRegion.isEmpty());
+
+        // and the snapshot is reused as long as no further waypoint is reached
+        assertSame(first, layer.update(1_999));
+
+        // when the second waypoint is reached
+        final var second = layer.update(2_001);
+        WaypointLayer.draw(second, image, new DirtyRegion());
+
+        // then a new snapshot contains both waypoints
+        assertNotSame(first, second);
+        assertEquals(Color.red.getRGB(), image.getRGB(80, 80));
+        assertTrue(second.area().contains(10, 10));
+    }
+
+    @Test
+    void waypointsAreDrawnInPlaceUnlessTheSnapshotIsInFlight() {
+        // given three waypoints
+        final var waypoints = new TreeMap<Long, Point2D>();
+        waypoints.put(1_000L, new Point2D.Double(10, 10));
+        waypoints.put(2_000L, new Point2D.Double(50, 50));
+        waypoints.put(3_000L, new Point2D.Double(80, 80));
+        final var layer = layerOf(waypoints);
+        final var first = layer.update(1_001);
+
+        // when the second waypoint is reached after the first snapshot was composited
+        final var second = layer.update(2_001, false);
+
+        // then it is drawn into the same layer
+        assertSame(first.layer(), second.layer());
+        assertNotSame(first, second);
+
+        // when the third waypoint is reached while the second snapshot is in flight
+        final var third = layer.update(3_001, true);
+
+        // then it is drawn into a copy and the second snapshot doesn't change
+        assertNotSame(second.layer(), third.layer());
+        final var image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        WaypointLayer.draw(second, image, new DirtyRegion());
+        assertEquals(Color.black.getRGB(), image.getRGB(80, 80));
+        WaypointLayer.draw(third, image, new DirtyRegion());
+        assertEquals(Color.red.getRGB(), image.getRGB(10, 10));
+        assertEquals(Color.red.getRGB(), image.getRGB(80, 80));
+    }
+}
@@ -0,0 +1,40 @@
+package app.gpx_animator.core.renderer.cache;
+
+import app.gpx_animator.core.data.RenderQuality;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SpriteCacheTest {
+
+    @Test
+    void markerSpriteIsSharedByAllMarkersOfTheSameColor() {
+        // given an empty cache
+        final var cache = new SpriteCache();
+
+        // when the markers of several tracks are requested
+        final var red = cache.getMarkerSprite(Color.red, 8, RenderQuality.FINAL);
+        final var otherRed = cache.getMarkerSprite(new Color(255, 0, 0), 8, RenderQuality.FINAL);
+        final var blue = cache.getMarkerSprite(Color.blue, 8, RenderQuality.FINAL);
+
+        // then the tracks with the same color share one sprite
+        assertSame(red, otherRed);
+        assertNotSame(red, blue);
+    }
+
+    @Test
+    void markerIsCenteredAtTheOrigin() {
+        // given a marker sprite
+        final var sprite = new SpriteCache().getMarkerSprite(Color.red, 9, RenderQuality.FINAL);
+        final var origin = SpriteCache.getMarkerOrigin(9);
+
+        // then the center has the color of the marker and the corners are transparent
+        assertEquals(Color.red.getRGB(), sprite.getRGB(origin, origin));
+        assertEquals(0, sprite.getRGB(0, 0) >>> 24);
+        assertEquals(0, sprite.getRGB(sprite.getWidth() - 1, sprite.getHeight() - 1) >>> 24);
+    }
+}
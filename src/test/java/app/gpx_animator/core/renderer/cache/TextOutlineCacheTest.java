@@ -0,0 +1,60 @@
+package app.gpx_animator.core.renderer.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextOutlineCacheTest {
+
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+    private static List<Float> coordinates(final Shape shape) {
+        final var coordinates = new ArrayList<Float>();
+        final var segment = new float[6];
+        for (final var iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            final var type = iterator.currentSegment(segment);
+            coordinates.add((float) type);
+            for (final var coordinate : segment) {
+                coordinates.add(coordinate);
+            }
+        }
+        return coordinates;
+    }
+
+    @Test
+    void textIsLaidOutOnlyOnce() {
+        // given an empty cache
+        final var cache = new TextOutlineCache();
+
+        // when the same text is requested at two positions
+        cache.getOutline("text", FONT, FRC, 10.25, 20.5);
+        cache.getOutline("text", FONT, FRC, 30.75, 40.125);
+
+        // then it is laid out once and served from the cache the second time
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void outlineIsTheSameAsLaidOutAtThePosition() {
+        // given a cache with a text
+        final var cache = new TextOutlineCache();
+        cache.getOutline("Big Sur", FONT, FRC, 0, 0);
+
+        // when the cached outline is moved to a position with fractions of a pixel
+        final var outline = cache.getOutline("Big Sur", FONT, FRC, 123.37f, 45.81f);
+
+        // then it has exactly the coordinates of the text laid out at that position
+        final var expected = new TextLayout("Big Sur", FONT, FRC).getOutline(AffineTransform.getTranslateInstance(123.37f, 45.81f));
+        assertEquals(coordinates(expected), coordinates(outline));
+    }
+}
@@ -0,0 +1,72 @@
+package app.gpx_animator.core.renderer.cache;
+
+import app.gpx_animator.core.renderer.cache.TextSpriteCache.TextSprite;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TextSpriteCacheTest {
+
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+
+    private static TextSprite sprite(final AtomicInteger renderCount) {
+        renderCount.incrementAndGet();
+        return new TextSprite(new BufferedImage(1, 1, TextSpriteCache.SPRITE_TYPE), 0, 0);
+    }
+
+    @Test
+    void textIsRenderedOnlyOnce() {
+        // given an empty cache
+        final var cache = new TextSpriteCache();
+        final var renderCount = new AtomicInteger();
+
+        // when the same text is requested twice
+        final var first = cache.getSprite("text", FONT, "style", () -> sprite(renderCount));
+        final var second = cache.getSprite("text", FONT, "style", () -> sprite(renderCount));
+
+        // then it is rendered once and served from the cache the second time
+        assertSame(first, second);
+        assertEquals(1, renderCount.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void styleIsPartOfTheKey() {
+        // given a cache with a text
+        final var cache = new TextSpriteCache();
+        final var renderCount = new AtomicInteger();
+        cache.getSprite("text", FONT, "left", () -> sprite(renderCount));
+
+        // when the same text is requested with another style and font
+        cache.getSprite("text", FONT, "right", () -> sprite(renderCount));
+        cache.getSprite("text", FONT.deriveFont(20f), "left", () -> sprite(renderCount));
+
+        // then both are rendered
+        assertEquals(3, renderCount.get());
+    }
+
+    @Test
+    void leastRecentlyUsedTextIsDropped() {
+        // given a full cache with two texts
+        final var cache = new TextSpriteCache(2);
+        final var renderCount = new AtomicInteger();
+        cache.getSprite("a", FONT, "style", () -> sprite(renderCount));
+        cache.getSprite("b", FONT, "style", () -> sprite(renderCount));
+
+        // when the first text is used again and a third text is added
+        cache.getSprite("a", FONT, "style", () -> sprite(renderCount));
+        cache.getSprite("c", FONT, "style", () -> sprite(renderCount));
+
+        // then the second text was dropped, but the first one is still cached
+        cache.getSprite("a", FONT, "style", () -> sprite(renderCount));
+        assertEquals(3, renderCount.get());
+        cache.getSprite("b", FONT, "style", () -> sprite(renderCount));
+        assertEquals(4, renderCount.get());
+    }
+}
@@ -0,0 +1,71 @@
+package app.gpx_animator.core.renderer.framewriter;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BgrFrameBufferTest {
+
+    private static BufferedImage randomImage(final int width, final int height) {
+        final var random = new Random(42);
+        final var image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (var y = 0; y < height; y++) {
+            for (var x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static void assertPixels(final BufferedImage expected, final ByteBuffer actual) {
+        assertEquals(expected.getWidth() * expected.getHeight() * 3, actual.remaining());
+        for (var y = 0; y < expected.getHeight(); y++) {
+            for (var x = 0; x < expected.getWidth(); x++) {
+                final var rgb = expected.getRGB(x, y);
+                assertEquals((byte) rgb, actual.get());
+                assertEquals((byte) (rgb >> 8), actual.get());
+                assertEquals((byte) (rgb >> 16), actual.get());
+            }
+        }
+    }
+
+    @Test
+    void fillCopiesTheFrameInBgrOrder() {
+        // given a frame
+        final var image = randomImage(37, 23);
+
+        // when it is copied into the buffer
+        final var bytes = new BgrFrameBuffer().fill(image);
+
+        // then the buffer holds the blue, green and red channel of every pixel
+        assertPixels(image, bytes);
+    }
+
+    @Test
+    void fillCopiesTheRowsOfASubImage() {
+        // given a sub image whose rows are not contiguous
+        final var image = randomImage(64, 48).getSubimage(5, 7, 31, 19);
+        final var frameBuffer = new BgrFrameBuffer();
+        frameBuffer.fill(randomImage(64, 48));
+
+        // when it is copied into a buffer which held a larger frame before
+        final var bytes = frameBuffer.fill(image);
+
+        // then only the pixels of the sub image are in the buffer
+        assertTrue(BgrFrameBuffer.supports(image));
+        assertPixels(image, bytes);
+    }
+
+    @Test
+    void onlyBgrFramesAreSupported() {
+        assertTrue(BgrFrameBuffer.supports(new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR)));
+        assertFalse(BgrFrameBuffer.supports(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB)));
+        assertFalse(BgrFrameBuffer.supports(new BufferedImage(4, 4, BufferedImage.TYPE_4BYTE_ABGR)));
+    }
+}
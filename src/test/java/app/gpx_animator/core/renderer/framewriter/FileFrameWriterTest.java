@@ -0,0 +1,100 @@
+package app.gpx_animator.core.renderer.framewriter;
+
+import app.gpx_animator.core.UserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class FileFrameWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static BufferedImage image(final int rgb) {
+        final var image = new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+        image.setRGB(0, 0, rgb);
+        return image;
+    }
+
+    private String framePattern() {
+        return tempDir.resolve("frame%03d.png").toString();
+    }
+
+    private Path frame(final int number) {
+        return tempDir.resolve("frame%03d.png".formatted(number));
+    }
+
+    private List<Path> frames() throws IOException {
+        try (var files = Files.list(tempDir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    void repeatedFrameIsWrittenToConsecutiveFiles() throws UserException, IOException {
+        // given a file frame writer
+        final var writer = new FileFrameWriter(framePattern(), "png", 30);
+
+        // when a frame is repeated three times
+        writer.addRepeatedFrame(image(0x111111), 3);
+        writer.close();
+
+        // then there are three consecutively numbered files with the same content
+        assertEquals(List.of(frame(1), frame(2), frame(3)), frames());
+        final var content = Files.readAllBytes(frame(1));
+        assertArrayEquals(content, Files.readAllBytes(frame(2)));
+        assertArrayEquals(content, Files.readAllBytes(frame(3)));
+    }
+
+    @Test
+    void numberingContinuesAfterRepeatedFrame() throws UserException, IOException {
+        // given a file frame writer
+        final var writer = new FileFrameWriter(framePattern(), "png", 30);
+
+        // when a single frame follows a repeated frame
+        writer.addFrame(image(0x111111));
+        writer.addRepeatedFrame(image(0x222222), 2);
+        writer.addFrame(image(0x333333));
+        writer.close();
+
+        // then the files are numbered one after the other
+        assertEquals(List.of(frame(1), frame(2), frame(3), frame(4)), frames());
+        assertArrayEquals(Files.readAllBytes(frame(2)), Files.readAllBytes(frame(3)));
+        assertNotEquals(-1L, Files.mismatch(frame(3), frame(4)));
+    }
+
+    @Test
+    void repeatedFrameIsCopiedWithoutHardLinks() throws UserException, IOException {
+        // given a file frame writer on a file system without hard links
+        final var linkAttempts = new AtomicInteger();
+        final var writer = new FileFrameWriter(framePattern(), "png", 30, (link, existing) -> {
+            linkAttempts.incrementAndGet();
+            throw new IOException("hard links are not supported");
+        });
+
+        // when frames are repeated
+        writer.addRepeatedFrame(image(0x111111), 3);
+        writer.addRepeatedFrame(image(0x222222), 2);
+        writer.close();
+
+        // then the repetitions are copies and no more links are tried after the first failure
+        assertEquals(List.of(frame(1), frame(2), frame(3), frame(4), frame(5)), frames());
+        final var first = Files.readAllBytes(frame(1));
+        assertArrayEquals(first, Files.readAllBytes(frame(2)));
+        assertArrayEquals(first, Files.readAllBytes(frame(3)));
+        assertArrayEquals(Files.readAllBytes(frame(4)), Files.readAllBytes(frame(5)));
+        assertFalse(Files.isSameFile(frame(1), frame(2)));
+        assertEquals(1, linkAttempts.get());
+    }
+}
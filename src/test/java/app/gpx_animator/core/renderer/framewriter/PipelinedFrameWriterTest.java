@@ -0,0 +1,228 @@
+package app.gpx_animator.core.renderer.framewriter;
+
+import app.gpx_animator.core.UserException;
+import app.gpx_animator.core.renderer.FrameBufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelinedFrameWriterTest {
+
+    private static final class RecordingFrameWriter implements FrameWriter {
+        private final List<Long> counts = new ArrayList<>();
+        private final List<Integer> colors = new ArrayList<>();
+
+        @Override
+        public void addFrame(final BufferedImage bi) {
+            addRepeatedFrame(bi, 1);
+        }
+
+        @Override
+        public void addRepeatedFrame(final BufferedImage bi, final long count) {
+            counts.add(count);
+            colors.add(bi.getRGB(0, 0));
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    private static BufferedImage image(final int rgb) {
+        final var image = new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+        image.setRGB(0, 0, rgb);
+        return image;
+    }
+
+    @Test
+    void repeatedFrameIsQueuedOnce() throws UserException {
+        // given a pipelined writer
+        final var delegate = new RecordingFrameWriter();
+        final var frameBufferPool = new FrameBufferPool();
+        final var writer = new PipelinedFrameWriter(delegate, 2, frameBufferPool);
+
+        // when single and repeated frames are added
+        writer.addFrame(image(0x111111));
+        writer.addRepeatedFrame(image(0x222222), 600);
+        writer.addRepeatedFrame(image(0x333333), 0);
+        writer.addFrame(image(0x444444));
+        writer.close();
+
+        // then the delegate gets every frame once with its number of repetitions
+        assertEquals(List.of(1L, 600L, 1L), delegate.counts);
+        assertEquals(List.of(0xFF111111, 0xFF222222, 0xFF444444), delegate.colors);
+        assertEquals(0, frameBufferPool.getOutstandingCount());
+    }
+
+    @Test
+    void unchangedFramesAreWrittenAsRepetitions() throws UserException {
+        // given a pipelined writer which compares the pixels
+        final var delegate = new RecordingFrameWriter();
+        final var frameBufferPool = new FrameBufferPool();
+        final var writer = new PipelinedFrameWriter(delegate, 2, frameBufferPool, true);
+
+        // when the same picture is added several times before it changes
+        writer.addFrame(image(0x111111));
+        writer.addFrame(image(0x111111));
+        writer.addRepeatedFrame(image(0x111111), 5);
+        writer.addFrame(image(0x222222));
+        writer.close();
+
+        // then the delegate gets the unchanged frames as one repeated frame
+        assertEquals(List.of(7L, 1L), delegate.counts);
+        assertEquals(List.of(0xFF111111, 0xFF222222), delegate.colors);
+        assertEquals(6, writer.getDeduplicatedFrames());
+        assertEquals(0, frameBufferPool.getOutstandingCount());
+    }
+
+    @Test
+    void failingDelegateIsClosed() throws UserException, InterruptedException {
+        // given a pipelined writer whose delegate fails on the first frame once the test lets it
+        final var closed = new AtomicBoolean();
+        final var writing = new CountDownLatch(1);
+        final var fail = new CountDownLatch(1);
+        final var delegate = new FrameWriter() {
+            @Override
+            public void addFrame(final BufferedImage bi) throws UserException {
+                writing.countDown();
+                try {
+                    fail.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new UserException("encoder failed");
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        final var frameBufferPool = new FrameBufferPool();
+        final var writer = new PipelinedFrameWriter(delegate, 2, frameBufferPool);
+
+        // when the queue is full while the first frame is written
+        writer.addFrame(image(0x111111));
+        writing.await();
+        writer.addFrame(image(0x222222));
+        writer.addFrame(image(0x333333));
+        assertEquals(2, writer.getQueueDepth());
+        fail.countDown();
+
+        // and frames are added until the failure reaches the renderer
+        final var failure = assertThrows(UserException.class, () -> {
+            for (var i = 0; i < 1_000; i++) {
+                writer.addFrame(image(i));
+            }
+        });
+
+        // then closing the writer reports the failure, closes the delegate and returns all frames to the pool
+        assertEquals("encoder failed", failure.getMessage());
+        assertThrows(RuntimeException.class, writer::close);
+        assertTrue(closed.get());
+        assertEquals(0, frameBufferPool.getOutstandingCount());
+    }
+
+    @Test
+    void interruptedCloseWaitsForTheEncoder() throws UserException, InterruptedException {
+        // given a pipelined writer whose delegate ignores interrupts while it writes a frame
+        final var writing = new CountDownLatch(1);
+        final var done = new CountDownLatch(1);
+        final var writingWhenClosed = new AtomicBoolean(true);
+        final var delegate = new FrameWriter() {
+            private volatile boolean busy;
+
+            @Override
+            public void addFrame(final BufferedImage bi) {
+                busy = true;
+                writing.countDown();
+                var finished = false;
+                while (!finished) {
+                    try {
+                        done.await();
+                        finished = true;
+                    } catch (final InterruptedException ignored) {
+                        // like a native encoder, which can't be interrupted
+                    }
+                }
+                busy = false;
+            }
+
+            @Override
+            public void close() {
+                writingWhenClosed.set(busy);
+            }
+        };
+        final var frameBufferPool = new FrameBufferPool();
+        final var writer = new PipelinedFrameWriter(delegate, 1, frameBufferPool);
+        writer.addFrame(image(0x111111));
+        writing.await();
+
+        // when the rendering thread is interrupted and closes the writer while the frame is written
+        final var finisher = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        finisher.start();
+        Thread.currentThread().interrupt();
+        assertThrows(RuntimeException.class, writer::close);
+
+        // then the delegate is closed after the frame was written, and the interrupt is kept
+        assertTrue(Thread.interrupted());
+        finisher.join();
+        assertFalse(writingWhenClosed.get());
+        assertEquals(0, frameBufferPool.getOutstandingCount());
+    }
+
+    @Test
+    void framesAreNotComparedByDefault() throws UserException {
+        // given a pipelined writer
+        final var delegate = new RecordingFrameWriter();
+        final var frameBufferPool = new FrameBufferPool();
+        final var writer = new PipelinedFrameWriter(delegate, 2, frameBufferPool);
+
+        // when the same picture is added twice
+        writer.addFrame(image(0x111111));
+        writer.addFrame(image(0x111111));
+        writer.close();
+
+        // then the delegate gets both frames
+        assertEquals(List.of(1L, 1L), delegate.counts);
+        assertEquals(0, writer.getDeduplicatedFrames());
+        assertEquals(0, frameBufferPool.getOutstandingCount());
+    }
+
+    @Test
+    void defaultRepetitionAddsTheFrameAgain() throws UserException {
+        // given a writer which only knows single frames
+        final var frames = new ArrayList<BufferedImage>();
+        final FrameWriter writer = new FrameWriter() {
+            @Override
+            public void addFrame(final BufferedImage bi) {
+                frames.add(bi);
+            }
+
+            @Override
+            public void close() { }
+        };
+
+        // when a frame is repeated
+        final var image = image(0x555555);
+        writer.addRepeatedFrame(image, 3);
+
+        // then it is added three times
+        assertEquals(List.of(image, image, image), frames);
+    }
+}
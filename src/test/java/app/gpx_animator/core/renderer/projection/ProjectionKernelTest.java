@@ -0,0 +1,110 @@
+package app.gpx_animator.core.renderer.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ProjectionKernelTest {
+
+    private static final int[] SIZES = {0, 1, 7, 64, 1_001};
+
+    private static double[] randomValues(final Random random, final int size, final double range) {
+        final var values = new double[size];
+        for (var i = 0; i < size; i++) {
+            values[i] = (random.nextDouble() * 2 - 1) * range;
+        }
+        return values;
+    }
+
+    private static ProjectionKernel createVectorKernel() throws ReflectiveOperationException {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "vector API not available");
+        return MercatorProjection.createVectorKernel();
+    }
+
+    @Test
+    void scalarKernelProjectsLikeSinglePoints() {
+        final var random = new Random(42);
+        for (final var size : SIZES) {
+            // given random coordinates
+            final var longitudes = randomValues(random, size, 180);
+            final var latitudes = randomValues(random, size, 85);
+
+            // when they are projected at once
+            final var xs = new double[size];
+            final var ys = new double[size];
+            final var bounds = new ScalarProjectionKernel().project(longitudes, latitudes, xs, ys);
+
+            // then every point and the bounds are exactly the same as projecting one point after the other
+            var expectedBounds = ProjectedBounds.EMPTY;
+            for (var i = 0; i < size; i++) {
+                assertEquals(MercatorProjection.lonToX(longitudes[i]), xs[i], 0);
+                assertEquals(MercatorProjection.latToY(latitudes[i]), ys[i], 0);
+                expectedBounds = expectedBounds.union(new ProjectedBounds(xs[i], xs[i], ys[i], ys[i]));
+            }
+            assertEquals(expectedBounds, bounds);
+        }
+    }
+
+    @Test
+    void vectorKernelProjectsLikeScalarKernel() throws ReflectiveOperationException {
+        final var vectorKernel = createVectorKernel();
+        final var random = new Random(42);
+        for (final var size : SIZES) {
+            // given random coordinates
+            final var longitudes = randomValues(random, size, 180);
+            final var latitudes = randomValues(random, size, 85);
+
+            // when they are projected by both kernels
+            final var scalarXs = new double[size];
+            final var scalarYs = new double[size];
+            final var scalarBounds = new ScalarProjectionKernel().project(longitudes, latitudes, scalarXs, scalarYs);
+            final var vectorXs = new double[size];
+            final var vectorYs = new double[size];
+            final var vectorBounds = vectorKernel.project(longitudes, latitudes, vectorXs, vectorYs);
+
+            // then x is exactly the same and y differs at most in the last bits
+            assertArrayEquals(scalarXs, vectorXs);
+            for (var i = 0; i < size; i++) {
+                assertEquals(scalarYs[i], vectorYs[i], Math.ulp(scalarYs[i]) * 4 + 1e-15);
+            }
+            assertEquals(scalarBounds.minX(), vectorBounds.minX(), 0);
+            assertEquals(scalarBounds.maxX(), vectorBounds.maxX(), 0);
+            assertEquals(scalarBounds.minY(), vectorBounds.minY(), 1e-14);
+            assertEquals(scalarBounds.maxY(), vectorBounds.maxY(), 1e-14);
+        }
+    }
+
+    @Test
+    void vectorKernelTranslatesLikeScalarKernel() throws ReflectiveOperationException {
+        final var vectorKernel = createVectorKernel();
+        final var random = new Random(42);
+        for (final var size : SIZES) {
+            // given random projected coordinates
+            final var xs = randomValues(random, size, Math.PI);
+            final var ys = randomValues(random, size, Math.PI);
+
+            // when they are translated by both kernels
+            final var scalarXs = new float[size];
+            final var scalarYs = new float[size];
+            new ScalarProjectionKernel().translate(xs, ys, -0.5, 1.25, 20_860.75, scalarXs, scalarYs);
+            final var vectorXs = new float[size];
+            final var vectorYs = new float[size];
+            vectorKernel.translate(xs, ys, -0.5, 1.25, 20_860.75, vectorXs, vectorYs);
+
+            // then the pixel coordinates are exactly the same
+            assertArrayEquals(scalarXs, vectorXs);
+            assertArrayEquals(scalarYs, vectorYs);
+        }
+    }
+
+    @Test
+    void emptyBoundsAreNeutral() {
+        final var bounds = new ProjectedBounds(-1, 2, -3, 4);
+        assertEquals(bounds, ProjectedBounds.EMPTY.union(bounds));
+        assertEquals(bounds, bounds.union(ProjectedBounds.EMPTY));
+    }
+}
@@ -17,10 +17,13 @@ package app.gpx_animator.ui.cli;
 
 import app.gpx_animator.core.Option;
 import app.gpx_animator.core.configuration.TrackConfiguration;
+import app.gpx_animator.core.data.EncoderProfile;
 import app.gpx_animator.core.data.MusicCodec;
 import app.gpx_animator.core.data.Position;
+import app.gpx_animator.core.data.RenderQuality;
 import app.gpx_animator.core.data.SpeedUnit;
 import app.gpx_animator.core.data.VideoCodec;
+import app.gpx_animator.core.data.ViewportMode;
 import lombok.Getter;
 import java.awt.Color;
 import java.awt.Font;
@@ -72,6 +75,18 @@ public enum OptionParam {
                      false,
                      () -> Optional.of("BOTTOM_CENTER"),
                      (factory) -> factory.getConfiguration().getCommentPosition().equals(Position.BOTTOM_CENTER)),
+    COMPARE_FRAMES(Option.COMPARE_FRAMES,
+                   false,
+                   () -> Optional.of("true"),
+                   (factory) -> factory.getConfiguration().isCompareFrames()),
+    ENCODER_PROFILE(Option.ENCODER_PROFILE,
+                    false,
+                    () -> Optional.of("archive"),
+                    (factory) -> factory.getConfiguration().getEncoderProfile() == EncoderProfile.ARCHIVE),
+    ENCODER_THREADS(Option.ENCODER_THREADS,
+                    false,
+                    () -> Optional.of("6"),
+                    (factory) -> factory.getConfiguration().getEncoderThreads() == 6),
     FLASHBACK_COLOR(Option.FLASHBACK_COLOR,
                     false,
                     () -> Optional.of("#FF0090"),
@@ -81,6 +96,10 @@ public enum OptionParam {
                        false,
                        () -> Optional.of("435353535"),
                        (factory) -> factory.getConfiguration().getFlashbackDuration().equals(435353535L)),
+    FLEET_MODE(Option.FLEET_MODE,
+               false,
+               () -> Optional.of("true"),
+               (factory) -> factory.getConfiguration().isFleetMode()),
     FONT(Option.FONT,
          false,
          () -> Optional.of(TEST_FONT_MONOSPACED_8),
@@ -222,6 +241,18 @@ public enum OptionParam {
                          () -> Optional.of(TEST_COLOR_FF_0096),
                          (factory) -> getFirstTrackConfiguration(factory).getPreDrawTrackColor()
                                  .equals(Color.decode(TEST_COLOR_FF_0096))),
+    RENDER_QUALITY(Option.RENDER_QUALITY,
+                   false,
+                   () -> Optional.of("draft"),
+                   (factory) -> factory.getConfiguration().getRenderQuality() == RenderQuality.DRAFT),
+    RENDER_BANDS(Option.RENDER_BANDS,
+                 false,
+                 () -> Optional.of("3"),
+                 (factory) -> factory.getConfiguration().getRenderBands() == 3),
+    RENDER_THREADS(Option.RENDER_THREADS,
+                   false,
+                   () -> Optional.of("4"),
+                   (factory) -> factory.getConfiguration().getRenderThreads() == 4),
     SKIP_IDLE(Option.SKIP_IDLE,
               false,
               () -> Optional.of("true"),
@@ -308,6 +339,10 @@ public enum OptionParam {
                      false,
                      () -> Optional.of("40"),
                      (factory) -> factory.getConfiguration().getViewportInertia().equals(40)),
+    VIEWPORT_MODE(Option.VIEWPORT_MODE,
+                  false,
+                  () -> Optional.of("ahead"),
+                  (factory) -> factory.getConfiguration().getViewportMode() == ViewportMode.AHEAD),
     VIEWPORT_WIDTH(Option.VIEWPORT_WIDTH,
                    false,
                    () -> Optional.of("840"),
@@ -0,0 +1,101 @@
+/*
+ *  Copyright Contributors to the GPX Animator project.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package app.gpx_animator.core.renderer.projection;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Projects as many coordinates at once as the CPU has vector lanes for
+ * doubles, using the incubating vector API of the JDK. The remaining
+ * coordinates at the end of the arrays are projected by the scalar kernel.
+ *
+ * <p>The translation gives exactly the same results as the scalar kernel.
+ * The projected y coordinates may differ in the last bits, because the
+ * vector API computes the tangent and the logarithm with its own
+ * algorithms.</p>
+ *
+ * <p>This class is compiled in its own source set and created by
+ * {@link MercatorProjection} by name. It must only be loaded if the module
+ * <code>jdk.incubator.vector</code> is available.</p>
+ */
+final class VectorProjectionKernel implements ProjectionKernel {
+
+    @NonNls
+    private static final Logger LOGGER = LoggerFactory.getLogger(VectorProjectionKernel.class);
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    // the floats have the same number of lanes as the doubles, so the vectors have half the size
+    private static final VectorSpecies<Float> FLOATS = VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+    private static final double QUARTER_PI = Math.PI / 4;
+
+    VectorProjectionKernel() {
+        LOGGER.info("Projecting track points with the vector API, {} points at once", DOUBLES.length());
+    }
+
+    @Override
+    public ProjectedBounds project(@NonNull final double[] longitudes, @NonNull final double[] latitudes,
+                                   @NonNull final double[] xs, @NonNull final double[] ys) {
+        var minX = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        var maxX = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        var minY = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        var maxY = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+
+        final var bound = DOUBLES.loopBound(longitudes.length);
+        var i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            final var x = DoubleVector.fromArray(DOUBLES, longitudes, i).mul(DEGREES_TO_RADIANS);
+            final var y = DoubleVector.fromArray(DOUBLES, latitudes, i).mul(DEGREES_TO_RADIANS).div(2).add(QUARTER_PI)
+                    .lanewise(VectorOperators.TAN)
+                    .lanewise(VectorOperators.LOG);
+            x.intoArray(xs, i);
+            y.intoArray(ys, i);
+            minX = minX.min(x);
+            maxX = maxX.max(x);
+            minY = minY.min(y);
+            maxY = maxY.max(y);
+        }
+
+        final var bounds = new ProjectedBounds(minX.reduceLanes(VectorOperators.MIN), maxX.reduceLanes(VectorOperators.MAX),
+                minY.reduceLanes(VectorOperators.MIN), maxY.reduceLanes(VectorOperators.MAX));
+        return bounds.union(ScalarProjectionKernel.project(longitudes, latitudes, i, xs, ys));
+    }
+
+    @Override
+    public void translate(@NonNull final double[] xs, @NonNull final double[] ys,
+                          final double minX, final double maxY, final double scale,
+                          @NonNull final float[] screenXs, @NonNull final float[] screenYs) {
+        final var bound = DOUBLES.loopBound(xs.length);
+        var i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            final var x = DoubleVector.fromArray(DOUBLES, xs, i).sub(minX).mul(scale);
+            final var y = DoubleVector.broadcast(DOUBLES, maxY).sub(DoubleVector.fromArray(DOUBLES, ys, i)).mul(scale);
+            ((FloatVector) x.convertShape(VectorOperators.D2F, FLOATS, 0)).intoArray(screenXs, i);
+            ((FloatVector) y.convertShape(VectorOperators.D2F, FLOATS, 0)).intoArray(screenYs, i);
+        }
+        ScalarProjectionKernel.translate(xs, ys, i, minX, maxY, scale, screenXs, screenYs);
+    }
+}